@@ -0,0 +1,145 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.view.animation.AnimationSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+public class AnimusBenchmark {
+
+    /*
+     * Cost of building Animus animations of a single hop for each animation type,
+     * the same way FrameController built them on every hop before transition specs.
+     * Switches no longer run this code, it is kept as a baseline for TransitionBenchmark.
+     *
+     * Types are the same as Controller.ANIMATION_... constants.
+     */
+
+    private static final int ANIMATION_FADE = 0;
+    private static final int ANIMATION_SCALE = 1;
+    private static final int ANIMATION_SWIPE = 2;
+    private static final int ANIMATION_MOVE_RIGHT = 3;
+    private static final int ANIMATION_MOVE_BOTTOM = 4;
+    private static final int ANIMATION_MOVE_LEFT = 5;
+    private static final int ANIMATION_MOVE_TOP = 6;
+    private static final int ANIMATION_SCROLL_VERTICAL = 7;
+    private static final int ANIMATION_SCROLL_HORIZONTAL = 8;
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8"})
+    public int animationType;
+
+    @Param({"false", "true"})
+    public boolean scaleMod;
+
+    private Animus animus;
+    private int duration = 400;
+
+    @Setup
+    public void setup() {
+        animus = new Animus();
+        animus.setInterpolator(Animus.Interpolators.FASTOUT_SLOWIN);
+    }
+
+    @Benchmark
+    public void hopForward(Blackhole bh) {
+        buildHop(bh, true);
+    }
+
+    @Benchmark
+    public void hopBackward(Blackhole bh) {
+        buildHop(bh, false);
+    }
+
+    @Benchmark
+    public Object setInterpolator() {
+        animus.setInterpolator(Animus.Interpolators.FASTOUT_SLOWIN);
+        return animus;
+    }
+
+    private void buildHop(Blackhole bh, boolean forward) {
+        AnimationSet nextAnim = new AnimationSet(false);
+        AnimationSet prevAnim = new AnimationSet(false);
+
+        switch (animationType) {
+            case ANIMATION_FADE: {
+                if (forward) {
+                    if (scaleMod) nextAnim.addAnimation(animus.scaleFrom0To1(duration, false));
+                    nextAnim.addAnimation(animus.show(duration, false));
+                }
+                else {
+                    if (scaleMod) prevAnim.addAnimation(animus.scaleFrom1To0(duration, false));
+                    prevAnim.addAnimation(animus.hide(duration, false));
+                }
+                break;
+            }
+            case ANIMATION_SCALE: {
+                if (forward) bh.consume(animus.scaleFrom0To1(duration, false));
+                else bh.consume(animus.scaleFrom1To0(duration, false));
+                break;
+            }
+            case ANIMATION_SWIPE: {
+                if (scaleMod) {
+                    nextAnim.addAnimation(animus.scale(0.3f, 1.0f, 0.3f, 1.0f, forward ? 1.0f : 0.0f, 1.0f, duration, false));
+                    prevAnim.addAnimation(animus.scale(1.0f, 0.2f, 1.0f, 0.2f, forward ? 0.0f : 1.0f, 1.0f, (int)(duration*0.8), true));
+                }
+                nextAnim.addAnimation(forward ? animus.fromRightOfParent(duration, false) : animus.fromLeftOfParent(duration, false));
+                prevAnim.addAnimation(forward ? animus.toLeftOfParent(duration, false) : animus.toRightOfParent(duration, false));
+                nextAnim.addAnimation(animus.rotate(forward ? 20 : -20, 0, 0.5f, 1.0f, duration, false));
+                prevAnim.addAnimation(animus.rotate(0, forward ? -20 : 20, 0.5f, 1.0f, duration, false));
+                if (scaleMod) {
+                    nextAnim.addAnimation(animus.scale(0.3f, 1.0f, 0.3f, 1.0f, 0.5f, 0.5f, duration, false));
+                    prevAnim.addAnimation(animus.scale(1.0f, 0.3f, 1.0f, 0.3f, 0.5f, 0.5f, duration, false));
+                }
+                break;
+            }
+            case ANIMATION_MOVE_RIGHT:
+            case ANIMATION_MOVE_BOTTOM:
+            case ANIMATION_MOVE_LEFT:
+            case ANIMATION_MOVE_TOP: {
+                if (forward) {
+                    nextAnim.addAnimation(animus.fromRightOfParent(duration, false));
+                    if (scaleMod) nextAnim.addAnimation(animus.scale(0.6f, 1.0f, 0.6f, 1.0f, 1.0f, 0.5f, duration, false));
+                }
+                else {
+                    prevAnim.addAnimation(animus.toRightOfParent(duration, false));
+                    if (scaleMod) prevAnim.addAnimation(animus.scale(1.0f, 0.6f, 1.0f, 0.6f, 1.0f, 0.5f, duration, false));
+                }
+                break;
+            }
+            case ANIMATION_SCROLL_VERTICAL:
+            case ANIMATION_SCROLL_HORIZONTAL: {
+                nextAnim.addAnimation(forward ? animus.fromBottomOfParent(duration, false) : animus.fromTopOfParent(duration, false));
+                prevAnim.addAnimation(forward ? animus.toTopOfParent(duration, false) : animus.toBottomOfParent(duration, false));
+                if (scaleMod) {
+                    nextAnim.addAnimation(animus.scale(0.7f, 1.0f, 0.7f, 1.0f, 0.5f, forward ? 1.0f : 0.0f, duration, false));
+                    prevAnim.addAnimation(animus.scale(1.0f, 0.7f, 1.0f, 0.7f, 0.5f, forward ? 0.0f : 1.0f, duration, false));
+                }
+                break;
+            }
+        }
+
+        bh.consume(nextAnim);
+        bh.consume(prevAnim);
+    }
+}
@@ -0,0 +1,63 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.view.animation.Interpolator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class InterpolatorBenchmark {
+
+    /*
+     * Cost of interpolator instantiation and of evaluation of a single frame
+     * for every interpolator of Animus.Interpolators.
+     */
+
+    private static final int FRAMES = 64;
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"})
+    public int interpolatorId;
+
+    private Animus animus;
+    private Interpolator interpolator;
+
+    @Setup
+    public void setup() {
+        animus = new Animus();
+        animus.setCycleInterpolatorCycles(1);
+        interpolator = animus.getInterpolator(interpolatorId);
+    }
+
+    @Benchmark
+    public Interpolator create() {
+        return animus.getInterpolator(interpolatorId);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public float evaluate() {
+        float sum = 0f;
+        for (int i = 0; i < FRAMES; i++) sum += interpolator.getInterpolation(i / (float)(FRAMES - 1));
+        return sum;
+    }
+}
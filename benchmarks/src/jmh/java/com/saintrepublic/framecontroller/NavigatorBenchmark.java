@@ -0,0 +1,57 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class NavigatorBenchmark {
+
+    /*
+     * Cost of navigation planning without views:
+     * request of switch and stepping or planning all its hops.
+     */
+
+    @Param({"1", "10", "1000"})
+    public int distance;
+
+    private FCNavigator navigator = new FCNavigator();
+    private int[] hops = new int[1001];
+
+    @Benchmark
+    public int requestAndStep() {
+        navigator.request(distance, 0, distance + 1, false, false);
+        int sum = 0;
+        do sum += navigator.step();
+        while (!navigator.isLastHop());
+        return sum;
+    }
+
+    @Benchmark
+    public int requestAndPlan() {
+        navigator.request(distance, 0, distance + 1, false, false);
+        return navigator.planHops(hops);
+    }
+
+    @Benchmark
+    public int requestRejected() {
+        return navigator.request(distance + 1, 0, distance + 1, false, false);
+    }
+}
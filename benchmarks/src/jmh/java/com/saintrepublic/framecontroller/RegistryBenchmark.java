@@ -0,0 +1,74 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.widget.FrameLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class RegistryBenchmark {
+
+    /*
+     * Cost of FCController container collection operations
+     * at different count of containers.
+     *
+     * Every benchmark keeps count of containers unchanged between invocations.
+     */
+
+    @Param({"10", "1000", "100000"})
+    public int containers;
+
+    private FCController fc;
+    private FrameLayout middle;
+
+    @Setup
+    public void setup() {
+        fc = new FCController(new Context());
+        for (int i = 0; i < containers; i++) fc.createNewContainer();
+        middle = fc.getListContainers().get(containers / 2);
+    }
+
+    @Benchmark
+    public FrameLayout add() {
+        FrameLayout container = fc.createNewContainer();
+        fc.rmContainer(container);
+        return container;
+    }
+
+    @Benchmark
+    public FrameLayout removeMiddle() {
+        fc.rmContainer(middle);
+        fc.getListContainers().add(containers / 2, middle);
+        return middle;
+    }
+
+    @Benchmark
+    public int lookupMiddle() {
+        return fc.getListContainers().indexOf(middle);
+    }
+
+    @Benchmark
+    public int attachedCount() {
+        return fc.cAttachedCount();
+    }
+}
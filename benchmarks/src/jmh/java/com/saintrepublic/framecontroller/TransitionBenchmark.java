@@ -0,0 +1,116 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.view.animation.Interpolator;
+import android.view.animation.Transformation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class TransitionBenchmark {
+
+    /*
+     * Cost of a frame of hop animation for each built-in animation type,
+     * as FrameController evaluates it: cached curves of FCBuiltInSpec
+     * applied by pooled FCSpecAnimation. A frame should not allocate,
+     * so gc profiler is expected to show no allocation rate.
+     *
+     * Declaring curves is measured too, it runs once per type and direction on registration.
+     */
+
+    private static final int FRAMES = 64;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8"})
+    public int animationType;
+
+    @Param({"false", "true"})
+    public boolean scaleMod;
+
+    private FCBuiltInSpec spec;
+    private Interpolator interpolator;
+    private TransitionCurves incoming;
+    private TransitionCurves outgoing;
+    private FCSpecAnimation incomingAnimation;
+    private FCSpecAnimation outgoingAnimation;
+    private int duration;
+    private final Transformation transformation = new Transformation();
+
+    @Setup
+    public void setup() {
+        spec = new FCBuiltInSpec(animationType);
+        interpolator = new Animus().getInterpolator(spec.getInterpolator());
+        duration = spec.getDuration(FrameController.SPEED_NORMAL);
+
+        incoming = new TransitionCurves();
+        outgoing = new TransitionCurves();
+        spec.declare(incoming, outgoing, true, scaleMod);
+
+        incomingAnimation = new FCSpecAnimation();
+        incomingAnimation.set(incoming, interpolator, duration);
+        incomingAnimation.initialize(WIDTH, HEIGHT, WIDTH, HEIGHT);
+        outgoingAnimation = new FCSpecAnimation();
+        outgoingAnimation.set(outgoing, interpolator, duration);
+        outgoingAnimation.initialize(WIDTH, HEIGHT, WIDTH, HEIGHT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public float curvesFrame() {
+        float sum = 0f;
+        for (int i = 0; i < FRAMES; i++) {
+            float time = i / (float) (FRAMES - 1);
+            incoming.apply(time, interpolator, transformation, WIDTH, HEIGHT, WIDTH, HEIGHT);
+            sum += transformation.getAlpha();
+            outgoing.apply(time, interpolator, transformation, WIDTH, HEIGHT, WIDTH, HEIGHT);
+            sum += transformation.getAlpha();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public float animationFrame() {
+        incomingAnimation.setStartTime(0);
+        outgoingAnimation.setStartTime(0);
+
+        float sum = 0f;
+        for (int i = 0; i < FRAMES; i++) {
+            long time = (long) i * duration / (FRAMES - 1);
+            incomingAnimation.getTransformation(time, transformation);
+            sum += transformation.getAlpha();
+            outgoingAnimation.getTransformation(time, transformation);
+            sum += transformation.getAlpha();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Object declare() {
+        TransitionCurves in = new TransitionCurves();
+        TransitionCurves out = new TransitionCurves();
+        spec.declare(in, out, true, scaleMod);
+        return in;
+    }
+}
@@ -0,0 +1,57 @@
+package android.graphics;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.graphics.Bitmap for benchmarks.
+ * Only keeps dimensions and assumes ARGB_8888.
+ */
+public class Bitmap {
+
+    private final int width;
+    private final int height;
+    private boolean recycled = false;
+
+    public Bitmap(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getByteCount() {
+        return width * height * 4;
+    }
+
+    public int getAllocationByteCount() {
+        return getByteCount();
+    }
+
+    public boolean isRecycled() {
+        return recycled;
+    }
+
+    public void recycle() {
+        recycled = true;
+    }
+}
@@ -0,0 +1,80 @@
+package android.graphics;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.graphics.Matrix for benchmarks.
+ * Keeps the same 3x3 affine math, so evaluation costs about the same as on device.
+ */
+public class Matrix {
+
+    public static final int MSCALE_X = 0;
+    public static final int MSKEW_X = 1;
+    public static final int MTRANS_X = 2;
+    public static final int MSKEW_Y = 3;
+    public static final int MSCALE_Y = 4;
+    public static final int MTRANS_Y = 5;
+
+    private final float[] values = new float[9];
+
+    public Matrix() {
+        reset();
+    }
+
+    public void reset() {
+        for (int i = 0; i < 9; i++) values[i] = 0.0f;
+        values[MSCALE_X] = 1.0f;
+        values[MSCALE_Y] = 1.0f;
+        values[8] = 1.0f;
+    }
+
+    public void getValues(float[] out) {
+        System.arraycopy(values, 0, out, 0, 9);
+    }
+
+    public boolean preTranslate(float dx, float dy) {
+        return preConcat(1.0f, 0.0f, dx, 0.0f, 1.0f, dy);
+    }
+
+    public boolean preScale(float sx, float sy, float px, float py) {
+        return preConcat(sx, 0.0f, px - sx * px, 0.0f, sy, py - sy * py);
+    }
+
+    public boolean preRotate(float degrees, float px, float py) {
+        double radians = Math.toRadians(degrees);
+        float sin = (float) Math.sin(radians);
+        float cos = (float) Math.cos(radians);
+        return preConcat(cos, -sin, sin * py + px - cos * px, sin, cos, py - cos * py - sin * px);
+    }
+
+    private boolean preConcat(float a, float b, float c, float d, float e, float f) {
+        float[] m = values;
+        float m0 = m[0] * a + m[1] * d;
+        float m1 = m[0] * b + m[1] * e;
+        float m2 = m[0] * c + m[1] * f + m[2];
+        float m3 = m[3] * a + m[4] * d;
+        float m4 = m[3] * b + m[4] * e;
+        float m5 = m[3] * c + m[4] * f + m[5];
+        m[0] = m0;
+        m[1] = m1;
+        m[2] = m2;
+        m[3] = m3;
+        m[4] = m4;
+        m[5] = m5;
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package android.support.v4.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.support.v4.view.animation.FastOutLinearInInterpolator for benchmarks.
+ */
+public class FastOutLinearInInterpolator extends LookupTableInterpolator {
+
+    public FastOutLinearInInterpolator() {
+        super(0.4f, 0f, 1f, 1f);
+    }
+}
@@ -0,0 +1,27 @@
+package android.support.v4.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.support.v4.view.animation.LinearOutSlowInInterpolator for benchmarks.
+ */
+public class LinearOutSlowInInterpolator extends LookupTableInterpolator {
+
+    public LinearOutSlowInInterpolator() {
+        super(0f, 0f, 0.2f, 1f);
+    }
+}
@@ -0,0 +1,67 @@
+package android.support.v4.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.view.animation.Interpolator;
+
+/**
+ * JVM stub of the support library lookup table interpolator for benchmarks.
+ *
+ * Support library ships precomputed tables of 201 values,
+ * here the same tables are computed once from the cubic Bezier curves.
+ */
+abstract class LookupTableInterpolator implements Interpolator {
+
+    private static final int SIZE = 201;
+
+    private final float[] values;
+    private final float stepSize;
+
+    LookupTableInterpolator(float x1, float y1, float x2, float y2) {
+        values = new float[SIZE];
+        stepSize = 1.0f / (SIZE - 1);
+        for (int i = 0; i < SIZE; i++) values[i] = solve(i * stepSize, x1, y1, x2, y2);
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input >= 1.0f) return 1.0f;
+        if (input <= 0f) return 0f;
+
+        int position = Math.min((int)(input * (values.length - 1)), values.length - 2);
+        float quantized = position * stepSize;
+        float weight = (input - quantized) / stepSize;
+        return values[position] + weight * (values[position + 1] - values[position]);
+    }
+
+    private static float solve(float x, float x1, float y1, float x2, float y2) {
+        float low = 0f;
+        float high = 1f;
+        float t = x;
+        for (int i = 0; i < 32; i++) {
+            t = (low + high) / 2f;
+            if (bezier(t, x1, x2) < x) low = t;
+            else high = t;
+        }
+        return bezier(t, y1, y2);
+    }
+
+    private static float bezier(float t, float p1, float p2) {
+        float u = 1f - t;
+        return 3f * u * u * t * p1 + 3f * u * t * t * p2 + t * t * t;
+    }
+}
@@ -0,0 +1,110 @@
+package android.view;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+
+/**
+ * JVM stub of android.view.View for benchmarks.
+ * Keeps the state FrameController touches without measuring or drawing.
+ */
+public class View {
+
+    public static final int VISIBLE = 0;
+    public static final int INVISIBLE = 4;
+    public static final int GONE = 8;
+
+    private final Context context;
+    private int visibility = VISIBLE;
+    private Drawable background;
+    private ViewGroup.LayoutParams layoutParams;
+    private final int[] padding = new int[4];
+    private boolean clickable;
+    private boolean focusable;
+    private boolean longClickable;
+    private Object tag;
+    ViewGroup parent;
+
+    public View(Context context) {
+        this.context = context;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public void setVisibility(int visibility) {
+        this.visibility = visibility;
+    }
+
+    public int getVisibility() {
+        return visibility;
+    }
+
+    public void setBackground(Drawable background) {
+        this.background = background;
+    }
+
+    public void setBackgroundColor(int color) {
+        this.background = new ColorDrawable(color);
+    }
+
+    public Drawable getBackground() {
+        return background;
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        this.layoutParams = params;
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return layoutParams;
+    }
+
+    public void setPadding(int left, int top, int right, int bottom) {
+        padding[0] = left;
+        padding[1] = top;
+        padding[2] = right;
+        padding[3] = bottom;
+    }
+
+    public void setClickable(boolean clickable) {
+        this.clickable = clickable;
+    }
+
+    public void setFocusable(boolean focusable) {
+        this.focusable = focusable;
+    }
+
+    public void setLongClickable(boolean longClickable) {
+        this.longClickable = longClickable;
+    }
+
+    public void setTag(Object tag) {
+        this.tag = tag;
+    }
+
+    public Object getTag() {
+        return tag;
+    }
+
+    public ViewGroup getParent() {
+        return parent;
+    }
+}
@@ -0,0 +1,103 @@
+package android.view;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+
+import java.util.ArrayList;
+
+/**
+ * JVM stub of android.view.ViewGroup for benchmarks.
+ */
+public class ViewGroup extends View {
+
+    private final ArrayList<View> children = new ArrayList<>();
+
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public void addView(View child) {
+        addView(child, -1);
+    }
+
+    public void addView(View child, int index) {
+        if (child.parent != null) throw new IllegalStateException("The specified child already has a parent.");
+        child.parent = this;
+        if (index < 0) children.add(child);
+        else children.add(index, child);
+    }
+
+    public void removeView(View child) {
+        if (children.remove(child)) child.parent = null;
+    }
+
+    public void removeViewAt(int index) {
+        children.remove(index).parent = null;
+    }
+
+    public void removeAllViews() {
+        for (int i = 0; i < children.size(); i++) children.get(i).parent = null;
+        children.clear();
+    }
+
+    public int getChildCount() {
+        return children.size();
+    }
+
+    public View getChildAt(int index) {
+        if (index < 0 || index >= children.size()) return null;
+        return children.get(index);
+    }
+
+    public int indexOfChild(View child) {
+        return children.indexOf(child);
+    }
+
+    public static class LayoutParams {
+
+        public static final int MATCH_PARENT = -1;
+        public static final int WRAP_CONTENT = -2;
+
+        public int width;
+        public int height;
+
+        public LayoutParams(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public static class MarginLayoutParams extends LayoutParams {
+
+        public int leftMargin;
+        public int topMargin;
+        public int rightMargin;
+        public int bottomMargin;
+
+        public MarginLayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public void setMargins(int left, int top, int right, int bottom) {
+            leftMargin = left;
+            topMargin = top;
+            rightMargin = right;
+            bottomMargin = bottom;
+        }
+    }
+}
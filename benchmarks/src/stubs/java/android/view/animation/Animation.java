@@ -0,0 +1,108 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.view.animation.Animation for benchmarks.
+ * Keeps configuration of an animation without running it.
+ */
+public abstract class Animation {
+
+    public static final int ABSOLUTE = 0;
+    public static final int RELATIVE_TO_SELF = 1;
+    public static final int RELATIVE_TO_PARENT = 2;
+
+    public static final int START_ON_FIRST_FRAME = -1;
+
+    long startTime = START_ON_FIRST_FRAME;
+    long startOffset;
+    long duration;
+    boolean fillBefore = true;
+    boolean fillAfter = false;
+    boolean fillEnabled = false;
+    Interpolator interpolator;
+    AnimationListener listener;
+    boolean initialized = false;
+
+    public void setDuration(long durationMillis) {
+        duration = durationMillis;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setStartTime(long startTimeMillis) {
+        startTime = startTimeMillis;
+    }
+
+    public void setStartOffset(long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public void setFillAfter(boolean fillAfter) {
+        this.fillAfter = fillAfter;
+    }
+
+    public boolean getFillAfter() {
+        return fillAfter;
+    }
+
+    public void setInterpolator(Interpolator interpolator) {
+        this.interpolator = interpolator;
+    }
+
+    public Interpolator getInterpolator() {
+        return interpolator;
+    }
+
+    public void setAnimationListener(AnimationListener listener) {
+        this.listener = listener;
+    }
+
+    public void reset() {
+        initialized = false;
+    }
+
+    public void initialize(int width, int height, int parentWidth, int parentHeight) {
+        initialized = true;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * Normalized time of animation with one run, no repeats and fill after
+     */
+    public boolean getTransformation(long currentTime, Transformation outTransformation) {
+        if (startTime == START_ON_FIRST_FRAME) startTime = currentTime;
+        float normalized = (duration != 0) ? (float) (currentTime - (startTime + startOffset)) / duration : 1.0f;
+        boolean expired = (normalized >= 1.0f);
+        normalized = Math.max(Math.min(normalized, 1.0f), 0.0f);
+        applyTransformation((interpolator != null) ? interpolator.getInterpolation(normalized) : normalized, outTransformation);
+        return !expired;
+    }
+
+    protected void applyTransformation(float interpolatedTime, Transformation t) {}
+
+    public interface AnimationListener {
+        void onAnimationStart(Animation animation);
+        void onAnimationEnd(Animation animation);
+        void onAnimationRepeat(Animation animation);
+    }
+}
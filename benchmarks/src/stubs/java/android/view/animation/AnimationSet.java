@@ -0,0 +1,42 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JVM stub of android.view.animation.AnimationSet for benchmarks.
+ */
+public class AnimationSet extends Animation {
+
+    private final boolean shareInterpolator;
+    private final ArrayList<Animation> animations = new ArrayList<>();
+
+    public AnimationSet(boolean shareInterpolator) {
+        this.shareInterpolator = shareInterpolator;
+    }
+
+    public void addAnimation(Animation a) {
+        animations.add(a);
+        if (a.getDuration() > getDuration()) setDuration(a.getDuration());
+    }
+
+    public List<Animation> getAnimations() {
+        return animations;
+    }
+}
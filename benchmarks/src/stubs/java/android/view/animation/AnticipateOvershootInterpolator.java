@@ -0,0 +1,40 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.view.animation.AnticipateOvershootInterpolator for benchmarks.
+ * Uses the same formula as the framework class.
+ */
+public class AnticipateOvershootInterpolator implements Interpolator {
+
+    private static final float TENSION = 2.0f * 1.5f;
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input < 0.5f) return 0.5f * a(input * 2.0f, TENSION);
+        else return 0.5f * (o(input * 2.0f - 2.0f, TENSION) + 2.0f);
+    }
+
+    private static float a(float t, float s) {
+        return t * t * ((s + 1) * t - s);
+    }
+
+    private static float o(float t, float s) {
+        return t * t * ((s + 1) * t + s);
+    }
+}
@@ -0,0 +1,37 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.view.animation.BounceInterpolator for benchmarks.
+ * Uses the same formula as the framework class.
+ */
+public class BounceInterpolator implements Interpolator {
+
+    @Override
+    public float getInterpolation(float input) {
+        input *= 1.1226f;
+        if (input < 0.3535f) return bounce(input);
+        else if (input < 0.7408f) return bounce(input - 0.54719f) + 0.7f;
+        else if (input < 0.9644f) return bounce(input - 0.8526f) + 0.9f;
+        else return bounce(input - 1.0435f) + 0.95f;
+    }
+
+    private static float bounce(float t) {
+        return t * t * 8.0f;
+    }
+}
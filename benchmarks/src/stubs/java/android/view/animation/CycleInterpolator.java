@@ -0,0 +1,35 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.view.animation.CycleInterpolator for benchmarks.
+ * Uses the same formula as the framework class.
+ */
+public class CycleInterpolator implements Interpolator {
+
+    private final float cycles;
+
+    public CycleInterpolator(float cycles) {
+        this.cycles = cycles;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return (float)(Math.sin(2 * cycles * Math.PI * input));
+    }
+}
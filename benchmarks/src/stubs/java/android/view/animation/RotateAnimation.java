@@ -0,0 +1,40 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.view.animation.RotateAnimation for benchmarks.
+ */
+public class RotateAnimation extends Animation {
+
+    private final float fromDegrees;
+    private final float toDegrees;
+    private final int pivotXType;
+    private final float pivotXValue;
+    private final int pivotYType;
+    private final float pivotYValue;
+
+    public RotateAnimation(float fromDegrees, float toDegrees,
+                           int pivotXType, float pivotXValue, int pivotYType, float pivotYValue) {
+        this.fromDegrees = fromDegrees;
+        this.toDegrees = toDegrees;
+        this.pivotXType = pivotXType;
+        this.pivotXValue = pivotXValue;
+        this.pivotYType = pivotYType;
+        this.pivotYValue = pivotYValue;
+    }
+}
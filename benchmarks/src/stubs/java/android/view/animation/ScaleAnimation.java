@@ -0,0 +1,44 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.view.animation.ScaleAnimation for benchmarks.
+ */
+public class ScaleAnimation extends Animation {
+
+    private final float fromX;
+    private final float toX;
+    private final float fromY;
+    private final float toY;
+    private final int pivotXType;
+    private final float pivotXValue;
+    private final int pivotYType;
+    private final float pivotYValue;
+
+    public ScaleAnimation(float fromX, float toX, float fromY, float toY,
+                          int pivotXType, float pivotXValue, int pivotYType, float pivotYValue) {
+        this.fromX = fromX;
+        this.toX = toX;
+        this.fromY = fromY;
+        this.toY = toY;
+        this.pivotXType = pivotXType;
+        this.pivotXValue = pivotXValue;
+        this.pivotYType = pivotYType;
+        this.pivotYValue = pivotYValue;
+    }
+}
@@ -0,0 +1,45 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.graphics.Matrix;
+
+/**
+ * JVM stub of android.view.animation.Transformation for benchmarks.
+ */
+public class Transformation {
+
+    private final Matrix matrix = new Matrix();
+    private float alpha = 1.0f;
+
+    public void clear() {
+        matrix.reset();
+        alpha = 1.0f;
+    }
+
+    public Matrix getMatrix() {
+        return matrix;
+    }
+
+    public float getAlpha() {
+        return alpha;
+    }
+
+    public void setAlpha(float alpha) {
+        this.alpha = alpha;
+    }
+}
@@ -0,0 +1,44 @@
+package android.view.animation;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of android.view.animation.TranslateAnimation for benchmarks.
+ */
+public class TranslateAnimation extends Animation {
+
+    private final int fromXType;
+    private final float fromXValue;
+    private final int toXType;
+    private final float toXValue;
+    private final int fromYType;
+    private final float fromYValue;
+    private final int toYType;
+    private final float toYValue;
+
+    public TranslateAnimation(int fromXType, float fromXValue, int toXType, float toXValue,
+                              int fromYType, float fromYValue, int toYType, float toYValue) {
+        this.fromXType = fromXType;
+        this.fromXValue = fromXValue;
+        this.toXType = toXType;
+        this.toXValue = toXValue;
+        this.fromYType = fromYType;
+        this.fromYValue = fromYValue;
+        this.toYType = toYType;
+        this.toYValue = toYValue;
+    }
+}
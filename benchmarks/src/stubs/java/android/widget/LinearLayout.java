@@ -0,0 +1,44 @@
+package android.widget;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+/**
+ * JVM stub of android.widget.LinearLayout for benchmarks.
+ */
+public class LinearLayout extends ViewGroup {
+
+    public LinearLayout(Context context) {
+        super(context);
+    }
+
+    public static class LayoutParams extends ViewGroup.MarginLayoutParams {
+
+        public float weight;
+
+        public LayoutParams(int width, int height) {
+            super(width, height);
+        }
+
+        public LayoutParams(int width, int height, float weight) {
+            super(width, height);
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JVM stub of FrameController for benchmarks.
+ * Keeps only constants used by built-in transition specs.
+ */
+public class FrameController {
+
+    public final static int ANIMATION_NONE = -1;
+    public final static int ANIMATION_FADE = 0;
+    public final static int ANIMATION_SCALE = 1;
+    public final static int ANIMATION_SWIPE = 2;
+    public final static int ANIMATION_MOVE_RIGHT = 3;
+    public final static int ANIMATION_MOVE_BOTTOM = 4;
+    public final static int ANIMATION_MOVE_LEFT = 5;
+    public final static int ANIMATION_MOVE_TOP = 6;
+    public final static int ANIMATION_SCROLL_VERTICAL = 7;
+    public final static int ANIMATION_SCROLL_HORIZONTAL = 8;
+    public final static int ANIMATION_SPRING = 9;
+
+    public final static int SPEED_SLOW = 0;
+    public final static int SPEED_NORMAL = 1;
+    public final static int SPEED_FAST = 2;
+}
@@ -0,0 +1,108 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+
+public abstract class ContainerAdapter {
+
+    /*
+     * Source of pages for FrameController.
+     *
+     * With adapter FrameController does not hold a container per page:
+     * only the current page and pages in transition are bound to containers,
+     * containers which leave the screen are kept in pools by view type and bound again.
+     * Switches go straight to target page, so going to any page costs the same.
+     *
+     * Set it with Controller.setAdapter(), positions of FrameController become positions of adapter.
+     */
+
+    /**
+     * Item id which is never equal to another one, pages with it are bound again on every data change
+     */
+    public final static long NO_ID = -1;
+
+    private final DataSetObservable observable = new DataSetObservable();
+
+    /**
+     * @return count of pages
+     */
+    public abstract int getCount();
+
+    /**
+     * Pages of the same view type share containers
+     *
+     * @param position position of page
+     * @return view type of page, 0 by default
+     */
+    public int getViewType(int position) {
+        return 0;
+    }
+
+    /**
+     * Stable id lets notifyDataSetChanged() skip binding of pages which did not change
+     *
+     * @param position position of page
+     * @return id of page or NO_ID
+     */
+    public long getItemId(int position) {
+        return NO_ID;
+    }
+
+    /**
+     * Create view of a page, it is put into a new container
+     *
+     * @param parent container of view
+     * @param viewType view type of page
+     * @return new view
+     */
+    public abstract View onCreateView(ViewGroup parent, int viewType);
+
+    /**
+     * Show page in view made by onCreateView() for the same view type
+     *
+     * @param view view of page
+     * @param position position of page
+     */
+    public abstract void onBindView(View view, int position);
+
+    /**
+     * Triggered when view leaves the screen and goes to pool,
+     * release here what page holds
+     *
+     * @param view view of page
+     */
+    public void onRecycleView(View view) {}
+
+    /**
+     * Tell FrameController that pages changed, shown pages are bound again
+     */
+    public void notifyDataSetChanged() {
+        observable.notifyChanged();
+    }
+
+    void registerDataSetObserver(DataSetObserver observer) {
+        observable.registerObserver(observer);
+    }
+
+    void unregisterDataSetObserver(DataSetObserver observer) {
+        observable.unregisterObserver(observer);
+    }
+}
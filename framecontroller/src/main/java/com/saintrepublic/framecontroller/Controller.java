@@ -16,6 +16,7 @@ package com.saintrepublic.framecontroller;
  * limitations under the License.
  */
 
+import android.arch.lifecycle.LifecycleOwner;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.IntRange;
 import android.support.annotation.LayoutRes;
@@ -24,6 +25,8 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
 
+import java.io.File;
+
 public interface Controller {
 
     /**
@@ -49,11 +52,27 @@ public interface Controller {
     int ANIMATION_MOVE_TOP = 6;
     int ANIMATION_SCROLL_VERTICAL = 7;
     int ANIMATION_SCROLL_HORIZONTAL = 8;
+    int ANIMATION_SPRING = 9;
 
     int SPEED_SLOW = 0;
     int SPEED_NORMAL = 1;
     int SPEED_FAST = 2;
 
+    int DRAG_NONE = 0;
+    int DRAG_HORIZONTAL = 1;
+    int DRAG_VERTICAL = 2;
+
+    int QUALITY_FULL = 0;
+    int QUALITY_REDUCED = 1;
+    int QUALITY_FADE = 2;
+    int QUALITY_NONE = 3;
+
+    int CONTAINER_CREATED = 0;
+    int CONTAINER_ATTACHED = 1;
+    int CONTAINER_VISIBLE = 2;
+    int CONTAINER_HIDDEN = 3;
+    int CONTAINER_EVICTED = 4;
+
     /**
      * Returns assigned FrameController
      *
@@ -264,6 +283,188 @@ public interface Controller {
      */
     void fillFromSavedContainers();
 
+    /**
+     * Set factory of containers restored from saved instance state which were not made from layouts
+     *
+     * FrameController with an id saves positions, tags, layout ids of containers and its configuration.
+     * When it is restored with no containers, containers are made again empty
+     * and filled when they are needed first, only current container is filled at once.
+     * Tags are restored if they are strings, integers, longs or Parcelables.
+     * If containers were added again before restore, only current position and configuration are restored.
+     *
+     * @param factory factory or null to leave such containers empty
+     */
+    void setContainerFactory(@Nullable FrameController.ContainerFactory factory);
+
+    /**
+     * Keep containers over recreation of activity for a new configuration
+     *
+     * Containers and their layouts are made with a context which follows the activity,
+     * so set the key before adding containers. When activity is recreated for a new configuration
+     * containers, their tags, configuration and current container are kept under the key,
+     * and FrameController of the new activity takes them in one layout pass when it sets the same key.
+     * Views made by the app with context of activity are not retained, neither are pages of adapter.
+     * Layouts are not inflated again, so they should not depend on configuration.
+     * The key must be set in onCreate of the new activity, retained containers which are not taken
+     * by then are dropped when any activity of the application is resumed.
+     *
+     * @param key key unique for every FrameController, null to stop retaining
+     * @return true if retained containers were taken, false if containers are to be added as usual
+     */
+    boolean setRetainKey(@Nullable String key);
+
+    /**
+     * Return retain key of FrameController
+     *
+     * @return retain key or null
+     */
+    @Nullable
+    String getRetainKey();
+
+    /**
+     * Collect memory footprint statistics of all containers in container collection
+     *
+     * Includes containers removed by removeAllContainers() which are still held.
+     * Statistics walks through all views of all containers,
+     * so avoid calling it on every frame.
+     *
+     * @return new MemoryStats snapshot
+     */
+    MemoryStats getMemoryStats();
+
+    /**
+     * Remember layouts shown at the start of a session and pre-inflate them at the start of the next one
+     *
+     * Layout ids and tags of containers shown in the first recordMillis are written to a small file
+     * in app storage. When manifest with the same name is set in the next session,
+     * those layouts are inflated in background and addLayoutToNewContainer() takes them instead of inflating.
+     * File is read and written off main thread, pre-inflated layouts not taken in recordMillis are released.
+     *
+     * @param name name of manifest, null to stop using it
+     * @param recordMillis how long from now shown containers are recorded
+     */
+    void setInflationManifest(@Nullable String name, long recordMillis);
+
+    /**
+     * Return main thread time which pre-inflated layouts saved in this session
+     *
+     * Every taken layout saves the time its inflation took when it was recorded.
+     *
+     * @return saved time in milliseconds
+     */
+    float getInflationSavedMillis();
+
+    /**
+     * Keep snapshot of current container between process starts
+     *
+     * When the app goes to background current container is saved as a downscaled picture.
+     * When snapshot with the same name is set after restart, the picture is decoded in background
+     * and drawn at bounds of the container as a placeholder until current container is laid out
+     * or for a second at most, then it fades out. It is not drawn if current container is laid out first. Snapshot taken in another size
+     * of FrameController, e.g. in other orientation, is not drawn.
+     *
+     * @param name name of snapshot, null to stop using it
+     */
+    void setWarmStartSnapshot(@Nullable String name);
+
+    /**
+     * Save snapshot of current container now, it is also saved when the app goes to background
+     *
+     * @return true if snapshot is being written, false if warm start snapshot is not set,
+     * nothing is shown or previous snapshot is still being written
+     */
+    boolean saveWarmStartSnapshot();
+
+    /**
+     * Return true while warm start placeholder is drawn
+     *
+     * @return true if placeholder is drawn or fading else false
+     */
+    boolean isWarmStartPlaceholderShown();
+
+    /**
+     * Set adapter which makes pages instead of containers added one by one
+     *
+     * Only the current page and pages in transition hold containers,
+     * containers are recycled by view type, so count of pages is not limited by memory.
+     * Switches go straight to target page. All containers are removed when adapter is set,
+     * adding and removing of containers is not allowed while adapter is set.
+     *
+     * @param adapter adapter or null to go back to containers
+     */
+    void setAdapter(@Nullable ContainerAdapter adapter);
+
+    /**
+     * Return adapter of FrameController
+     *
+     * @return adapter or null
+     */
+    @Nullable
+    ContainerAdapter getAdapter();
+
+    /**
+     * Set size of saved states of recycled pages
+     *
+     * When a page of adapter loses its container, state of its views with ids is saved
+     * and it is restored when the page is bound again, so scroll positions, text input
+     * and checked states are kept. Pages are kept by stable id or by position.
+     * Least recently saved states are dropped over the size.
+     *
+     * @param maxBytes size in bytes, 256 KB by default, 0 to save no states
+     */
+    void setPageStateCacheSize(@IntRange(from = 0) int maxBytes);
+
+    /**
+     * Return size of saved states of recycled pages
+     *
+     * @return size of saved states in bytes
+     */
+    int getPageStateCacheBytes();
+
+    /**
+     * Set how many containers around current one are prepared while main thread is idle
+     *
+     * When switch ends, containers at current position +1, -1, +2, -2 ... are bound, measured and laid out
+     * in short slices of idle time, so goToNext() and goToPrevious() start on the very next frame.
+     * Prefetch is cancelled by a new switch or drag. Distance is 1 by default.
+     *
+     * @param distance count of containers on each side of current one, 0 to disable prefetch
+     * @param warmLayers true to also draw prepared containers into hardware layers
+     */
+    void setPrefetch(@IntRange(from=0) int distance, boolean warmLayers);
+
+    /**
+     * Return count of containers on each side of current one which are prepared while main thread is idle
+     *
+     * @return prefetch distance, 0 if prefetch is disabled
+     */
+    int getPrefetchDistance();
+
+    /**
+     * Enable learning of navigation between containers
+     *
+     * Model counts switches between container tags (or positions of containers without tag)
+     * in bounded memory and prefetches the most probable next containers before neighbours.
+     * Pages of adapter which are predicted stay bound.
+     *
+     * @param enabled true to learn and prefetch predicted containers, false to forget the model
+     */
+    void setPredictionEnabled(boolean enabled);
+
+    /**
+     * Return true if navigation prediction is enabled
+     *
+     * @return true if navigation prediction is enabled else false
+     */
+    boolean isPredictionEnabled();
+
+    /**
+     * Return hit rate and size of navigation prediction model
+     *
+     * @return new PredictionStats snapshot, empty if prediction is disabled
+     */
+    PredictionStats getPredictionStats();
+
     /**
      * Set background color for all containers (existing and future)
      *
@@ -316,11 +517,26 @@ public interface Controller {
      * Set which type of animation will be used for switching containers
      *
      * Use types constants as Controller.ANIMATION_...
+     * or type returned by registerTransitionSpec()
+     *
+     * ANIMATION_SPRING is not blocked by running switch:
+     * new request turns containers to new target keeping their velocity
      *
      * @param animationType index of animation type
      * @param enableScaleModifier add scale factor to animations
      */
-    void setSwitchAnimation(@IntRange(from=-1,to=8) int animationType, boolean enableScaleModifier);
+    void setSwitchAnimation(@IntRange(from=-1) int animationType, boolean enableScaleModifier);
+
+    /**
+     * Register custom switch animation
+     *
+     * Curves of spec are declared once here and cached,
+     * so custom animations cost the same as built-in ones.
+     *
+     * @param spec transition spec
+     * @return animation type to use in setSwitchAnimation()
+     */
+    int registerTransitionSpec(TransitionSpec spec);
 
     /**
      * Return index of current animation type
@@ -352,6 +568,115 @@ public interface Controller {
      */
     int getAnimationSpeed();
 
+    /**
+     * Enable switching to neighbour containers by dragging
+     *
+     * Containers follow the finger and settle with a spring when it is lifted,
+     * fling or drag further than half of container commits the switch.
+     * Use orientation constants as Controller.DRAG_...
+     *
+     * @param orientation axis of drag or DRAG_NONE to disable it
+     */
+    void setDragOrientation(@IntRange(from=0,to=2) int orientation);
+
+    /**
+     * Return axis of drag to switch
+     *
+     * @return DRAG_NONE, DRAG_HORIZONTAL or DRAG_VERTICAL
+     */
+    int getDragOrientation();
+
+    /**
+     * Animate snapshots of containers instead of their hierarchies
+     *
+     * Containers of every hop are drawn once into bitmaps and switching animations move the bitmaps,
+     * so deep layouts are not drawn on every frame. Containers which are not laid out yet are animated live.
+     * Content changing during the switch is shown when the switch ends.
+     * Spring and drag switches always move live containers.
+     *
+     * @param enabled true to animate snapshots
+     */
+    void setSnapshotTransitionsEnabled(boolean enabled);
+
+    /**
+     * Return true if snapshot transitions are enabled
+     *
+     * @return true if snapshot transitions are enabled else false
+     */
+    boolean isSnapshotTransitionsEnabled();
+
+    /**
+     * Show all containers as a grid of thumbnails over FrameController
+     *
+     * The user scrolls the grid vertically and picks a container by a tap,
+     * then overview is hidden and FrameController goes to picked container.
+     * Thumbnails are cached and drawn again only after invalidateThumbnail(),
+     * thumbnail of current container is drawn again every time overview is shown.
+     *
+     * @param columns count of thumbnails in a row
+     */
+    void showOverview(@IntRange(from = 1) int columns);
+
+    /**
+     * Hide overview, cached thumbnails are kept for the next time
+     */
+    void hideOverview();
+
+    /**
+     * Return true while overview is shown
+     *
+     * @return true if overview is shown else false
+     */
+    boolean isOverviewShown();
+
+    /**
+     * Mark thumbnail of container as changed, it is drawn again when it is shown in overview
+     *
+     * @param position position of container
+     */
+    void invalidateThumbnail(int position);
+
+    /**
+     * Set size of thumbnails cache, least recently shown thumbnails are dropped over it
+     *
+     * @param maxBytes size of cache in bytes, 1/16 of max heap by default
+     */
+    void setThumbnailCacheSize(@IntRange(from = 1) int maxBytes);
+
+    /**
+     * Enable adaptive quality of switching animations
+     *
+     * Animations become cheaper on low RAM devices, with battery saver,
+     * with system animations turned off and after several janky switches in a row.
+     * Quality goes back up when switches are smooth again.
+     * REDUCED quality drops rotation and scaling and uses fade for custom transitions,
+     * FADE uses fade only and NONE switches without animation.
+     *
+     * @param enabled true to adapt quality
+     */
+    void setAdaptiveQualityEnabled(boolean enabled);
+
+    /**
+     * Return true if adaptive quality is enabled
+     *
+     * @return true if adaptive quality is enabled else false
+     */
+    boolean isAdaptiveQualityEnabled();
+
+    /**
+     * Return current quality of switching animations
+     *
+     * @return one of Controller.QUALITY_..., QUALITY_FULL if adaptive quality is disabled
+     */
+    int getQuality();
+
+    /**
+     * Set listener which is told about every change of adaptive quality and its reason
+     *
+     * @param listener listener or null
+     */
+    void setQualityChangeListener(@Nullable FrameController.OnQualityChangeListener listener);
+
     /**
      * Set FrameController.OnSwitchListener to FrameController
      *
@@ -359,6 +684,37 @@ public interface Controller {
      */
     void setSwitchListener(FrameController.OnSwitchListener listener);
 
+    /**
+     * Set listener which is told about lifecycle state changes of every container
+     *
+     * Container goes CREATED -> ATTACHED -> VISIBLE <-> HIDDEN and is EVICTED when it is removed for good.
+     * removeAllContainers() moves containers back to CREATED, fillFromSavedContainers() attaches them again.
+     * Use it to pause animations, video or polling of containers which are off screen.
+     *
+     * @param listener listener or null
+     */
+    void setContainerEventListener(@Nullable FrameController.OnContainerEventListener listener);
+
+    /**
+     * Return lifecycle state of container
+     *
+     * @param container container of this FrameController
+     * @return one of Controller.CONTAINER_..., CONTAINER_EVICTED if container is unknown
+     */
+    int getContainerState(FrameLayout container);
+
+    /**
+     * Return LifecycleOwner of container
+     *
+     * VISIBLE container is RESUMED, EVICTED one is DESTROYED and the rest are CREATED,
+     * so LiveData and other lifecycle-aware components stop working in hidden containers.
+     *
+     * @param container container of this FrameController
+     * @return LifecycleOwner of container or null if container is unknown
+     */
+    @Nullable
+    LifecycleOwner getContainerLifecycleOwner(FrameLayout container);
+
     /**
      * Switch to container at specified position
      *
@@ -462,4 +818,105 @@ public interface Controller {
      *         (Also may return False if invoked when Swipe or Scroll animations running)
      */
     boolean goOut(boolean goFast, boolean setVisibilityGone);
+
+    /**
+     * Return duration of current or last switch
+     *
+     * Switch is compiled into a timeline when it starts, so duration is known before the first hop:
+     * (hops - 1) * delay between hops + duration of hop animation
+     *
+     * @return duration in milliseconds
+     */
+    long getSwitchDuration();
+
+    /**
+     * Return time left to the end of current switch
+     *
+     * @return remaining duration in milliseconds or 0 if switch is ended
+     */
+    long getRemainingSwitchDuration();
+
+    /**
+     * Set scheduler which runs hops of switches and starts container animations
+     *
+     * Use VirtualScheduler to run switches on virtual time in tests and headless tools.
+     * Tasks posted to previous scheduler are cancelled,
+     * so set scheduler while no switch is running.
+     *
+     * @param scheduler scheduler to use or null to restore default main thread scheduler
+     */
+    void setScheduler(@Nullable Scheduler scheduler);
+
+    /**
+     * Return scheduler used for switching
+     *
+     * @return current scheduler
+     */
+    Scheduler getScheduler();
+
+    /**
+     * Enable or disable debug overlay drawn on top of containers
+     *
+     * Overlay shows FPS while switching, duration and dropped frames of last switch,
+     * current position, counts of inflated, attached and evicted containers
+     * and used heap memory.
+     *
+     * Disabled overlay adds no overhead to drawing or switching
+     *
+     * @param enabled true to show overlay else false
+     */
+    void setDebugOverlayEnabled(boolean enabled);
+
+    /**
+     * Return true if debug overlay is shown
+     *
+     * @return true if debug overlay is enabled else false
+     */
+    boolean isDebugOverlayEnabled();
+
+    /**
+     * Enable or disable recording of navigation events
+     *
+     * Requested targets, switch starts, hops, reached targets, switch ends,
+     * blocked and rejected calls and evictions are recorded with nanosecond timestamps
+     * into preallocated ring buffer. Recording does not allocate,
+     * oldest events are overwritten when buffer is full.
+     *
+     * @param enabled true to record events else false
+     * @param capacity count of last events to keep
+     */
+    void setEventRecorderEnabled(boolean enabled, int capacity);
+
+    /**
+     * Write recorded events to file on a background thread
+     *
+     * Text format is one event per line: "timestampNanos EVENT arg1 arg2".
+     * Binary format is header (magic "FCEV", version, count)
+     * followed by records of long timestamp, byte event, int arg1, int arg2.
+     *
+     * @param file file to write
+     * @param binary true to write compact binary file else text file
+     * @return True if dump started or False if recorder is disabled or previous dump still running
+     */
+    boolean dumpEvents(File file, boolean binary);
+
+    /**
+     * Automatically dump recorded events in binary format
+     * when a frame during switching takes longer than threshold.
+     * Events are dumped once per switch.
+     *
+     * Dumps are written only while event recorder is enabled,
+     * threshold set before enabling it is kept and used when it is enabled
+     *
+     * @param thresholdMillis frame duration in milliseconds treated as jank
+     * @param file file to write or null to disable automatic dumps
+     */
+    void setJankDumpThreshold(long thresholdMillis, @Nullable File file);
+
+    /**
+     * Record calls of FrameController API to replay them later with SessionReplayer
+     *
+     * @param recorder recorder to write calls to or null to stop recording
+     */
+    void setSessionRecorder(@Nullable SessionRecorder recorder);
 }
@@ -0,0 +1,229 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+class FCAdapterBinder {
+
+    /*
+     * Containers of ContainerAdapter.
+     *
+     * Only pages which are shown or in transition are bound to containers,
+     * so memory does not depend on count of pages. Container which leaves the screen
+     * goes to the pool of its view type still attached and GONE, so taking it back
+     * needs neither inflation nor layout of FrameController.
+     * Pool keeps POOL_SIZE containers per view type, the rest are evicted.
+     * State of a page is saved to the state store when it leaves its container
+     * and restored when the page is bound again, so recycling is not seen by users.
+     */
+
+    static final int POOL_SIZE = 3;
+
+    private static class Entry {
+        FrameLayout container;
+        View view;
+        int viewType;
+        int position = -1;
+        long id = ContainerAdapter.NO_ID;
+    }
+
+    private final ViewGroup parent;
+    private final FCController fc;
+    private final FCLifecycle lifecycle;
+    private final ContainerAdapter adapter;
+    private final FCStateStore states;
+
+    private final ArrayList<Entry> bound = new ArrayList<>();
+    private final SparseArray<ArrayList<Entry>> pools = new SparseArray<>();
+    private final IdentityHashMap<View, Entry> entries = new IdentityHashMap<>();
+
+    FCAdapterBinder(ViewGroup parent, FCController fc, FCLifecycle lifecycle, ContainerAdapter adapter, FCStateStore states) {
+        this.parent = parent;
+        this.fc = fc;
+        this.lifecycle = lifecycle;
+        this.adapter = adapter;
+        this.states = states;
+    }
+
+    //========================================= Binding ============================================
+
+    /**
+     * @return container bound to page, pooled or new one if page is not bound yet
+     */
+    FrameLayout obtain(int position) {
+        Entry entry = find(position);
+        if (entry != null) return entry.container;
+
+        int viewType = adapter.getViewType(position);
+        ArrayList<Entry> pool = pools.get(viewType);
+        entry = (pool != null && !pool.isEmpty()) ? pool.remove(pool.size() - 1) : create(viewType);
+
+        bind(entry, position);
+        states.restore(stateKey(entry), entry.view);
+        bound.add(entry);
+        return entry.container;
+    }
+
+    /**
+     * @return container bound to page or null
+     */
+    FrameLayout get(int position) {
+        Entry entry = find(position);
+        return (entry != null) ? entry.container : null;
+    }
+
+    /**
+     * @return position of page bound to container or -1
+     */
+    int positionOf(View container) {
+        Entry entry = (container != null) ? entries.get(container) : null;
+        return (entry != null) ? entry.position : -1;
+    }
+
+    void recycle(View container) {
+        Entry entry = entries.get(container);
+        if (entry == null || entry.position < 0) return;
+        bound.remove(entry);
+        release(entry);
+    }
+
+    /**
+     * Recycle pages further than distance from position except kept ones, pass -1 to recycle all
+     */
+    void recycleFarFrom(int position, int distance, int[] keep, int keepCount) {
+        for (int i = bound.size() - 1; i >= 0; i--) {
+            Entry entry = bound.get(i);
+            if (position < 0 || (Math.abs(entry.position - position) > distance && !contains(keep, keepCount, entry.position))) {
+                bound.remove(i);
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * Bind pages again after data change. Pages which changed view type or are out of count
+     * are recycled, pages with the same stable id are left as they are.
+     */
+    void onDataSetChanged() {
+        states.removePositions();
+        int count = adapter.getCount();
+        for (int i = bound.size() - 1; i >= 0; i--) {
+            Entry entry = bound.get(i);
+            if (entry.position < count && adapter.getViewType(entry.position) == entry.viewType) {
+                long id = adapter.getItemId(entry.position);
+                if (id == ContainerAdapter.NO_ID || id != entry.id) bind(entry, entry.position);
+            }
+            else {
+                bound.remove(i);
+                // Page is changed or gone, its state is not restored
+                entry.position = -1;
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * Forget all containers, they are already removed from FrameController and collection
+     */
+    void reset() {
+        bound.clear();
+        pools.clear();
+        entries.clear();
+    }
+
+    int getBoundCount() {
+        return bound.size();
+    }
+
+    int getPooledCount() {
+        int count = 0;
+        for (int i = 0; i < pools.size(); i++) count += pools.valueAt(i).size();
+        return count;
+    }
+
+    //========================================= Helpers ============================================
+
+    private static boolean contains(int[] positions, int count, int position) {
+        for (int i = 0; i < count; i++) if (positions[i] == position) return true;
+        return false;
+    }
+
+    private Entry find(int position) {
+        for (int i = 0; i < bound.size(); i++) {
+            if (bound.get(i).position == position) return bound.get(i);
+        }
+        return null;
+    }
+
+    private Entry create(int viewType) {
+        Entry entry = new Entry();
+        entry.container = fc.createNewContainer();
+        lifecycle.onCreated(entry.container);
+        entry.view = adapter.onCreateView(entry.container, viewType);
+        entry.viewType = viewType;
+        entry.container.addView(entry.view);
+        entries.put(entry.container, entry);
+
+        parent.addView(entry.container);
+        lifecycle.onAttached(entry.container);
+        return entry;
+    }
+
+    private void bind(Entry entry, int position) {
+        entry.position = position;
+        entry.id = adapter.getItemId(position);
+        adapter.onBindView(entry.view, position);
+    }
+
+    /**
+     * @return stable id of page or its position if adapter has no stable ids
+     */
+    private static Object stateKey(Entry entry) {
+        return (entry.id != ContainerAdapter.NO_ID) ? (Object) entry.id : (Object) entry.position;
+    }
+
+    private void release(Entry entry) {
+        if (entry.position >= 0) states.save(stateKey(entry), entry.view);
+        entry.position = -1;
+        entry.id = ContainerAdapter.NO_ID;
+        entry.container.setVisibility(View.GONE);
+        lifecycle.onVisibilityChanged(entry.container, false);
+        adapter.onRecycleView(entry.view);
+
+        ArrayList<Entry> pool = pools.get(entry.viewType);
+        if (pool == null) {
+            pool = new ArrayList<>(POOL_SIZE);
+            pools.put(entry.viewType, pool);
+        }
+        if (pool.size() < POOL_SIZE) {
+            pool.add(entry);
+        }
+        else {
+            entries.remove(entry.container);
+            parent.removeView(entry.container);
+            fc.rmContainer(entry.container);
+            lifecycle.onEvicted(entry.container);
+        }
+    }
+}
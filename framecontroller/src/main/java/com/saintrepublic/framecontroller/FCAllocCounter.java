@@ -0,0 +1,59 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.os.Debug;
+
+class FCAllocCounter {
+
+    /*
+     * Counts bytes allocated by the current thread with thread allocation counting of Debug.
+     *
+     * Allocation counting of Debug is deprecated since API 23 without a replacement
+     * for a single thread, it still works on all supported versions.
+     * Tests on JVM override this class with a counter of ThreadMXBean.
+     */
+
+    private boolean counting = false;
+
+    @SuppressWarnings("deprecation")
+    void start() {
+        if (!counting) {
+            Debug.resetThreadAllocSize();
+            Debug.startAllocCounting();
+            counting = true;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    void stop() {
+        if (counting) {
+            Debug.stopAllocCounting();
+            counting = false;
+        }
+    }
+
+    /**
+     * Only difference of two values is meaningful, counters may start from any value
+     *
+     * @return count of bytes allocated by current thread or -1 if counting is not supported
+     */
+    @SuppressWarnings("deprecation")
+    long allocatedBytes() {
+        return counting ? Debug.getThreadAllocSize() : -1;
+    }
+}
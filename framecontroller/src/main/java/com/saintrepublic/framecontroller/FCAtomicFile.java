@@ -0,0 +1,50 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+class FCAtomicFile {
+
+    /*
+     * Files kept by FrameController between sessions.
+     *
+     * File is written next to itself and renamed,
+     * so a killed process never leaves half of it.
+     */
+
+    interface Content {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    private FCAtomicFile() {}
+
+    static void write(File file, Content content) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            content.writeTo(out);
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) throw new IOException("Can not rename " + temp + " to " + file);
+    }
+}
@@ -0,0 +1,213 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static com.saintrepublic.framecontroller.FrameController.*;
+
+class FCBuiltInSpec implements TransitionSpec {
+
+    /*
+     * Specs of built-in FrameController.ANIMATION_* types.
+     * Curves are the same as Animus animations used by previous versions.
+     */
+
+    private int type;
+
+    FCBuiltInSpec(int type) {
+        this.type = type;
+    }
+
+    @Override
+    public void declare(TransitionCurves in, TransitionCurves out, boolean forward, boolean scaleMod) {
+        switch (type) {
+            case ANIMATION_FADE: {
+                if (forward) {
+                    if (scaleMod) in.scale(0.0f, 1.0f, 0.0f, 1.0f, 0.5f, 0.5f);
+                    in.alpha(0.0f, 1.0f);
+                }
+                else {
+                    if (scaleMod) out.scale(1.0f, 0.0f, 1.0f, 0.0f, 0.5f, 0.5f);
+                    out.alpha(1.0f, 0.0f);
+                }
+                break;
+            }
+            case ANIMATION_SCALE: {
+                if (forward) in.scale(0.0f, 1.0f, 0.0f, 1.0f, 0.5f, 0.5f);
+                else out.scale(1.0f, 0.0f, 1.0f, 0.0f, 0.5f, 0.5f);
+                break;
+            }
+            case ANIMATION_SWIPE: {
+                if (forward) {
+                    if (scaleMod) {
+                        in.scale(0.3f, 1.0f, 0.3f, 1.0f, 1.0f, 1.0f);
+                        out.scale(1.0f, 0.2f, 1.0f, 0.2f, 0.0f, 1.0f).until(0.8f);
+                    }
+                    in.translate(1.0f, 0.0f, 0.0f, 0.0f);
+                    out.translate(0.0f, -1.0f, 0.0f, 0.0f);
+                    in.rotate(20, 0, 0.5f, 1.0f);
+                    out.rotate(0, -20, 0.5f, 1.0f);
+                }
+                else {
+                    if (scaleMod) {
+                        in.scale(0.3f, 1.0f, 0.3f, 1.0f, 0.0f, 1.0f);
+                        out.scale(1.0f, 0.2f, 1.0f, 0.2f, 1.0f, 1.0f).until(0.8f);
+                    }
+                    in.translate(-1.0f, 0.0f, 0.0f, 0.0f);
+                    out.translate(0.0f, 1.0f, 0.0f, 0.0f);
+                    in.rotate(-20, 0, 0.5f, 1.0f);
+                    out.rotate(0, 20, 0.5f, 1.0f);
+                }
+                if (scaleMod) {
+                    in.scale(0.3f, 1.0f, 0.3f, 1.0f, 0.5f, 0.5f);
+                    out.scale(1.0f, 0.3f, 1.0f, 0.3f, 0.5f, 0.5f);
+                }
+                break;
+            }
+            case ANIMATION_MOVE_RIGHT: {
+                if (forward) {
+                    in.translate(1.0f, 0.0f, 0.0f, 0.0f);
+                    if (scaleMod) in.scale(0.6f, 1.0f, 0.6f, 1.0f, 1.0f, 0.5f);
+                }
+                else {
+                    out.translate(0.0f, 1.0f, 0.0f, 0.0f);
+                    if (scaleMod) out.scale(1.0f, 0.6f, 1.0f, 0.6f, 1.0f, 0.5f);
+                }
+                break;
+            }
+            case ANIMATION_MOVE_BOTTOM: {
+                if (forward) {
+                    in.translate(0.0f, 0.0f, 1.0f, 0.0f);
+                    if (scaleMod) in.scale(0.6f, 1.0f, 0.6f, 1.0f, 0.5f, 1.0f);
+                }
+                else {
+                    out.translate(0.0f, 0.0f, 0.0f, 1.0f);
+                    if (scaleMod) out.scale(1.0f, 0.6f, 1.0f, 0.6f, 0.5f, 1.0f);
+                }
+                break;
+            }
+            case ANIMATION_MOVE_LEFT: {
+                if (forward) {
+                    in.translate(-1.0f, 0.0f, 0.0f, 0.0f);
+                    if (scaleMod) in.scale(0.6f, 1.0f, 0.6f, 1.0f, 0.0f, 0.5f);
+                }
+                else {
+                    out.translate(0.0f, -1.0f, 0.0f, 0.0f);
+                    if (scaleMod) out.scale(1.0f, 0.6f, 1.0f, 0.6f, 0.0f, 0.5f);
+                }
+                break;
+            }
+            case ANIMATION_MOVE_TOP: {
+                if (forward) {
+                    in.translate(0.0f, 0.0f, -1.0f, 0.0f);
+                    if (scaleMod) in.scale(0.6f, 1.0f, 0.6f, 1.0f, 0.5f, 0.0f);
+                }
+                else {
+                    out.translate(0.0f, 0.0f, 0.0f, -1.0f);
+                    if (scaleMod) out.scale(1.0f, 0.6f, 1.0f, 0.6f, 0.5f, 0.0f);
+                }
+                break;
+            }
+            case ANIMATION_SCROLL_VERTICAL: {
+                if (forward) {
+                    in.translate(0.0f, 0.0f, 1.0f, 0.0f);
+                    out.translate(0.0f, 0.0f, 0.0f, -1.0f);
+                    if (scaleMod) {
+                        in.scale(0.7f, 1.0f, 0.7f, 1.0f, 0.5f, 1.0f);
+                        out.scale(1.0f, 0.7f, 1.0f, 0.7f, 0.5f, 0.0f);
+                    }
+                }
+                else {
+                    in.translate(0.0f, 0.0f, -1.0f, 0.0f);
+                    out.translate(0.0f, 0.0f, 0.0f, 1.0f);
+                    if (scaleMod) {
+                        in.scale(0.7f, 1.0f, 0.7f, 1.0f, 0.5f, 0.0f);
+                        out.scale(1.0f, 0.7f, 1.0f, 0.7f, 0.5f, 1.0f);
+                    }
+                }
+                break;
+            }
+            case ANIMATION_SCROLL_HORIZONTAL: {
+                if (forward) {
+                    in.translate(1.0f, 0.0f, 0.0f, 0.0f);
+                    out.translate(0.0f, -1.0f, 0.0f, 0.0f);
+                    if (scaleMod) {
+                        in.scale(0.7f, 1.0f, 0.7f, 1.0f, 1.0f, 0.5f);
+                        out.scale(1.0f, 0.7f, 1.0f, 0.7f, 0.0f, 0.5f);
+                    }
+                }
+                else {
+                    in.translate(-1.0f, 0.0f, 0.0f, 0.0f);
+                    out.translate(0.0f, 1.0f, 0.0f, 0.0f);
+                    if (scaleMod) {
+                        in.scale(0.7f, 1.0f, 0.7f, 1.0f, 0.0f, 0.5f);
+                        out.scale(1.0f, 0.7f, 1.0f, 0.7f, 1.0f, 0.5f);
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    @Override
+    public int getDuration(int speed) {
+        switch (type) {
+            case ANIMATION_FADE:
+            case ANIMATION_SCALE: return bySpeed(speed, 350, 600, 1000);
+            case ANIMATION_SWIPE:
+            case ANIMATION_SCROLL_VERTICAL:
+            case ANIMATION_SCROLL_HORIZONTAL: return bySpeed(speed, 200, 400, 600);
+            default: return bySpeed(speed, 350, 500, 800);
+        }
+    }
+
+    @Override
+    public int getHopDelay(int speed) {
+        switch (type) {
+            case ANIMATION_FADE:
+            case ANIMATION_SCALE: return bySpeed(speed, 140, 240, 400);
+            case ANIMATION_SWIPE:
+            case ANIMATION_SCROLL_VERTICAL:
+            case ANIMATION_SCROLL_HORIZONTAL: return bySpeed(speed, 200, 400, 600);
+            default: return bySpeed(speed, 140, 200, 300);
+        }
+    }
+
+    @Override
+    public int getInterpolator() {
+        switch (type) {
+            case ANIMATION_SCALE:
+            case ANIMATION_MOVE_RIGHT:
+            case ANIMATION_MOVE_BOTTOM:
+            case ANIMATION_MOVE_LEFT:
+            case ANIMATION_MOVE_TOP: return Animus.Interpolators.FASTOUT_SLOWIN;
+            default: return Animus.Interpolators.LINEAR;
+        }
+    }
+
+    @Override
+    public boolean isDirect() {
+        return type == ANIMATION_FADE;
+    }
+
+    private static int bySpeed(int speed, int fast, int normal, int slow) {
+        switch (speed) {
+            case SPEED_FAST: return fast;
+            case SPEED_SLOW: return slow;
+            default: return normal;
+        }
+    }
+}
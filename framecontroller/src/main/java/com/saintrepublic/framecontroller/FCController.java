@@ -17,14 +17,21 @@ package com.saintrepublic.framecontroller;
  */
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.FrameLayout;
-import android.widget.LinearLayout;
+import android.widget.ImageView;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 class FCController {
 
@@ -38,6 +45,17 @@ class FCController {
         listContainers = new ArrayList<>();
     }
 
+    /**
+     * Context of containers made from now on
+     */
+    void setContext(Context context) {
+        this.context = context;
+    }
+
+    Context getContext() {
+        return context;
+    }
+
     //========================================= Views builders =====================================
 
     FrameLayout createNewContainer() {
@@ -80,6 +98,70 @@ class FCController {
         return listContainers.size();
     }
 
+    int cInflatedCount() {
+        int count = 0;
+        for (int i = 0; i < listContainers.size(); i++) {
+            if (listContainers.get(i).getChildCount() > 0) count++;
+        }
+        return count;
+    }
+
+    int cAttachedCount() {
+        int count = 0;
+        for (int i = 0; i < listContainers.size(); i++) {
+            if (listContainers.get(i).getParent() != null) count++;
+        }
+        return count;
+    }
+
+    //====================================== Memory statistics =====================================
+
+    MemoryStats collectMemoryStats() {
+        int size = listContainers.size();
+        int[] viewCounts = new int[size];
+        long[] estimatedBytes = new long[size];
+        long total = 0;
+        int inflated = 0;
+        int attached = 0;
+
+        Set<Bitmap> countedBitmaps = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+        ArrayList<View> stack = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            FrameLayout container = listContainers.get(i);
+            if (container.getChildCount() > 0) inflated++;
+            if (container.getParent() != null) attached++;
+
+            stack.add(container);
+            while (!stack.isEmpty()) {
+                View view = stack.remove(stack.size() - 1);
+                viewCounts[i]++;
+                estimatedBytes[i] += MemoryStats.VIEW_ESTIMATED_BYTES;
+                estimatedBytes[i] += drawableBytes(view.getBackground(), countedBitmaps);
+                if (view instanceof ImageView)
+                    estimatedBytes[i] += drawableBytes(((ImageView) view).getDrawable(), countedBitmaps);
+
+                if (view instanceof ViewGroup) {
+                    ViewGroup group = (ViewGroup) view;
+                    for (int c = 0; c < group.getChildCount(); c++) stack.add(group.getChildAt(c));
+                }
+            }
+            total += estimatedBytes[i];
+        }
+
+        return new MemoryStats(inflated, attached, viewCounts, estimatedBytes, total);
+    }
+
+    private static long drawableBytes(Drawable drawable, Set<Bitmap> countedBitmaps) {
+        if (!(drawable instanceof BitmapDrawable)) return 0;
+
+        Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+        if (bitmap == null || bitmap.isRecycled() || !countedBitmaps.add(bitmap)) return 0;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) return bitmap.getAllocationByteCount();
+        else return bitmap.getByteCount();
+    }
+
     //======================================== Drawing =============================================
 
     private void reBackground() {
@@ -95,7 +177,7 @@ class FCController {
         if (listContainers != null && listContainers.size() != 0) {
             for (View container : listContainers) {
 
-                LinearLayout.LayoutParams margins = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.MATCH_PARENT, 1);
+                FrameLayout.LayoutParams margins = new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT);
                 margins.setMargins(config.margins[0], config.margins[1], config.margins[2], config.margins[3]);
                 container.setLayoutParams(margins);
             }
@@ -191,5 +273,24 @@ class FCController {
         int getAnimationSpeed() {
             return speed;
         }
+
+        int[] getMargins() {
+            return margins;
+        }
+
+        int[] getPaddings() {
+            return paddings;
+        }
+
+        /**
+         * @return false if background is a drawable which can not be saved
+         */
+        boolean hasBackgroundColor() {
+            return !useDrawable;
+        }
+
+        int getBackgroundColor() {
+            return backgroundColor;
+        }
     }
 }
\ No newline at end of file
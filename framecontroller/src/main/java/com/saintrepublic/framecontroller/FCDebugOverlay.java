@@ -0,0 +1,105 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.TypedValue;
+
+class FCDebugOverlay {
+
+    /*
+     * Debug overlay drawn by FrameController on top of its containers.
+     *
+     * It exists only while overlay is enabled,
+     * so disabled overlay costs a single null check in dispatchDraw.
+     * Frame timings are taken from the frame monitor of FrameController.
+     * Drawing reuses the same paints and text buffer and does not allocate.
+     */
+
+    private static final int LINES = 4;
+
+    private FCFrameMonitor monitor;
+    private Paint textPaint;
+    private Paint backgroundPaint;
+    private StringBuilder text;
+    private float lineHeight;
+    private float padding;
+    private float width;
+
+    FCDebugOverlay(Context context, FCFrameMonitor monitor) {
+        this.monitor = monitor;
+
+        float textSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 11, context.getResources().getDisplayMetrics());
+
+        textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTextSize(textSize);
+
+        backgroundPaint = new Paint();
+        backgroundPaint.setColor(Color.argb(160, 0, 0, 0));
+
+        text = new StringBuilder(64);
+        lineHeight = textSize * 1.3f;
+        padding = textSize * 0.5f;
+        width = textPaint.measureText("inflated 0000 attached 0000 evicted 0000") + padding * 2;
+    }
+
+    //========================================= Drawing ============================================
+
+    void draw(Canvas canvas, int position, int inflated, int attached, int evicted) {
+        canvas.drawRect(0, 0, width, lineHeight * LINES + padding * 2, backgroundPaint);
+
+        float x = padding;
+        float y = padding + lineHeight * 0.8f;
+
+        text.setLength(0);
+        text.append(monitor.isRunning() ? "FPS " : "last FPS ");
+        appendX10(monitor.getFpsX10());
+        canvas.drawText(text, 0, text.length(), x, y, textPaint);
+        y += lineHeight;
+
+        text.setLength(0);
+        text.append("switch ").append(monitor.getLastDurationNanos() / 1000000L).append(" ms, dropped ")
+                .append(monitor.getLastDroppedFrames()).append('/').append(monitor.getLastFrames());
+        canvas.drawText(text, 0, text.length(), x, y, textPaint);
+        y += lineHeight;
+
+        text.setLength(0);
+        text.append("position ").append(position)
+                .append("  heap ").append(usedMemoryKb() / 1024).append(" MB");
+        canvas.drawText(text, 0, text.length(), x, y, textPaint);
+        y += lineHeight;
+
+        text.setLength(0);
+        text.append("inflated ").append(inflated)
+                .append(" attached ").append(attached)
+                .append(" evicted ").append(evicted);
+        canvas.drawText(text, 0, text.length(), x, y, textPaint);
+    }
+
+    private void appendX10(int valueX10) {
+        text.append(valueX10 / 10).append('.').append(valueX10 % 10);
+    }
+
+    private static long usedMemoryKb() {
+        Runtime runtime = Runtime.getRuntime();
+        return (runtime.totalMemory() - runtime.freeMemory()) / 1024L;
+    }
+}
@@ -0,0 +1,153 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+
+class FCDragTracker {
+
+    /*
+     * Follows a drag along one axis for drag to switch.
+     *
+     * Drag starts when finger moves further than touch slop along the axis
+     * and further along it than across. Velocity is tracked for the whole gesture,
+     * VelocityTracker is taken from system pool on touch down and returned when gesture ends,
+     * so move events are handled without allocations.
+     */
+
+    private static final int INVALID_POINTER = -1;
+
+    private int touchSlop;
+    private int minFlingVelocity;
+    private int maxFlingVelocity;
+    private boolean vertical = false;
+
+    private VelocityTracker velocityTracker = null;
+    private int activePointerId = INVALID_POINTER;
+    private float downX;
+    private float downY;
+    private float startCoord;
+    private float lastCoord;
+    private boolean dragging = false;
+
+    FCDragTracker(Context context) {
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        touchSlop = configuration.getScaledTouchSlop();
+        minFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        maxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+    }
+
+    void setVertical(boolean vertical) {
+        this.vertical = vertical;
+    }
+
+    //========================================= Events =============================================
+
+    void down(MotionEvent event) {
+        if (velocityTracker == null) velocityTracker = VelocityTracker.obtain();
+        velocityTracker.clear();
+        velocityTracker.addMovement(event);
+
+        activePointerId = event.getPointerId(0);
+        downX = event.getX();
+        downY = event.getY();
+        lastCoord = vertical ? downY : downX;
+        startCoord = lastCoord;
+        dragging = false;
+    }
+
+    /**
+     * @return True if drag is started
+     */
+    boolean move(MotionEvent event) {
+        int index = event.findPointerIndex(activePointerId);
+        if (index < 0) return dragging;
+
+        velocityTracker.addMovement(event);
+        float x = event.getX(index);
+        float y = event.getY(index);
+        lastCoord = vertical ? y : x;
+
+        if (!dragging) {
+            float along = Math.abs(vertical ? y - downY : x - downX);
+            float across = Math.abs(vertical ? x - downX : y - downY);
+            if (along > touchSlop && along > across) {
+                dragging = true;
+                startCoord = lastCoord;
+            }
+        }
+        return dragging;
+    }
+
+    /**
+     * Continue drag with another finger if active one is lifted, keeping drag distance
+     */
+    void pointerUp(MotionEvent event) {
+        int index = event.getActionIndex();
+        if (event.getPointerId(index) != activePointerId) return;
+
+        int newIndex = (index == 0) ? 1 : 0;
+        float coord = vertical ? event.getY(newIndex) : event.getX(newIndex);
+        startCoord += coord - lastCoord;
+        lastCoord = coord;
+        activePointerId = event.getPointerId(newIndex);
+        velocityTracker.clear();
+    }
+
+    void end() {
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+        activePointerId = INVALID_POINTER;
+        dragging = false;
+    }
+
+    //========================================== State =============================================
+
+    boolean isTracking() {
+        return (activePointerId != INVALID_POINTER);
+    }
+
+    boolean isDragging() {
+        return dragging;
+    }
+
+    /**
+     * @return distance of drag along the axis in pixels
+     */
+    float getDistance() {
+        return lastCoord - startCoord;
+    }
+
+    /**
+     * @return velocity along the axis in pixels per second
+     */
+    float getVelocity() {
+        if (velocityTracker == null) return 0;
+
+        velocityTracker.computeCurrentVelocity(1000, maxFlingVelocity);
+        return vertical ? velocityTracker.getYVelocity(activePointerId) : velocityTracker.getXVelocity(activePointerId);
+    }
+
+    boolean isFling(float velocity) {
+        return Math.abs(velocity) >= minFlingVelocity;
+    }
+}
@@ -0,0 +1,212 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+class FCEventRecorder {
+
+    /*
+     * Black-box recorder of navigation events.
+     *
+     * Events are written into preallocated parallel arrays used as a ring buffer,
+     * so recording never allocates and the oldest events are overwritten.
+     *
+     * Only the UI thread records events (navigation runs on it),
+     * so the single writer needs no locks. Dumps copy the buffer into
+     * a preallocated snapshot first and write the file on a background thread.
+     */
+
+    static final byte EVENT_REQUEST = 1;
+    static final byte EVENT_START = 2;
+    static final byte EVENT_HOP = 3;
+    static final byte EVENT_TARGET_REACHED = 4;
+    static final byte EVENT_END = 5;
+    static final byte EVENT_BLOCKED = 6;
+    static final byte EVENT_REJECTED = 7;
+    static final byte EVENT_EVICTED = 8;
+    static final byte EVENT_JANK = 9;
+    static final byte EVENT_QUALITY = 10;
+
+    private static final String[] EVENT_NAMES = {
+            "?", "REQUEST", "START", "HOP", "TARGET_REACHED", "END", "BLOCKED", "REJECTED", "EVICTED", "JANK", "QUALITY"
+    };
+
+    private static final int BINARY_MAGIC = 0x46434556; // "FCEV"
+    private static final int BINARY_VERSION = 1;
+
+    private final int capacity;
+    private final long[] times;
+    private final byte[] types;
+    private final int[] args1;
+    private final int[] args2;
+    private long written = 0;
+
+    private final long[] snapshotTimes;
+    private final byte[] snapshotTypes;
+    private final int[] snapshotArgs1;
+    private final int[] snapshotArgs2;
+    private volatile boolean dumping = false;
+
+    private long jankThresholdNanos = 0;
+    private File jankFile = null;
+    private boolean jankDumped = false;
+
+    FCEventRecorder(int capacity) {
+        this.capacity = capacity;
+        times = new long[capacity];
+        types = new byte[capacity];
+        args1 = new int[capacity];
+        args2 = new int[capacity];
+
+        snapshotTimes = new long[capacity];
+        snapshotTypes = new byte[capacity];
+        snapshotArgs1 = new int[capacity];
+        snapshotArgs2 = new int[capacity];
+    }
+
+    //========================================= Recording ==========================================
+
+    void record(byte type, int arg1, int arg2) {
+        int index = (int)(written % capacity);
+        times[index] = System.nanoTime();
+        types[index] = type;
+        args1[index] = arg1;
+        args2[index] = arg2;
+        written++;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int size() {
+        return (int)Math.min(written, capacity);
+    }
+
+    //======================================== Jank dumps ==========================================
+
+    void setJankThreshold(long thresholdMillis, File file) {
+        jankThresholdNanos = thresholdMillis * 1000000L;
+        jankFile = file;
+        jankDumped = false;
+    }
+
+    long getJankThresholdNanos() {
+        return (jankFile != null) ? jankThresholdNanos : 0;
+    }
+
+    void onSwitchStarted() {
+        jankDumped = false;
+    }
+
+    /**
+     * Called by frame monitor for every frame longer than jank threshold.
+     * Dumps the buffer once per switch.
+     */
+    void onLongFrame(long intervalNanos) {
+        record(EVENT_JANK, (int)(intervalNanos / 1000L), 0);
+
+        if (jankFile != null && !jankDumped) {
+            jankDumped = true;
+            dump(jankFile, true);
+        }
+    }
+
+    //========================================== Dumps =============================================
+
+    /**
+     * Copy recorded events and write them to file on a background thread
+     *
+     * @param file file to write
+     * @param binary true to write compact binary records else text lines
+     * @return false if previous dump still running
+     */
+    boolean dump(final File file, final boolean binary) {
+        if (dumping) return false;
+        dumping = true;
+
+        final int count = size();
+        int first = (int)((written - count) % capacity);
+        for (int i = 0; i < count; i++) {
+            int index = (first + i) % capacity;
+            snapshotTimes[i] = times[index];
+            snapshotTypes[i] = types[index];
+            snapshotArgs1[i] = args1[index];
+            snapshotArgs2[i] = args2[index];
+        }
+
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (binary) writeBinary(file, count);
+                    else writeText(file, count);
+                } catch (IOException e) {
+                    Log.e("FrameController: ", "dumpEvents: ", e);
+                } finally {
+                    dumping = false;
+                }
+            }
+        }, "FrameController events dump").start();
+        return true;
+    }
+
+    private void writeBinary(File file, int count) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(BINARY_VERSION);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(snapshotTimes[i]);
+                out.writeByte(snapshotTypes[i]);
+                out.writeInt(snapshotArgs1[i]);
+                out.writeInt(snapshotArgs2[i]);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeText(File file, int count) throws IOException {
+        Writer out = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(file)), "UTF-8");
+        try {
+            for (int i = 0; i < count; i++) {
+                int type = snapshotTypes[i];
+                out.write(Long.toString(snapshotTimes[i]));
+                out.write(' ');
+                out.write((type > 0 && type < EVENT_NAMES.length) ? EVENT_NAMES[type] : EVENT_NAMES[0]);
+                out.write(' ');
+                out.write(Integer.toString(snapshotArgs1[i]));
+                out.write(' ');
+                out.write(Integer.toString(snapshotArgs2[i]));
+                out.write('\n');
+            }
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.Choreographer;
+import android.view.WindowManager;
+
+class FCFrameMonitor implements Choreographer.FrameCallback {
+
+    /*
+     * Counts frames while a switch is running.
+     *
+     * It is started when switch starts and stopped when all switching animations ends,
+     * so it does not post any frame callbacks while FrameController is idle.
+     */
+
+    private static final long FPS_WINDOW_NANOS = 250000000L;
+
+    private Choreographer choreographer;
+    private long frameIntervalNanos;
+    private boolean running = false;
+
+    private long startNanos;
+    private long lastFrameNanos;
+    private int frames;
+    private int droppedFrames;
+
+    private long fpsWindowStartNanos;
+    private int fpsWindowFrames;
+    private int fpsX10;
+
+    private long lastDurationNanos;
+    private int lastFrames;
+    private int lastDroppedFrames;
+
+    private long longFrameNanos = 0;
+    private OnLongFrameListener longFrameListener = null;
+
+    interface OnLongFrameListener {
+        void onLongFrame(long intervalNanos);
+    }
+
+    FCFrameMonitor(Context context) {
+        choreographer = Choreographer.getInstance();
+
+        float refreshRate = 60.0f;
+        WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        if (wm != null && wm.getDefaultDisplay() != null && wm.getDefaultDisplay().getRefreshRate() > 1.0f)
+            refreshRate = wm.getDefaultDisplay().getRefreshRate();
+        frameIntervalNanos = (long)(1000000000L / refreshRate);
+    }
+
+    //========================================= Control ============================================
+
+    void setOnLongFrameListener(long thresholdNanos, OnLongFrameListener listener) {
+        longFrameNanos = thresholdNanos;
+        longFrameListener = listener;
+    }
+
+    void start() {
+        long now = System.nanoTime();
+        startNanos = now;
+        lastFrameNanos = 0;
+        frames = 0;
+        droppedFrames = 0;
+        fpsWindowStartNanos = now;
+        fpsWindowFrames = 0;
+
+        if (!running) {
+            running = true;
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    void stop() {
+        if (!running) return;
+        running = false;
+        choreographer.removeFrameCallback(this);
+
+        lastDurationNanos = System.nanoTime() - startNanos;
+        lastFrames = frames;
+        lastDroppedFrames = droppedFrames;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+
+        if (lastFrameNanos != 0) {
+            long interval = frameTimeNanos - lastFrameNanos;
+            if (interval > frameIntervalNanos + frameIntervalNanos / 2)
+                droppedFrames += (int)(interval / frameIntervalNanos) - 1;
+            if (longFrameListener != null && longFrameNanos > 0 && interval > longFrameNanos)
+                longFrameListener.onLongFrame(interval);
+        }
+        lastFrameNanos = frameTimeNanos;
+        frames++;
+        fpsWindowFrames++;
+
+        long window = frameTimeNanos - fpsWindowStartNanos;
+        if (window >= FPS_WINDOW_NANOS) {
+            fpsX10 = (int)(fpsWindowFrames * 10000000000L / window);
+            fpsWindowStartNanos = frameTimeNanos;
+            fpsWindowFrames = 0;
+        }
+
+        choreographer.postFrameCallback(this);
+    }
+
+    //========================================= Results ============================================
+
+    boolean isRunning() {
+        return running;
+    }
+
+    long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+
+    /**
+     * @return frames per second multiplied by 10 to keep one decimal place without floats
+     */
+    int getFpsX10() {
+        return fpsX10;
+    }
+
+    long getLastDurationNanos() {
+        return lastDurationNanos;
+    }
+
+    int getLastFrames() {
+        return lastFrames;
+    }
+
+    int getLastDroppedFrames() {
+        return lastDroppedFrames;
+    }
+}
@@ -0,0 +1,128 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.Animation;
+
+import java.util.ArrayList;
+
+class FCHandlerScheduler implements Scheduler {
+
+    /*
+     * Default scheduler of FrameController.
+     * Tasks run on main thread Handler and animations are drawn by views.
+     * Frame tasks share a single Choreographer callback and idle tasks share a single IdleHandler,
+     * so posting them does not allocate.
+     */
+
+    private Handler handler = new Handler();
+    private Choreographer choreographer = null;
+    private ArrayList<Runnable> frameTasks = new ArrayList<>();
+    private ArrayList<Runnable> runningFrameTasks = new ArrayList<>();
+    private ArrayList<Runnable> idleTasks = new ArrayList<>();
+    private ArrayList<Runnable> runningIdleTasks = new ArrayList<>();
+    private boolean idleAdded = false;
+
+    private Choreographer.FrameCallback frame = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            // Tasks posted while running are run on the next frame
+            ArrayList<Runnable> tasks = frameTasks;
+            frameTasks = runningFrameTasks;
+            runningFrameTasks = tasks;
+
+            for (int i = 0; i < tasks.size(); i++) tasks.get(i).run();
+            tasks.clear();
+        }
+    };
+
+    private MessageQueue.IdleHandler idle = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            ArrayList<Runnable> tasks = idleTasks;
+            idleTasks = runningIdleTasks;
+            runningIdleTasks = tasks;
+
+            for (int i = 0; i < tasks.size(); i++) tasks.get(i).run();
+            tasks.clear();
+
+            // Queue does not become idle again by itself, an empty message wakes it for tasks posted while running
+            idleAdded = !idleTasks.isEmpty();
+            if (idleAdded) handler.post(wake);
+            return idleAdded;
+        }
+    };
+
+    private Runnable wake = new Runnable() {
+        @Override
+        public void run() {}
+    };
+
+    @Override
+    public long now() {
+        return SystemClock.uptimeMillis();
+    }
+
+    @Override
+    public void post(Runnable task) {
+        handler.post(task);
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMillis) {
+        handler.postDelayed(task, delayMillis);
+    }
+
+    @Override
+    public void postFrame(Runnable task) {
+        if (choreographer == null) choreographer = Choreographer.getInstance();
+        frameTasks.add(task);
+        if (frameTasks.size() == 1) choreographer.postFrameCallback(frame);
+    }
+
+    @Override
+    public void postIdle(Runnable task) {
+        idleTasks.add(task);
+        if (!idleAdded) {
+            idleAdded = true;
+            Looper.myQueue().addIdleHandler(idle);
+        }
+    }
+
+    @Override
+    public void cancelAll() {
+        handler.removeCallbacksAndMessages(null);
+        if (choreographer != null) choreographer.removeFrameCallback(frame);
+        frameTasks.clear();
+        idleTasks.clear();
+        if (idleAdded) {
+            idleAdded = false;
+            Looper.myQueue().removeIdleHandler(idle);
+        }
+    }
+
+    @Override
+    public void startAnimation(View view, Animation animation) {
+        view.startAnimation(animation);
+    }
+}
@@ -0,0 +1,332 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+class FCInflationManifest {
+
+    /*
+     * Layouts shown at the start of a session, kept between sessions.
+     *
+     * Layout ids and tags of containers shown in the first record window of a session
+     * are written to a small file together with the time their inflation took on main thread.
+     * Next session reads the file and inflates those layouts with AsyncLayoutInflater
+     * before they are needed. Every pre-inflated layout taken instead of inflation
+     * on main thread adds its recorded inflation time to saved time.
+     *
+     * File is a few hundred bytes at most. It is read on a worker thread before pre-inflation
+     * and written once on a worker thread when the record window is over or FrameController
+     * is detached, so main thread does no file I/O during cold start.
+     * Record window ends on time of the scheduler of FrameController, which drops posted tasks
+     * on every switch, so the end is posted again after that.
+     * Pre-inflated layouts which were not taken until then are released.
+     */
+
+    static final int MAGIC = 0x46434d31;
+    static final int MAX_ENTRIES = 16;
+
+    static class Entry {
+        final int layoutId;
+        final String tag;
+        long inflateNanos;
+
+        Entry(int layoutId, String tag, long inflateNanos) {
+            this.layoutId = layoutId;
+            this.tag = tag;
+            this.inflateNanos = inflateNanos;
+        }
+    }
+
+    private final File file;
+    private final long recordMillis;
+    private final long sessionStart;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private boolean written = false;
+    private volatile boolean loading = false;
+    private volatile boolean writing = false;
+
+    private final ArrayList<Entry> loaded = new ArrayList<>();
+    private final ArrayList<Entry> recorded = new ArrayList<>();
+    private final ArrayList<Entry> ready = new ArrayList<>();
+    private final ArrayList<View> readyViews = new ArrayList<>();
+    private final ArrayList<Entry> inflateTimes = new ArrayList<>();
+
+    private long savedNanos = 0;
+    private int hits = 0;
+
+    FCInflationManifest(File file, long recordMillis, long now) {
+        this.file = file;
+        this.recordMillis = recordMillis;
+        this.sessionStart = now;
+    }
+
+    //====================================== Pre-inflation =========================================
+
+    /**
+     * Read manifest of the last session on a worker thread and inflate its layouts in background,
+     * layouts which do not exist any more are skipped. Record window ends recordMillis after this call
+     * even if nothing is shown.
+     */
+    void preinflate(final Context context, final ViewGroup parent, Scheduler scheduler) {
+        scheduleEnd(scheduler);
+        loading = true;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final ArrayList<Entry> entries = read();
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        loading = false;
+                        if (written) return;
+                        loaded.addAll(entries);
+                        inflate(context, parent);
+                    }
+                });
+            }
+        }, "FrameController manifest").start();
+    }
+
+    boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Post the end of record window, again after tasks of scheduler were cancelled
+     */
+    void scheduleEnd(Scheduler scheduler) {
+        if (!written) scheduler.postDelayed(endRecording, Math.max(sessionStart + recordMillis - scheduler.now(), 0));
+    }
+
+    private final Runnable endRecording = new Runnable() {
+        @Override
+        public void run() {
+            write();
+        }
+    };
+
+    private void inflate(Context context, ViewGroup parent) {
+        AsyncLayoutInflater inflater = new AsyncLayoutInflater(context);
+        Resources resources = context.getResources();
+
+        for (int i = 0; i < loaded.size(); i++) {
+            final Entry entry = loaded.get(i);
+            try {
+                if (!"layout".equals(resources.getResourceTypeName(entry.layoutId))) continue;
+            } catch (Resources.NotFoundException e) {
+                continue;
+            }
+
+            inflater.inflate(entry.layoutId, parent, new AsyncLayoutInflater.OnInflateFinishedListener() {
+                @Override
+                public void onInflateFinished(View view, int resid, ViewGroup parent) {
+                    if (written) return;
+                    ready.add(entry);
+                    readyViews.add(view);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return pre-inflated layout or null, taken layout counts its inflation time as saved
+     */
+    View take(int layoutId) {
+        for (int i = 0; i < ready.size(); i++) {
+            Entry entry = ready.get(i);
+            if (entry.layoutId == layoutId) {
+                ready.remove(i);
+                savedNanos += entry.inflateNanos;
+                hits++;
+                setInflateNanos(layoutId, entry.inflateNanos);
+                return readyViews.remove(i);
+            }
+        }
+        return null;
+    }
+
+    int getReadyCount() {
+        return ready.size();
+    }
+
+    long getSavedNanos() {
+        return savedNanos;
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    //======================================== Recording ===========================================
+
+    /**
+     * Remember time of inflation on main thread, it is written with layouts shown in this session
+     */
+    void onInflated(int layoutId, long nanos) {
+        setInflateNanos(layoutId, nanos);
+    }
+
+    /**
+     * Record layout of shown container while record window lasts and write manifest when it is over
+     *
+     * @param layoutId layout of container or 0 if container was not made from a layout
+     */
+    void onShown(int layoutId, Object tag, long now) {
+        if (written) return;
+        if (now - sessionStart > recordMillis) {
+            write();
+            return;
+        }
+        if (layoutId == 0 || recorded.size() >= MAX_ENTRIES) return;
+
+        String tagString = (tag instanceof String) ? (String) tag : null;
+        for (int i = 0; i < recorded.size(); i++) {
+            Entry entry = recorded.get(i);
+            if (entry.layoutId == layoutId && equal(entry.tag, tagString)) return;
+        }
+        recorded.add(new Entry(layoutId, tagString, getInflateNanos(layoutId)));
+    }
+
+    int getRecordedCount() {
+        return recorded.size();
+    }
+
+    private void setInflateNanos(int layoutId, long nanos) {
+        for (int i = 0; i < inflateTimes.size(); i++) {
+            if (inflateTimes.get(i).layoutId == layoutId) {
+                inflateTimes.get(i).inflateNanos = nanos;
+                return;
+            }
+        }
+        if (inflateTimes.size() < MAX_ENTRIES) inflateTimes.add(new Entry(layoutId, null, nanos));
+    }
+
+    private long getInflateNanos(int layoutId) {
+        for (int i = 0; i < inflateTimes.size(); i++) {
+            if (inflateTimes.get(i).layoutId == layoutId) return inflateTimes.get(i).inflateNanos;
+        }
+        return 0;
+    }
+
+    private static boolean equal(String a, String b) {
+        return (a == null) ? (b == null) : a.equals(b);
+    }
+
+    //========================================= Storage ============================================
+
+    /**
+     * End recording, release pre-inflated layouts which were not taken
+     * and write layouts recorded in this session on a worker thread
+     *
+     * @return True if writing started, nothing is written if nothing was shown
+     */
+    boolean write() {
+        if (written) return false;
+        written = true;
+        ready.clear();
+        readyViews.clear();
+        if (recorded.isEmpty()) return false;
+
+        final ArrayList<Entry> entries = new ArrayList<>(recorded);
+        writing = true;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    writeEntries(entries);
+                } catch (IOException e) {
+                    Log.e("FrameController: ", "writeManifest: ", e);
+                } finally {
+                    writing = false;
+                }
+            }
+        }, "FrameController manifest").start();
+        return true;
+    }
+
+    boolean isWriting() {
+        return writing;
+    }
+
+    private void writeEntries(final ArrayList<Entry> entries) throws IOException {
+        FCAtomicFile.write(file, new FCAtomicFile.Content() {
+            @Override
+            public void writeTo(DataOutputStream out) throws IOException {
+                out.writeInt(MAGIC);
+                out.writeInt(entries.size());
+                for (int i = 0; i < entries.size(); i++) {
+                    Entry entry = entries.get(i);
+                    out.writeInt(entry.layoutId);
+                    out.writeBoolean(entry.tag != null);
+                    if (entry.tag != null) out.writeUTF(entry.tag);
+                    out.writeLong(entry.inflateNanos);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs on worker thread
+     */
+    private ArrayList<Entry> read() {
+        ArrayList<Entry> entries = new ArrayList<>();
+        if (!file.exists()) return entries;
+
+        try {
+            readEntries(entries);
+        } catch (IOException e) {
+            // Broken manifest is dropped, this session writes a new one
+            entries.clear();
+        }
+        return entries;
+    }
+
+    private void readEntries(ArrayList<Entry> entries) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC) return;
+            int count = Math.min(in.readInt(), MAX_ENTRIES);
+            for (int i = 0; i < count; i++) {
+                int layoutId = in.readInt();
+                String tag = in.readBoolean() ? in.readUTF() : null;
+                entries.add(new Entry(layoutId, tag, in.readLong()));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    int getLoadedCount() {
+        return loaded.size();
+    }
+}
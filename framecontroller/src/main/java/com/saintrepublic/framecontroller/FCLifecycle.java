@@ -0,0 +1,148 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.arch.lifecycle.Lifecycle;
+import android.arch.lifecycle.LifecycleOwner;
+import android.arch.lifecycle.LifecycleRegistry;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import java.util.IdentityHashMap;
+
+class FCLifecycle {
+
+    /*
+     * Lifecycle states of containers.
+     *
+     * Container is CREATED when it is in container collection but not in FrameController,
+     * ATTACHED when it is added but was not shown yet, VISIBLE while it is on screen
+     * (also partly, during a switch or drag), HIDDEN when it was shown and went off screen
+     * and EVICTED when it is removed for good. State changes only from one to another,
+     * so repeated visibility updates of the same container cost a map lookup.
+     *
+     * LifecycleOwner of container is made only when it is asked for,
+     * VISIBLE container is RESUMED, EVICTED one is DESTROYED and the rest are CREATED,
+     * so observers which work while STARTED are paused in hidden containers.
+     */
+
+    interface OnStateListener {
+        void onStateChanged(FrameLayout container, int state);
+    }
+
+    private static class Entry implements LifecycleOwner {
+        int state = FrameController.CONTAINER_CREATED;
+        LifecycleRegistry registry = null;
+
+        @Override
+        public Lifecycle getLifecycle() {
+            if (registry == null) {
+                registry = new LifecycleRegistry(this);
+                registry.markState(toLifecycleState(state));
+            }
+            return registry;
+        }
+    }
+
+    private final IdentityHashMap<View, Entry> entries = new IdentityHashMap<>();
+    private OnStateListener listener = null;
+
+    void setListener(OnStateListener listener) {
+        this.listener = listener;
+    }
+
+    //========================================= Changes ============================================
+
+    void onCreated(View container) {
+        obtain(container);
+    }
+
+    void onAttached(View container) {
+        Entry entry = obtain(container);
+        if (entry.state == FrameController.CONTAINER_CREATED) move(container, entry, FrameController.CONTAINER_ATTACHED);
+        onVisibilityChanged(container, container.getVisibility() == View.VISIBLE);
+    }
+
+    void onVisibilityChanged(View container, boolean visible) {
+        Entry entry = obtain(container);
+        if (entry.state == FrameController.CONTAINER_CREATED) move(container, entry, FrameController.CONTAINER_ATTACHED);
+
+        if (visible) move(container, entry, FrameController.CONTAINER_VISIBLE);
+        else if (entry.state == FrameController.CONTAINER_VISIBLE) move(container, entry, FrameController.CONTAINER_HIDDEN);
+    }
+
+    /**
+     * Container left FrameController but stays in container collection
+     */
+    void onDetached(View container) {
+        Entry entry = entries.get(container);
+        if (entry == null) return;
+        if (entry.state == FrameController.CONTAINER_VISIBLE) move(container, entry, FrameController.CONTAINER_HIDDEN);
+        move(container, entry, FrameController.CONTAINER_CREATED);
+    }
+
+    void onEvicted(View container) {
+        Entry entry = entries.get(container);
+        if (entry == null) return;
+        if (entry.state == FrameController.CONTAINER_VISIBLE) move(container, entry, FrameController.CONTAINER_HIDDEN);
+        move(container, entry, FrameController.CONTAINER_EVICTED);
+        entries.remove(container);
+    }
+
+    //========================================== State =============================================
+
+    /**
+     * @return state of container, CONTAINER_EVICTED for unknown container
+     */
+    int getState(View container) {
+        Entry entry = entries.get(container);
+        return (entry != null) ? entry.state : FrameController.CONTAINER_EVICTED;
+    }
+
+    LifecycleOwner getOwner(View container) {
+        return entries.get(container);
+    }
+
+    private Entry obtain(View container) {
+        Entry entry = entries.get(container);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(container, entry);
+            dispatch(container, entry.state);
+        }
+        return entry;
+    }
+
+    private void move(View container, Entry entry, int state) {
+        if (entry.state == state) return;
+        entry.state = state;
+        if (entry.registry != null) entry.registry.markState(toLifecycleState(state));
+        dispatch(container, state);
+    }
+
+    private void dispatch(View container, int state) {
+        if (listener != null) listener.onStateChanged((FrameLayout) container, state);
+    }
+
+    private static Lifecycle.State toLifecycleState(int state) {
+        switch (state) {
+            case FrameController.CONTAINER_VISIBLE: return Lifecycle.State.RESUMED;
+            case FrameController.CONTAINER_EVICTED: return Lifecycle.State.DESTROYED;
+            default: return Lifecycle.State.CREATED;
+        }
+    }
+}
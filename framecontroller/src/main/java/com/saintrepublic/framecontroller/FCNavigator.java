@@ -0,0 +1,156 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+class FCNavigator {
+
+    /*
+     * Navigation state machine of FrameController.
+     *
+     * It knows only positions, so it has no Android dependencies
+     * and can be tested and benchmarked on JVM.
+     * FrameController asks it to start a switch, then steps it hop by hop
+     * and shows containers at positions it returns.
+     *
+     * Switch goes through every position between current and target position
+     * one hop at a time, fast switch goes straight to target position.
+     */
+
+    static final int ACTION_NEXT = 0;
+    static final int ACTION_PREVIOUS = 1;
+
+    static final int STARTED = 0;
+    static final int BLOCKED = 1;
+    static final int OUT_OF_BOUNDS = 2;
+    static final int ALREADY_CURRENT = 3;
+
+    private int targetPosition = -1;
+    private int nextPosition = -1;
+    private int action = ACTION_NEXT;
+    private boolean lastHop = false;
+    private boolean pending = false;
+    private boolean blocked = false;
+
+    //========================================= Requests ===========================================
+
+    /**
+     * Start switch to position
+     *
+     * @param position required position or -1 to go out
+     * @param currentPosition position of current container or -1 if out
+     * @param count count of containers
+     * @param isFast true to go straight to required position
+     * @param isOut true if all containers should become invisible
+     * @return STARTED or reason of rejection
+     */
+    int request(int position, int currentPosition, int count, boolean isFast, boolean isOut) {
+        if (blocked) return BLOCKED;
+        if (!isOut && (position >= count || position < 0)) return OUT_OF_BOUNDS;
+        if (currentPosition == position) return ALREADY_CURRENT;
+
+        targetPosition = position;
+        pending = true;
+
+        if (currentPosition < position) {
+            action = ACTION_NEXT;
+            nextPosition = isFast ? position : currentPosition + 1;
+        }
+        else {
+            action = ACTION_PREVIOUS;
+            nextPosition = isFast ? position : currentPosition - 1;
+        }
+        return STARTED;
+    }
+
+    //========================================= Stepping ===========================================
+
+    /**
+     * Make a hop
+     *
+     * @return position of container which is shown on this hop
+     */
+    int step() {
+        int hop = nextPosition;
+
+        if (nextPosition != targetPosition) {
+            nextPosition += (action == ACTION_NEXT) ? 1 : -1;
+            lastHop = false;
+        }
+        else {
+            lastHop = true;
+            pending = false;
+        }
+
+        return hop;
+    }
+
+    /**
+     * Stays true after switch ends until the first hop of the next switch,
+     * so animations of previous switch ending late still see their switch as finished.
+     *
+     * @return True if the last made hop reached target position
+     */
+    boolean isLastHop() {
+        return lastHop;
+    }
+
+    /**
+     * @return count of hops left to reach target position
+     */
+    int hopsLeft() {
+        return pending ? Math.abs(targetPosition - nextPosition) + 1 : 0;
+    }
+
+    /**
+     * Write positions of all hops left without making them
+     *
+     * @param hops array to fill, at least hopsLeft() long
+     * @return count of written hops
+     */
+    int planHops(int[] hops) {
+        int count = hopsLeft();
+        int direction = (action == ACTION_NEXT) ? 1 : -1;
+        for (int i = 0; i < count; i++) hops[i] = nextPosition + i * direction;
+        return count;
+    }
+
+    //========================================== State =============================================
+
+    void block() {
+        blocked = true;
+    }
+
+    void unblock() {
+        blocked = false;
+    }
+
+    boolean isBlocked() {
+        return blocked;
+    }
+
+    int getTargetPosition() {
+        return targetPosition;
+    }
+
+    int getNextPosition() {
+        return nextPosition;
+    }
+
+    int getAction() {
+        return action;
+    }
+}
@@ -0,0 +1,334 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.support.v4.util.LruCache;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import java.util.HashSet;
+
+class FCOverview {
+
+    /*
+     * Overview of all containers as a scrollable grid of thumbnails.
+     *
+     * Thumbnails are containers drawn into bitmaps of cell size, they are kept
+     * in a LRU cache bounded by bytes and drawn again only when they are marked dirty.
+     * Only cells on screen are drawn and rendered. Rendering of one frame stops after SLICE_NANOS,
+     * cells which are not rendered yet show a placeholder and are rendered in the next frames,
+     * so overview opens at once with any count of containers.
+     * Dirty thumbnails are shown until they are rendered again.
+     */
+
+    static final long SLICE_NANOS = 4000000;
+    static final int DEFAULT_COLUMNS = 3;
+
+    interface Host {
+        int getCount();
+
+        int getCurrentPosition();
+
+        /**
+         * @return key of thumbnail at position which is kept while container shows the same content
+         */
+        Object keyOf(int position);
+
+        /**
+         * @return container at position measured and laid out with size of FrameController, or null
+         */
+        View obtainContainer(int position);
+
+        /**
+         * Called after container is rendered, pages of adapter which are not needed any more are recycled
+         */
+        void releaseContainer(View container);
+
+        void onPicked(int position);
+    }
+
+    private final Host host;
+    private final LruCache<Object, Bitmap> cache;
+    private final HashSet<Object> dirty = new HashSet<>();
+
+    private int columns = DEFAULT_COLUMNS;
+    private boolean shown = false;
+    private int scroll = 0;
+    private boolean scrollToCurrent = false;
+    private int renderedCount = 0;
+
+    private final float spacing;
+    private final float border;
+    private final int touchSlop;
+    private final Paint backgroundPaint = new Paint();
+    private final Paint placeholderPaint = new Paint();
+    private final Paint currentPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Canvas renderCanvas = new Canvas();
+    private final RectF cell = new RectF();
+
+    private float downX = 0;
+    private float downY = 0;
+    private int downScroll = 0;
+    private boolean scrolling = false;
+
+    FCOverview(Context context, Host host, int maxBytes) {
+        this.host = host;
+        cache = new LruCache<Object, Bitmap>(Math.max(maxBytes, 1)) {
+            @Override
+            protected int sizeOf(Object key, Bitmap value) {
+                return value.getRowBytes() * value.getHeight();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Object key, Bitmap oldValue, Bitmap newValue) {
+                if (newValue == null) dirty.remove(key);
+            }
+        };
+
+        spacing = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 8, context.getResources().getDisplayMetrics());
+        border = spacing / 3;
+        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+
+        backgroundPaint.setColor(Color.rgb(32, 32, 32));
+        placeholderPaint.setColor(Color.rgb(64, 64, 64));
+        currentPaint.setColor(Color.WHITE);
+        currentPaint.setStyle(Paint.Style.STROKE);
+        currentPaint.setStrokeWidth(border);
+    }
+
+    //========================================== State =============================================
+
+    void show(int columns) {
+        this.columns = Math.max(columns, 1);
+        shown = true;
+        scrolling = false;
+        scrollToCurrent = true;
+    }
+
+    void hide() {
+        shown = false;
+    }
+
+    boolean isShown() {
+        return shown;
+    }
+
+    int getColumns() {
+        return columns;
+    }
+
+    void setScroll(int scroll) {
+        this.scroll = scroll;
+        scrollToCurrent = false;
+    }
+
+    int getScroll() {
+        return scroll;
+    }
+
+    //========================================== Cache =============================================
+
+    /**
+     * Mark thumbnail to be rendered again when it is shown
+     */
+    void invalidate(Object key) {
+        if (key != null && cache.get(key) != null) dirty.add(key);
+    }
+
+    void remove(Object key) {
+        if (key != null) cache.remove(key);
+    }
+
+    void evictAll() {
+        cache.evictAll();
+        dirty.clear();
+    }
+
+    void trim() {
+        cache.trimToSize(0);
+    }
+
+    void setMaxBytes(int maxBytes) {
+        cache.resize(Math.max(maxBytes, 1));
+    }
+
+    boolean isCached(Object key) {
+        return (cache.get(key) != null && !dirty.contains(key));
+    }
+
+    int getCachedBytes() {
+        return cache.size();
+    }
+
+    int getCachedCount() {
+        return cache.snapshot().size();
+    }
+
+    int getRenderedCount() {
+        return renderedCount;
+    }
+
+    //========================================== Drawing ===========================================
+
+    /**
+     * Draw visible cells, rendering missing and dirty thumbnails while time of the frame allows
+     *
+     * @return true if some visible thumbnails are not rendered yet and next frame is needed
+     */
+    boolean draw(Canvas canvas, int width, int height) {
+        canvas.drawRect(0, 0, width, height, backgroundPaint);
+
+        int count = host.getCount();
+        float cellWidth = cellWidth(width);
+        float cellHeight = cellHeight(width, height);
+        if (count == 0 || cellWidth <= 0 || cellHeight <= 0) return false;
+
+        int current = host.getCurrentPosition();
+        if (scrollToCurrent && current >= 0) scroll = (int) ((current / columns) * (cellHeight + spacing));
+        scrollToCurrent = false;
+        scroll = clampScroll(scroll, width, height);
+        int firstRow = (int) (scroll / (cellHeight + spacing));
+        int lastRow = (int) ((scroll + height) / (cellHeight + spacing));
+
+        long start = System.nanoTime();
+        boolean pending = false;
+
+        for (int position = firstRow * columns; position < count && position < (lastRow + 1) * columns; position++) {
+            cellBounds(position, cellWidth, cellHeight);
+
+            Object key = host.keyOf(position);
+            Bitmap thumbnail = cache.get(key);
+            if (thumbnail == null || dirty.contains(key)) {
+                if (System.nanoTime() - start < SLICE_NANOS) {
+                    Bitmap rendered = render(position, (int) cellWidth, (int) cellHeight);
+                    if (rendered != null) {
+                        thumbnail = rendered;
+                        dirty.remove(key);
+                        cache.put(key, rendered);
+                    }
+                } else {
+                    pending = true;
+                }
+            }
+
+            if (thumbnail != null) canvas.drawBitmap(thumbnail, null, cell, bitmapPaint);
+            else canvas.drawRect(cell, placeholderPaint);
+            if (position == current) canvas.drawRect(cell, currentPaint);
+        }
+        return pending;
+    }
+
+    private Bitmap render(int position, int width, int height) {
+        View container = host.obtainContainer(position);
+        if (container == null || container.getWidth() == 0 || container.getHeight() == 0) return null;
+
+        Bitmap thumbnail = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        thumbnail.eraseColor(Color.WHITE);
+        renderCanvas.setBitmap(thumbnail);
+        renderCanvas.save();
+        renderCanvas.scale((float) width / container.getWidth(), (float) height / container.getHeight());
+        container.draw(renderCanvas);
+        renderCanvas.restore();
+        renderCanvas.setBitmap(null);
+
+        host.releaseContainer(container);
+        renderedCount++;
+        return thumbnail;
+    }
+
+    //========================================== Layout ============================================
+
+    private float cellWidth(int width) {
+        return (width - spacing * (columns + 1)) / columns;
+    }
+
+    private float cellHeight(int width, int height) {
+        return cellWidth(width) * height / Math.max(width, 1);
+    }
+
+    private void cellBounds(int position, float cellWidth, float cellHeight) {
+        float left = spacing + (position % columns) * (cellWidth + spacing);
+        float top = spacing + (position / columns) * (cellHeight + spacing) - scroll;
+        cell.set(left, top, left + cellWidth, top + cellHeight);
+    }
+
+    private int clampScroll(int scroll, int width, int height) {
+        int rows = (host.getCount() + columns - 1) / columns;
+        float content = spacing + rows * (cellHeight(width, height) + spacing);
+        return (int) Math.max(Math.min(scroll, content - height), 0);
+    }
+
+    /**
+     * @return position of cell under the point or -1
+     */
+    int positionAt(float x, float y, int width, int height) {
+        float cellWidth = cellWidth(width);
+        float cellHeight = cellHeight(width, height);
+        if (cellWidth <= 0 || cellHeight <= 0) return -1;
+
+        int column = (int) ((x - spacing) / (cellWidth + spacing));
+        int row = (int) ((y + scroll - spacing) / (cellHeight + spacing));
+        if (x < spacing || column >= columns || y + scroll < spacing) return -1;
+
+        int position = row * columns + column;
+        if (position >= host.getCount()) return -1;
+
+        cellBounds(position, cellWidth, cellHeight);
+        return cell.contains(x, y) ? position : -1;
+    }
+
+    //========================================== Touches ===========================================
+
+    /**
+     * Scroll overview by vertical drags and pick a container by a tap
+     *
+     * @return true if overview needs to be drawn again
+     */
+    boolean onTouchEvent(MotionEvent event, int width, int height) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                downX = event.getX();
+                downY = event.getY();
+                downScroll = scroll;
+                scrolling = false;
+                return false;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                if (!scrolling && Math.abs(event.getY() - downY) > touchSlop) scrolling = true;
+                if (!scrolling) return false;
+                scroll = clampScroll(downScroll - (int) (event.getY() - downY), width, height);
+                return true;
+            }
+            case MotionEvent.ACTION_UP: {
+                if (scrolling || Math.abs(event.getX() - downX) > touchSlop) return false;
+                int position = positionAt(event.getX(), event.getY(), width, height);
+                if (position >= 0) host.onPicked(position);
+                return true;
+            }
+            default: return false;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class FCPredictor {
+
+    /*
+     * First-order Markov model of navigation.
+     *
+     * Every switch from one container key to another counts a transition,
+     * key is a tag of container or its position if container has no tag.
+     * Memory is bounded: at most MAX_STATES keys are kept in least recently
+     * visited order and every key keeps at most MAX_SUCCESSORS successors.
+     * When a successor count reaches MAX_COUNT all counts of the key are halved,
+     * so old habits fade and counts never overflow.
+     *
+     * It has no Android dependencies, so it can be tested on JVM.
+     */
+
+    static final int MAX_STATES = 64;
+    static final int MAX_SUCCESSORS = 4;
+    static final int MAX_PREDICTIONS = 2;
+
+    /**
+     * Successor is predicted only after it was visited this many times
+     */
+    static final int MIN_COUNT = 2;
+    static final int MAX_COUNT = 1024;
+
+    private static class Row {
+        final Object[] keys = new Object[MAX_SUCCESSORS];
+        final int[] counts = new int[MAX_SUCCESSORS];
+        int size = 0;
+    }
+
+    private final Map<Object, Row> rows = new LinkedHashMap<Object, Row>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Row> eldest) {
+            return size() > MAX_STATES;
+        }
+    };
+
+    private Object last = null;
+    private final Object[] predicted = new Object[MAX_PREDICTIONS];
+    private final int[] predictedCounts = new int[MAX_PREDICTIONS];
+    private int predictedCount = 0;
+
+    private int transitions = 0;
+    private int predictedTransitions = 0;
+    private int hits = 0;
+
+    //========================================= Learning ===========================================
+
+    /**
+     * Count transition from previous key to this one and predict successors of this key
+     *
+     * @param key key of reached container or null if out
+     */
+    void onVisited(Object key) {
+        if (key == null) {
+            last = null;
+            predictedCount = 0;
+            return;
+        }
+        if (key.equals(last)) return;
+
+        if (last != null) {
+            transitions++;
+            if (predictedCount > 0) {
+                predictedTransitions++;
+                if (isPredicted(key)) hits++;
+            }
+            learn(last, key);
+        }
+
+        last = key;
+        predict(key);
+    }
+
+    private void learn(Object from, Object to) {
+        Row row = rows.get(from);
+        if (row == null) {
+            row = new Row();
+            rows.put(from, row);
+        }
+
+        int index = indexOf(row, to);
+        if (index < 0) {
+            if (row.size < MAX_SUCCESSORS) {
+                index = row.size++;
+            }
+            else {
+                // Rarest successor gives its place to the new one
+                index = 0;
+                for (int i = 1; i < row.size; i++) if (row.counts[i] < row.counts[index]) index = i;
+            }
+            row.keys[index] = to;
+            row.counts[index] = 0;
+        }
+
+        if (++row.counts[index] >= MAX_COUNT) {
+            for (int i = 0; i < row.size; i++) row.counts[i] /= 2;
+        }
+    }
+
+    private void predict(Object key) {
+        predictedCount = 0;
+        Row row = rows.get(key);
+        if (row == null) return;
+
+        // Insertion into MAX_PREDICTIONS places, highest count first
+        for (int i = 0; i < row.size; i++) {
+            int count = row.counts[i];
+            if (count < MIN_COUNT) continue;
+
+            int at = predictedCount;
+            while (at > 0 && predictedCounts[at - 1] < count) at--;
+            if (at >= MAX_PREDICTIONS) continue;
+
+            for (int j = Math.min(predictedCount, MAX_PREDICTIONS - 1); j > at; j--) {
+                predicted[j] = predicted[j - 1];
+                predictedCounts[j] = predictedCounts[j - 1];
+            }
+            predicted[at] = row.keys[i];
+            predictedCounts[at] = count;
+            if (predictedCount < MAX_PREDICTIONS) predictedCount++;
+        }
+    }
+
+    private static int indexOf(Row row, Object key) {
+        for (int i = 0; i < row.size; i++) {
+            if (row.keys[i].equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private boolean isPredicted(Object key) {
+        for (int i = 0; i < predictedCount; i++) {
+            if (predicted[i].equals(key)) return true;
+        }
+        return false;
+    }
+
+    //======================================== Predictions =========================================
+
+    /**
+     * @return count of predicted successors of the last visited key, most probable first
+     */
+    int getPredictedCount() {
+        return predictedCount;
+    }
+
+    Object getPredicted(int index) {
+        return predicted[index];
+    }
+
+    int getStateCount() {
+        return rows.size();
+    }
+
+    PredictionStats collectStats() {
+        return new PredictionStats(transitions, predictedTransitions, hits, rows.size());
+    }
+}
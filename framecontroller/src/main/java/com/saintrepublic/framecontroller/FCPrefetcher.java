@@ -0,0 +1,211 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.view.View;
+
+import java.util.ArrayList;
+
+class FCPrefetcher {
+
+    /*
+     * Idle-time preparation of containers around current one.
+     *
+     * When a switch ends, predicted containers and then containers at current position
+     * +1, -1, +2, -2 ... up to distance are prepared in steps: obtained (pages of adapter are bound), measured and laid out,
+     * and drawn into a hardware layer if it is enabled. Steps run from idle tasks of scheduler,
+     * one idle task works no longer than SLICE_NANOS and posts the next one,
+     * so prefetch never takes a frame. A new switch or drag cancels it.
+     */
+
+    static final long SLICE_NANOS = 4000000;
+
+    private static final int STAGE_OBTAIN = 0;
+    private static final int STAGE_MEASURE = 1;
+    private static final int STAGE_LAYER = 2;
+
+    interface Host {
+        int getCount();
+
+        /**
+         * @return container at position, page of adapter is bound if it is not yet
+         */
+        View obtainContainer(int position);
+
+        int getPosition(View container);
+
+        /**
+         * Make container INVISIBLE if it is GONE, measure and lay it out
+         */
+        void measureContainer(View container);
+    }
+
+    private final Host host;
+    private Scheduler scheduler = null;
+
+    private int distance = 1;
+    private boolean warmLayers = false;
+
+    private boolean running = false;
+    private int center = -1;
+    private int count = 0;
+    private int index = 0;
+    private final int[] predicted = new int[FCPredictor.MAX_PREDICTIONS];
+    private int predictedCount = 0;
+    private int stage = STAGE_OBTAIN;
+    private View container = null;
+    private final ArrayList<View> layered = new ArrayList<>();
+
+    FCPrefetcher(Host host) {
+        this.host = host;
+    }
+
+    void setDistance(int distance, boolean warmLayers) {
+        this.distance = Math.max(distance, 0);
+        this.warmLayers = warmLayers;
+        if (this.distance == 0 || !warmLayers) releaseLayers(-1);
+    }
+
+    int getDistance() {
+        return distance;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    //========================================= Running ============================================
+
+    /**
+     * Start preparing containers around position, running prefetch starts over
+     *
+     * @param predicted positions which are prepared first
+     * @param predictedCount count of predicted positions
+     */
+    void start(Scheduler scheduler, int position, int[] predicted, int predictedCount) {
+        cancel();
+        releaseLayers(position);
+        if (distance == 0 || position < 0) return;
+
+        this.scheduler = scheduler;
+        center = position;
+        count = host.getCount();
+        index = 0;
+        this.predictedCount = Math.min(predictedCount, this.predicted.length);
+        System.arraycopy(predicted, 0, this.predicted, 0, this.predictedCount);
+        stage = STAGE_OBTAIN;
+        running = true;
+        scheduler.postIdle(slice);
+    }
+
+    void cancel() {
+        running = false;
+        container = null;
+    }
+
+    private Runnable slice = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) return;
+
+            long start = System.nanoTime();
+            do {
+                if (!step()) {
+                    cancel();
+                    return;
+                }
+            } while (System.nanoTime() - start < SLICE_NANOS);
+
+            scheduler.postIdle(this);
+        }
+    };
+
+    /**
+     * @return false if there is nothing left to prepare
+     */
+    private boolean step() {
+        switch (stage) {
+            case STAGE_OBTAIN: {
+                int position = nextPosition();
+                if (position < 0) return false;
+                container = host.obtainContainer(position);
+                stage = (container != null) ? STAGE_MEASURE : STAGE_OBTAIN;
+                return true;
+            }
+            case STAGE_MEASURE: {
+                host.measureContainer(container);
+                stage = warmLayers ? STAGE_LAYER : STAGE_OBTAIN;
+                return true;
+            }
+            default: {
+                warmLayer(container);
+                stage = STAGE_OBTAIN;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return next position, predicted ones first and then +1, -1, +2, -2 ... or -1 if all are prepared
+     */
+    private int nextPosition() {
+        while (index < predictedCount) {
+            int position = predicted[index++];
+            if (position != center && position >= 0 && position < count) return position;
+        }
+        while (index < predictedCount + distance * 2) {
+            int neighbour = index - predictedCount;
+            int offset = neighbour / 2 + 1;
+            int position = (neighbour % 2 == 0) ? center + offset : center - offset;
+            index++;
+            if (position >= 0 && position < count && !isPredicted(position)) return position;
+        }
+        return -1;
+    }
+
+    private boolean isPredicted(int position) {
+        for (int i = 0; i < predictedCount; i++) if (predicted[i] == position) return true;
+        return false;
+    }
+
+    //========================================== Layers ============================================
+
+    private void warmLayer(View container) {
+        // Layer can be built only in attached hardware accelerated window
+        if (container.getWindowToken() == null || !container.isHardwareAccelerated()) return;
+        if (container.getLayerType() != View.LAYER_TYPE_HARDWARE) {
+            container.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            layered.add(container);
+        }
+        container.buildLayer();
+    }
+
+    /**
+     * Drop layers of current container and containers which are not its neighbours any more,
+     * pass -1 to drop all
+     */
+    private void releaseLayers(int current) {
+        for (int i = layered.size() - 1; i >= 0; i--) {
+            View container = layered.get(i);
+            int position = host.getPosition(container);
+            if (current < 0 || position < 0 || position == current || Math.abs(position - current) > distance) {
+                container.setLayerType(View.LAYER_TYPE_NONE, null);
+                layered.remove(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.app.ActivityManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.PowerManager;
+import android.provider.Settings;
+import android.util.Log;
+
+class FCQuality {
+
+    /*
+     * Adaptive quality of switching animations.
+     *
+     * Quality is the lowest of two levels. Device level comes from low RAM flag,
+     * battery saver and system animator duration scale, it is read once and then
+     * updated from broadcast and settings observer while FrameController is attached,
+     * so switches do not query system services. Jank level goes down one step after
+     * JANK_STREAK janky switches in a row and up one step after RECOVER_STREAK smooth ones.
+     * Switch without drawn frames drops nothing and counts as smooth, so quality
+     * recovers from QUALITY_NONE, where every switch ends before its first frame.
+     *
+     * Every change of quality is reported to listener with its reason.
+     */
+
+    static final int JANK_STREAK = 3;
+    static final int RECOVER_STREAK = 5;
+
+    /**
+     * Switch is janky when more than this percent of its frames are dropped
+     */
+    static final int JANK_PERCENT = 15;
+
+    interface OnChangeListener {
+        void onChange(int quality, int reason);
+    }
+
+    private Context context;
+    private OnChangeListener listener;
+
+    private boolean lowRam = false;
+    private boolean powerSave = false;
+    private boolean animationsOff = false;
+
+    private int jankLevel = FrameController.QUALITY_FULL;
+    private int jankyInRow = 0;
+    private int smoothInRow = 0;
+    private int quality = FrameController.QUALITY_FULL;
+
+    private BroadcastReceiver powerSaveReceiver = null;
+    private ContentObserver animatorScaleObserver = null;
+
+    FCQuality(Context context, OnChangeListener listener) {
+        this.context = context;
+        this.listener = listener;
+        readDeviceState();
+        update(reasonOfDeviceLevel());
+    }
+
+    //========================================= Inputs =============================================
+
+    /**
+     * Set device state directly, used by tests and by system callbacks
+     */
+    void setDeviceState(boolean lowRam, boolean powerSave, boolean animationsOff) {
+        this.lowRam = lowRam;
+        this.powerSave = powerSave;
+        this.animationsOff = animationsOff;
+        update(reasonOfDeviceLevel());
+    }
+
+    /**
+     * Count switch which ended
+     *
+     * @param frames frames drawn while switching
+     * @param droppedFrames frames dropped while switching
+     */
+    void onSwitchEnded(int frames, int droppedFrames) {
+        if (droppedFrames * 100 > (frames + droppedFrames) * JANK_PERCENT) {
+            smoothInRow = 0;
+            if (++jankyInRow >= JANK_STREAK && jankLevel < FrameController.QUALITY_NONE) {
+                jankyInRow = 0;
+                jankLevel++;
+                update(FrameController.QUALITY_REASON_JANK);
+            }
+        }
+        else {
+            jankyInRow = 0;
+            if (++smoothInRow >= RECOVER_STREAK && jankLevel > FrameController.QUALITY_FULL) {
+                smoothInRow = 0;
+                jankLevel--;
+                update(FrameController.QUALITY_REASON_RECOVERED);
+            }
+        }
+    }
+
+    private void update(int reason) {
+        int level = Math.max(deviceLevel(), jankLevel);
+        if (level == quality) return;
+
+        quality = level;
+        if (listener != null) listener.onChange(quality, reason);
+    }
+
+    private int deviceLevel() {
+        if (animationsOff) return FrameController.QUALITY_NONE;
+        if (powerSave) return FrameController.QUALITY_FADE;
+        if (lowRam) return FrameController.QUALITY_REDUCED;
+        return FrameController.QUALITY_FULL;
+    }
+
+    private int reasonOfDeviceLevel() {
+        if (animationsOff) return FrameController.QUALITY_REASON_ANIMATIONS_OFF;
+        if (powerSave) return FrameController.QUALITY_REASON_POWER_SAVE;
+        if (lowRam) return FrameController.QUALITY_REASON_LOW_RAM;
+        return FrameController.QUALITY_REASON_RECOVERED;
+    }
+
+    //========================================= Quality ============================================
+
+    int getQuality() {
+        return quality;
+    }
+
+    /**
+     * @return animation type to use instead of required one
+     */
+    int applyToType(int type) {
+        switch (quality) {
+            case FrameController.QUALITY_NONE:
+                return FrameController.ANIMATION_NONE;
+            case FrameController.QUALITY_FADE:
+                return (type == FrameController.ANIMATION_NONE) ? type : FrameController.ANIMATION_FADE;
+            case FrameController.QUALITY_REDUCED: {
+                // No rotation and no scaling
+                if (type == FrameController.ANIMATION_SWIPE) return FrameController.ANIMATION_SCROLL_HORIZONTAL;
+                if (type == FrameController.ANIMATION_SCALE) return FrameController.ANIMATION_FADE;
+                // What custom transitions do is unknown, so they are not trusted to be cheap
+                if (type >= FCTransitions.CUSTOM_FIRST) return FrameController.ANIMATION_FADE;
+                return type;
+            }
+        }
+        return type;
+    }
+
+    boolean applyToScaleModifier(boolean scaleModifier) {
+        return scaleModifier && quality == FrameController.QUALITY_FULL;
+    }
+
+    //====================================== Device state ==========================================
+
+    private void readDeviceState() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            lowRam = (am != null && am.isLowRamDevice());
+        }
+        powerSave = readPowerSave();
+        animationsOff = readAnimationsOff();
+    }
+
+    private boolean readPowerSave() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return false;
+        PowerManager pm = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        return (pm != null && pm.isPowerSaveMode());
+    }
+
+    @SuppressWarnings("deprecation")
+    private boolean readAnimationsOff() {
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
+                return Settings.Global.getFloat(context.getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1.0f) == 0.0f;
+            else
+                return Settings.System.getFloat(context.getContentResolver(), Settings.System.ANIMATOR_DURATION_SCALE, 1.0f) == 0.0f;
+        } catch (Exception e) {
+            Log.e("FrameController: ", "readAnimationsOff: ", e);
+            return false;
+        }
+    }
+
+    /**
+     * Start following battery saver and animator duration scale
+     */
+    void register() {
+        if (powerSaveReceiver != null) return;
+
+        powerSaveReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                setDeviceState(lowRam, readPowerSave(), animationsOff);
+            }
+        };
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
+            context.registerReceiver(powerSaveReceiver, new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+
+        animatorScaleObserver = new ContentObserver(new Handler()) {
+            @Override
+            public void onChange(boolean selfChange) {
+                setDeviceState(lowRam, powerSave, readAnimationsOff());
+            }
+        };
+        context.getContentResolver().registerContentObserver(animatorScaleUri(), false, animatorScaleObserver);
+
+        // State could change while not followed
+        setDeviceState(lowRam, readPowerSave(), readAnimationsOff());
+    }
+
+    void unregister() {
+        if (powerSaveReceiver == null) return;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) context.unregisterReceiver(powerSaveReceiver);
+        context.getContentResolver().unregisterContentObserver(animatorScaleObserver);
+        powerSaveReceiver = null;
+        animatorScaleObserver = null;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Uri animatorScaleUri() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
+            return Settings.Global.getUriFor(Settings.Global.ANIMATOR_DURATION_SCALE);
+        else
+            return Settings.System.getUriFor(Settings.System.ANIMATOR_DURATION_SCALE);
+    }
+}
@@ -0,0 +1,121 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Bundle;
+import android.widget.FrameLayout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+class FCRetainedStore {
+
+    /*
+     * Containers kept over recreation of activity, by retain key of FrameController.
+     *
+     * FrameController with a retain key creates and inflates containers with a MutableContextWrapper.
+     * When it is detached because activity changes configuration, its collection with configuration,
+     * attached containers and current container are put here and the wrapper is switched
+     * to application context, so destroyed activity is not held. New FrameController
+     * with the same key takes them and switches the wrapper to its own context.
+     * Every entry is taken once, retaining again under the same key replaces it.
+     *
+     * New activity takes its entries in onCreate, so an entry still here when any activity
+     * of the application is resumed was never claimed, e.g. the recreated activity
+     * does not set the retain key any more. All such entries are dropped then,
+     * so the store does not keep FCController and its containers for the life of the process.
+     */
+
+    static class Retained {
+        final FCController fc;
+        final MutableContextWrapper context;
+        final ArrayList<FrameLayout> attached;
+        final FrameLayout current;
+
+        Retained(FCController fc, MutableContextWrapper context, ArrayList<FrameLayout> attached, FrameLayout current) {
+            this.fc = fc;
+            this.context = context;
+            this.attached = attached;
+            this.current = current;
+        }
+    }
+
+    private static final HashMap<String, Retained> retained = new HashMap<>();
+
+    private static Application application = null;
+
+    private FCRetainedStore() {}
+
+    static void put(String key, Retained entry) {
+        Context applicationContext = entry.context.getApplicationContext();
+        entry.context.setBaseContext(applicationContext);
+        retained.put(key, entry);
+
+        if (application != applicationContext && applicationContext instanceof Application) {
+            if (application != null) application.unregisterActivityLifecycleCallbacks(dropOnResume);
+            application = (Application) applicationContext;
+            application.registerActivityLifecycleCallbacks(dropOnResume);
+        }
+    }
+
+    static Retained take(String key) {
+        return retained.remove(key);
+    }
+
+    static void remove(String key) {
+        retained.remove(key);
+    }
+
+    static boolean contains(String key) {
+        return retained.containsKey(key);
+    }
+
+    //======================================= Stale entries ========================================
+
+    private static final Application.ActivityLifecycleCallbacks dropOnResume = new Application.ActivityLifecycleCallbacks() {
+        @Override
+        public void onActivityResumed(Activity activity) {
+            retained.clear();
+            if (application != null) {
+                application.unregisterActivityLifecycleCallbacks(this);
+                application = null;
+            }
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {}
+
+        @Override
+        public void onActivityStarted(Activity activity) {}
+
+        @Override
+        public void onActivityPaused(Activity activity) {}
+
+        @Override
+        public void onActivityStopped(Activity activity) {}
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {}
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {}
+    };
+}
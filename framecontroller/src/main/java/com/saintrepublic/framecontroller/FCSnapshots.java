@@ -0,0 +1,166 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.Transformation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+class FCSnapshots {
+
+    /*
+     * Bitmap snapshots of containers for snapshot transitions.
+     *
+     * Containers of a hop are drawn once into bitmaps when the hop starts.
+     * Animations stay on containers, so listeners and hops work as usual,
+     * but FrameController draws the bitmap with transformation of container animation
+     * instead of drawing its hierarchy on every frame.
+     *
+     * Released bitmaps are kept in a pool and reused for containers of the same size,
+     * so switches after the first one allocate no bitmaps.
+     */
+
+    static final int POOL_SIZE = 4;
+
+    private final ArrayList<Bitmap> pool = new ArrayList<>(POOL_SIZE);
+    private final IdentityHashMap<View, Bitmap> snapshots = new IdentityHashMap<>();
+
+    private final Canvas captureCanvas = new Canvas();
+    private final Transformation transformation = new Transformation();
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private int createdCount = 0;
+
+    //========================================== Capture ===========================================
+
+    /**
+     * Draw container into a pooled bitmap
+     *
+     * @return false if container is not laid out yet and must be animated live
+     */
+    boolean capture(View container) {
+        if (snapshots.containsKey(container)) return true;
+
+        int width = container.getWidth();
+        int height = container.getHeight();
+        if (width <= 0 || height <= 0 || container.isLayoutRequested()) return false;
+
+        Bitmap bitmap = obtain(width, height);
+        captureCanvas.setBitmap(bitmap);
+        container.draw(captureCanvas);
+        captureCanvas.setBitmap(null);
+
+        snapshots.put(container, bitmap);
+        return true;
+    }
+
+    boolean has(View container) {
+        return snapshots.containsKey(container);
+    }
+
+    int size() {
+        return snapshots.size();
+    }
+
+    void release(View container) {
+        Bitmap bitmap = snapshots.remove(container);
+        if (bitmap != null) recycle(bitmap);
+    }
+
+    void releaseAll() {
+        for (Bitmap bitmap : snapshots.values()) recycle(bitmap);
+        snapshots.clear();
+    }
+
+    //========================================== Drawing ===========================================
+
+    /**
+     * Draw snapshot in place of container, stepping container animation as View.draw() does it
+     *
+     * @param parent FrameController, invalidated while animation is running
+     * @return false if snapshot was released by animation listener and container must be drawn live
+     */
+    boolean draw(Canvas canvas, View container, long drawingTime, View parent) {
+        Animation animation = container.getAnimation();
+        boolean more = false;
+        transformation.clear();
+        if (animation != null) {
+            if (!animation.isInitialized()) {
+                animation.initialize(container.getWidth(), container.getHeight(), parent.getWidth(), parent.getHeight());
+            }
+            more = animation.getTransformation(drawingTime, transformation);
+        }
+
+        // Listener of the last frame may hide container and release its snapshot
+        Bitmap bitmap = snapshots.get(container);
+        if (bitmap == null) return false;
+
+        int save = canvas.save();
+        canvas.translate(container.getLeft(), container.getTop());
+        canvas.concat(transformation.getMatrix());
+        canvas.concat(container.getMatrix());
+        paint.setAlpha((int) (255 * transformation.getAlpha() * container.getAlpha()));
+        canvas.drawBitmap(bitmap, 0, 0, paint);
+        canvas.restoreToCount(save);
+
+        if (more) parent.invalidate();
+        return true;
+    }
+
+    //=========================================== Pool =============================================
+
+    private Bitmap obtain(int width, int height) {
+        for (int i = pool.size() - 1; i >= 0; i--) {
+            Bitmap bitmap = pool.get(i);
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                pool.remove(i);
+                bitmap.eraseColor(0);
+                return bitmap;
+            }
+        }
+
+        createdCount++;
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    private void recycle(Bitmap bitmap) {
+        if (pool.size() == POOL_SIZE) pool.remove(0).recycle();
+        pool.add(bitmap);
+    }
+
+    /**
+     * Free pooled bitmaps, snapshots in use are kept
+     */
+    void trim() {
+        for (int i = 0; i < pool.size(); i++) pool.get(i).recycle();
+        pool.clear();
+    }
+
+    int getPooledCount() {
+        return pool.size();
+    }
+
+    int getCreatedCount() {
+        return createdCount;
+    }
+}
@@ -0,0 +1,90 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+import android.view.animation.Transformation;
+
+class FCSpecAnimation extends Animation {
+
+    /*
+     * Animation which evaluates cached curves of TransitionSpec.
+     *
+     * Instances are pooled by FCTransitions and reused by later hops,
+     * Animation itself runs on linear time and every track applies spec interpolator.
+     */
+
+    private TransitionCurves curves;
+    private Interpolator curvesInterpolator;
+    private int width;
+    private int height;
+    private int parentWidth;
+    private int parentHeight;
+
+    // Containers of the hop whose listener is set on this animation
+    private View hopNext;
+    private View hopPrev;
+    private boolean hopLast;
+
+    FCSpecAnimation() {
+        setInterpolator(new LinearInterpolator());
+    }
+
+    void set(TransitionCurves curves, Interpolator interpolator, int duration) {
+        this.curves = curves;
+        this.curvesInterpolator = interpolator;
+        setDuration(duration);
+        setAnimationListener(null);
+        setHop(null, null, false);
+        reset();
+    }
+
+    void setHop(View next, View prev, boolean last) {
+        hopNext = next;
+        hopPrev = prev;
+        hopLast = last;
+    }
+
+    View getHopNext() {
+        return hopNext;
+    }
+
+    View getHopPrev() {
+        return hopPrev;
+    }
+
+    boolean isHopLast() {
+        return hopLast;
+    }
+
+    @Override
+    public void initialize(int width, int height, int parentWidth, int parentHeight) {
+        super.initialize(width, height, parentWidth, parentHeight);
+        this.width = width;
+        this.height = height;
+        this.parentWidth = parentWidth;
+        this.parentHeight = parentHeight;
+    }
+
+    @Override
+    protected void applyTransformation(float interpolatedTime, Transformation t) {
+        curves.apply(interpolatedTime, curvesInterpolator, t, width, height, parentWidth, parentHeight);
+    }
+}
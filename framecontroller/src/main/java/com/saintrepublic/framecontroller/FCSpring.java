@@ -0,0 +1,179 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+class FCSpring {
+
+    /*
+     * Damped spring of unit mass used by spring switching.
+     *
+     * Every step uses exact solution of spring equation for elapsed time,
+     * so it is stable for any frame duration and does not depend on frame rate.
+     * Target can be changed at any time, position and velocity stay the same,
+     * so the spring turns to new target smoothly.
+     * State is kept in primitive fields and stepping does not allocate.
+     */
+
+    static final float DAMPING_CRITICAL = 1.0f;
+
+    /**
+     * Step of duration estimate in milliseconds, a frame at 60 frames per second
+     */
+    static final long ESTIMATE_FRAME_MILLIS = 16;
+
+    private static final double REST_DISPLACEMENT = 0.001;
+    private static final double REST_VELOCITY = 0.05;
+    private static final long ESTIMATE_LIMIT_MILLIS = 10000;
+
+    private double position = 0;
+    private double velocity = 0;
+    private double target = 0;
+
+    private double stiffness = 300;
+    private double dampingRatio = DAMPING_CRITICAL;
+
+    //========================================= Control ============================================
+
+    void setStiffness(float stiffness) {
+        this.stiffness = Math.max(stiffness, 1.0f);
+    }
+
+    void setDampingRatio(float dampingRatio) {
+        this.dampingRatio = Math.max(dampingRatio, 0.01f);
+    }
+
+    /**
+     * Stop the spring at position
+     */
+    void snapTo(float position) {
+        this.position = position;
+        this.target = position;
+        this.velocity = 0;
+    }
+
+    /**
+     * Change target keeping current position and velocity
+     */
+    void setTarget(float target) {
+        this.target = target;
+    }
+
+    void setVelocity(float velocity) {
+        this.velocity = velocity;
+    }
+
+    //========================================= Stepping ===========================================
+
+    /**
+     * Move the spring forward in time.
+     * Spring which came to rest is snapped to its target.
+     *
+     * @param millis elapsed time in milliseconds
+     * @return True if spring is still moving
+     */
+    boolean step(long millis) {
+        if (millis > 0) solve(millis / 1000.0);
+
+        if (isAtRest(position, velocity)) {
+            position = target;
+            velocity = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private void solve(double time) {
+        double x = position - target;
+        double v = velocity;
+        double omega = Math.sqrt(stiffness);
+
+        if (dampingRatio > 1.0) {
+            double root = omega * Math.sqrt(dampingRatio * dampingRatio - 1.0);
+            double gammaPlus = -dampingRatio * omega + root;
+            double gammaMinus = -dampingRatio * omega - root;
+            double b = (gammaMinus * x - v) / (gammaMinus - gammaPlus);
+            double a = x - b;
+            double ePlus = Math.exp(gammaPlus * time);
+            double eMinus = Math.exp(gammaMinus * time);
+            x = a * eMinus + b * ePlus;
+            v = a * gammaMinus * eMinus + b * gammaPlus * ePlus;
+        }
+        else if (dampingRatio == 1.0) {
+            double c = v + omega * x;
+            double e = Math.exp(-omega * time);
+            x = (x + c * time) * e;
+            v = c * e - omega * x;
+        }
+        else {
+            double omegaD = omega * Math.sqrt(1.0 - dampingRatio * dampingRatio);
+            double a = x;
+            double b = (v + dampingRatio * omega * x) / omegaD;
+            double e = Math.exp(-dampingRatio * omega * time);
+            double cos = Math.cos(omegaD * time);
+            double sin = Math.sin(omegaD * time);
+            x = e * (a * cos + b * sin);
+            v = -dampingRatio * omega * x + e * omegaD * (b * cos - a * sin);
+        }
+
+        position = target + x;
+        velocity = v;
+    }
+
+    private boolean isAtRest(double position, double velocity) {
+        return Math.abs(position - target) < REST_DISPLACEMENT && Math.abs(velocity) < REST_VELOCITY;
+    }
+
+    //========================================== State =============================================
+
+    float getPosition() {
+        return (float) position;
+    }
+
+    float getVelocity() {
+        return (float) velocity;
+    }
+
+    float getTarget() {
+        return (float) target;
+    }
+
+    boolean isAtRest() {
+        return isAtRest(position, velocity);
+    }
+
+    /**
+     * Estimate time left until rest by stepping a copy of the spring
+     *
+     * @param frameMillis duration of a step in milliseconds
+     * @return time in milliseconds, rounded up to whole steps
+     */
+    long estimateRestMillis(long frameMillis) {
+        double savedPosition = position;
+        double savedVelocity = velocity;
+        frameMillis = Math.max(frameMillis, 1);
+
+        long elapsed = 0;
+        while (!isAtRest(position, velocity) && elapsed < ESTIMATE_LIMIT_MILLIS) {
+            solve(frameMillis / 1000.0);
+            elapsed += frameMillis;
+        }
+
+        position = savedPosition;
+        velocity = savedVelocity;
+        return elapsed;
+    }
+}
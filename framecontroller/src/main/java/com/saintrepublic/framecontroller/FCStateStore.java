@@ -0,0 +1,161 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class FCStateStore {
+
+    /*
+     * Saved hierarchy states of pages which lost their containers.
+     *
+     * When a page of adapter is recycled, state of its views (scroll positions, text input,
+     * checked states... of views with ids) is saved and marshalled into a byte array,
+     * so the store holds no views or objects of the app. State is restored and dropped
+     * when the page is bound again. Least recently saved states are dropped over maxBytes.
+     *
+     * Pages are kept by stable id, or by position if adapter has no stable ids.
+     * Positions do not follow data changes, so states kept by position are dropped on them.
+     */
+
+    static final int DEFAULT_MAX_BYTES = 256 * 1024;
+
+    private final LinkedHashMap<Object, byte[]> states = new LinkedHashMap<>(16, 0.75f, true);
+    private final SparseArray<Parcelable> hierarchy = new SparseArray<>();
+    private int maxBytes = DEFAULT_MAX_BYTES;
+    private int bytes = 0;
+
+    //========================================== Store =============================================
+
+    void save(Object key, View view) {
+        remove(key);
+        if (maxBytes == 0) return;
+
+        hierarchy.clear();
+        view.saveHierarchyState(hierarchy);
+        if (hierarchy.size() == 0) return;
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeInt(hierarchy.size());
+            for (int i = 0; i < hierarchy.size(); i++) {
+                parcel.writeInt(hierarchy.keyAt(i));
+                parcel.writeParcelable(hierarchy.valueAt(i), 0);
+            }
+            byte[] state = parcel.marshall();
+            if (state.length > maxBytes) return;
+
+            states.put(key, state);
+            bytes += state.length;
+            trimTo(maxBytes);
+        } catch (RuntimeException e) {
+            // States with binders or file descriptors can not be marshalled
+            Log.e("FrameController: ", "saveState: ", e);
+        } finally {
+            parcel.recycle();
+            hierarchy.clear();
+        }
+    }
+
+    /**
+     * Restore saved state into view of page and drop it from the store
+     *
+     * @return false if page has no saved state
+     */
+    boolean restore(Object key, View view) {
+        byte[] state = remove(key);
+        if (state == null) return false;
+
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.unmarshall(state, 0, state.length);
+            parcel.setDataPosition(0);
+            ClassLoader loader = view.getContext().getClassLoader();
+            int size = parcel.readInt();
+            for (int i = 0; i < size; i++) {
+                int id = parcel.readInt();
+                hierarchy.put(id, parcel.readParcelable(loader));
+            }
+            view.restoreHierarchyState(hierarchy);
+            return true;
+        } catch (RuntimeException e) {
+            Log.e("FrameController: ", "restoreState: ", e);
+            return false;
+        } finally {
+            parcel.recycle();
+            hierarchy.clear();
+        }
+    }
+
+    private byte[] remove(Object key) {
+        byte[] state = states.remove(key);
+        if (state != null) bytes -= state.length;
+        return state;
+    }
+
+    /**
+     * Drop states kept by position, they may belong to other pages after data change
+     */
+    void removePositions() {
+        Iterator<Map.Entry<Object, byte[]>> iterator = states.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, byte[]> entry = iterator.next();
+            if (entry.getKey() instanceof Integer) {
+                bytes -= entry.getValue().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    void clear() {
+        states.clear();
+        bytes = 0;
+    }
+
+    void setMaxBytes(int maxBytes) {
+        this.maxBytes = Math.max(maxBytes, 0);
+        trimTo(this.maxBytes);
+    }
+
+    int getMaxBytes() {
+        return maxBytes;
+    }
+
+    int getBytes() {
+        return bytes;
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    private void trimTo(int limit) {
+        Iterator<byte[]> iterator = states.values().iterator();
+        while (bytes > limit && iterator.hasNext()) {
+            bytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+}
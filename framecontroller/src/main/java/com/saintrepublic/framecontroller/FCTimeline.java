@@ -0,0 +1,78 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+class FCTimeline {
+
+    /*
+     * Timeline of a switch compiled when switch starts.
+     *
+     * Every hop has a fixed offset from the start of switch,
+     * so a late hop does not delay hops after it and total duration
+     * is known before the first hop: (hops - 1) * delay + duration.
+     */
+
+    private int hops = 0;
+    private int madeHops = 0;
+    private long delay = 0;
+    private long duration = 0;
+
+    void compile(int hops, long delay, long duration) {
+        this.hops = hops;
+        this.delay = delay;
+        this.duration = duration;
+        madeHops = 0;
+    }
+
+    //========================================= Playing ============================================
+
+    boolean hasNextHop() {
+        return madeHops < hops;
+    }
+
+    /**
+     * @return offset of next hop from the start of switch in milliseconds
+     */
+    long getNextHopOffset() {
+        return madeHops * delay;
+    }
+
+    void advance() {
+        madeHops++;
+    }
+
+    //========================================= Duration ===========================================
+
+    int getHops() {
+        return hops;
+    }
+
+    /**
+     * @return time from the first hop to the end of the last hop animation in milliseconds
+     */
+    long getTotalDuration() {
+        return (hops == 0) ? 0 : (hops - 1) * delay + duration;
+    }
+
+    /**
+     * @param elapsed time from the start of switch in milliseconds
+     * @return time left to the end of switch in milliseconds
+     */
+    long getRemainingDuration(long elapsed) {
+        return Math.max(getTotalDuration() - elapsed, 0);
+    }
+}
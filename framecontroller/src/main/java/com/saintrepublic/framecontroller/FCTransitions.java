@@ -0,0 +1,129 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.util.SparseArray;
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.Interpolator;
+
+import java.util.ArrayList;
+
+class FCTransitions {
+
+    /*
+     * Registry of transition specs of FrameController.
+     *
+     * Curves of every spec are declared for all directions and scale modifiers
+     * when spec is registered, so starting a hop only picks cached curves
+     * and a pooled animation.
+     *
+     * Pool keeps only free animations. Animation returns to pool when the next hop
+     * replaces it on its container, so animations which never end, e.g. of hidden containers
+     * or removed with their containers, are left to garbage collector and do not take pool places.
+     */
+
+    static final int CUSTOM_FIRST = 100;
+
+    private static final int POOL_LIMIT = 32;
+
+    private Animus animus;
+    private SparseArray<Entry> entries = new SparseArray<>();
+    private int nextCustomType = CUSTOM_FIRST;
+    private ArrayList<FCSpecAnimation> pool = new ArrayList<>();
+
+    private static class Entry {
+        TransitionSpec spec;
+        Interpolator interpolator;
+        TransitionCurves[] curves = new TransitionCurves[8];
+    }
+
+    FCTransitions(Animus animus) {
+        this.animus = animus;
+        for (int type = FrameController.ANIMATION_FADE; type <= FrameController.ANIMATION_SCROLL_HORIZONTAL; type++)
+            put(type, new FCBuiltInSpec(type));
+    }
+
+    //======================================== Registration ========================================
+
+    int register(TransitionSpec spec) {
+        int type = nextCustomType++;
+        put(type, spec);
+        return type;
+    }
+
+    private void put(int type, TransitionSpec spec) {
+        Entry entry = new Entry();
+        entry.spec = spec;
+        entry.interpolator = animus.getInterpolator(spec.getInterpolator());
+
+        for (int i = 0; i < 4; i++) {
+            TransitionCurves incoming = new TransitionCurves();
+            TransitionCurves outgoing = new TransitionCurves();
+            spec.declare(incoming, outgoing, (i & 2) == 0, (i & 1) != 0);
+            entry.curves[i * 2] = incoming;
+            entry.curves[i * 2 + 1] = outgoing;
+        }
+        entries.put(type, entry);
+    }
+
+    //========================================== Lookup ============================================
+
+    TransitionSpec getSpec(int type) {
+        Entry entry = entries.get(type);
+        return (entry != null) ? entry.spec : null;
+    }
+
+    TransitionCurves getCurves(int type, boolean forward, boolean scaleModifier, boolean incoming) {
+        int index = ((forward ? 0 : 2) + (scaleModifier ? 1 : 0)) * 2 + (incoming ? 0 : 1);
+        return entries.get(type).curves[index];
+    }
+
+    Interpolator getInterpolator(int type) {
+        return entries.get(type).interpolator;
+    }
+
+    //========================================= Animations =========================================
+
+    /**
+     * Return free animation from pool or a new one
+     */
+    Animation obtainAnimation(TransitionCurves curves, Interpolator interpolator, int duration) {
+        FCSpecAnimation animation = pool.isEmpty() ? new FCSpecAnimation() : pool.remove(pool.size() - 1);
+        animation.set(curves, interpolator, duration);
+        return animation;
+    }
+
+    /**
+     * Return pooled animation of the view to pool. Listener of the animation is not called,
+     * as when view gets another animation.
+     *
+     * @param view container whose animation is replaced or cleared right after this call
+     */
+    void recycle(View view) {
+        Animation animation = view.getAnimation();
+        if (!(animation instanceof FCSpecAnimation)) return;
+
+        animation.setAnimationListener(null);
+        ((FCSpecAnimation) animation).setHop(null, null, false);
+        if (pool.size() < POOL_LIMIT) pool.add((FCSpecAnimation) animation);
+    }
+
+    int getPoolSize() {
+        return pool.size();
+    }
+}
@@ -0,0 +1,244 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+class FCWarmStart {
+
+    /*
+     * Snapshot of current container kept between process starts.
+     *
+     * When the app goes to background current container is drawn into a bitmap
+     * scaled down by SNAPSHOT_SCALE, it is compressed with its alpha and written on a worker thread
+     * together with bounds of the container and size of FrameController.
+     * Next start reads and decodes the snapshot on a worker thread, then FrameController draws it
+     * over its containers at the same bounds as a placeholder until current container is laid out,
+     * at most TIMEOUT_MILLIS from the first frame, then it fades out in FADE_MILLIS
+     * and the bitmap is released. Snapshot of another FrameController size,
+     * e.g. of other orientation, is dropped at the first frame.
+     */
+
+    static final float SNAPSHOT_SCALE = 0.5f;
+    static final long FADE_MILLIS = 150;
+    static final long TIMEOUT_MILLIS = 1000;
+    private static final int MAGIC = 0x46435753; // "FCWS"
+
+    private final File file;
+    private Bitmap placeholder = null;
+    private int parentWidth;
+    private int parentHeight;
+    private final Rect bounds = new Rect();
+    private long shownStart = -1;
+    private long fadeStart = -1;
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private volatile boolean saving = false;
+    private boolean loading = false;
+    private boolean dropped = false;
+
+    private static class Snapshot {
+        int parentWidth;
+        int parentHeight;
+        final Rect bounds = new Rect();
+        Bitmap bitmap;
+    }
+
+    FCWarmStart(File file) {
+        this.file = file;
+    }
+
+    //========================================== Loading ===========================================
+
+    /**
+     * Read and decode snapshot on a worker thread and take it as placeholder on main thread
+     *
+     * @param onLoaded run on main thread when placeholder is taken
+     */
+    void load(final Runnable onLoaded) {
+        loading = true;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final Snapshot snapshot = read();
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        loading = false;
+                        // Dropped or saved again while it was read
+                        if (snapshot == null || dropped) return;
+                        parentWidth = snapshot.parentWidth;
+                        parentHeight = snapshot.parentHeight;
+                        bounds.set(snapshot.bounds);
+                        placeholder = snapshot.bitmap;
+                        onLoaded.run();
+                    }
+                });
+            }
+        }, "FrameController snapshot").start();
+    }
+
+    boolean isLoading() {
+        return loading;
+    }
+
+    //======================================== Placeholder =========================================
+
+    boolean hasPlaceholder() {
+        return (placeholder != null);
+    }
+
+    /**
+     * Draw placeholder over containers
+     *
+     * @param width width of FrameController
+     * @param height height of FrameController
+     * @param ready true when current container is laid out and drawn under placeholder
+     * @return true if placeholder is shown and next frame is needed
+     */
+    boolean draw(Canvas canvas, int width, int height, boolean ready, long now) {
+        if (placeholder == null) return false;
+        if (width != parentWidth || height != parentHeight) {
+            placeholder = null;
+            return false;
+        }
+
+        if (shownStart < 0) shownStart = now;
+        if ((ready || now - shownStart >= TIMEOUT_MILLIS) && fadeStart < 0) fadeStart = now;
+        float fade = (fadeStart < 0) ? 0.0f : (float) (now - fadeStart) / FADE_MILLIS;
+        if (fade >= 1.0f) {
+            placeholder = null;
+            return false;
+        }
+
+        paint.setAlpha((int) (255 * (1.0f - fade)));
+        canvas.drawBitmap(placeholder, null, bounds, paint);
+        return true;
+    }
+
+    void dropPlaceholder() {
+        placeholder = null;
+        dropped = true;
+    }
+
+    //========================================= Saving =============================================
+
+    /**
+     * Draw container into a scaled bitmap on main thread and write it on a worker thread
+     *
+     * @param container current container or null to delete the snapshot
+     * @param parentWidth width of FrameController
+     * @param parentHeight height of FrameController
+     * @return false if container can not be drawn or previous snapshot is still being written
+     */
+    boolean save(View container, final int parentWidth, final int parentHeight) {
+        if (saving) return false;
+        dropped = true;
+        if (container == null) {
+            if (file.exists() && !file.delete()) Log.e("FrameController: ", "saveSnapshot: can not delete " + file);
+            return false;
+        }
+
+        int width = (int) (container.getWidth() * SNAPSHOT_SCALE);
+        int height = (int) (container.getHeight() * SNAPSHOT_SCALE);
+        if (width <= 0 || height <= 0) return false;
+
+        // Transparent parts of container show what is under FrameController
+        final Bitmap snapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(snapshot);
+        canvas.scale(SNAPSHOT_SCALE, SNAPSHOT_SCALE);
+        container.draw(canvas);
+        final Rect containerBounds = new Rect(container.getLeft(), container.getTop(), container.getRight(), container.getBottom());
+
+        saving = true;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(snapshot, containerBounds, parentWidth, parentHeight);
+                } catch (IOException e) {
+                    Log.e("FrameController: ", "saveSnapshot: ", e);
+                } finally {
+                    snapshot.recycle();
+                    saving = false;
+                }
+            }
+        }, "FrameController snapshot").start();
+        return true;
+    }
+
+    boolean isSaving() {
+        return saving;
+    }
+
+    private void write(final Bitmap snapshot, final Rect containerBounds, final int parentWidth, final int parentHeight) throws IOException {
+        FCAtomicFile.write(file, new FCAtomicFile.Content() {
+            @Override
+            public void writeTo(DataOutputStream out) throws IOException {
+                out.writeInt(MAGIC);
+                out.writeInt(parentWidth);
+                out.writeInt(parentHeight);
+                out.writeInt(containerBounds.left);
+                out.writeInt(containerBounds.top);
+                out.writeInt(containerBounds.right);
+                out.writeInt(containerBounds.bottom);
+                snapshot.compress(Bitmap.CompressFormat.PNG, 100, out);
+            }
+        });
+    }
+
+    /**
+     * Runs on worker thread, snapshot of older format is ignored
+     *
+     * @return snapshot or null if there is none
+     */
+    private Snapshot read() {
+        if (!file.exists()) return null;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC) return null;
+                Snapshot snapshot = new Snapshot();
+                snapshot.parentWidth = in.readInt();
+                snapshot.parentHeight = in.readInt();
+                snapshot.bounds.set(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                snapshot.bitmap = BitmapFactory.decodeStream(in);
+                return (snapshot.bitmap != null) ? snapshot : null;
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            Log.e("FrameController: ", "readSnapshot: ", e);
+            return null;
+        }
+    }
+}
@@ -16,21 +16,37 @@ package com.saintrepublic.framecontroller;
  * limitations under the License.
  */
 
+import android.app.Activity;
+import android.arch.lifecycle.LifecycleOwner;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.MutableContextWrapper;
+import android.content.res.Configuration;
+import android.database.DataSetObserver;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
-import android.os.Handler;
 import android.support.annotation.IntRange;
 import android.support.annotation.LayoutRes;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.animation.Animation;
-import android.view.animation.AnimationSet;
+import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
 public class FrameController extends FrameLayout implements Controller {
 
     /**
@@ -67,14 +83,39 @@ public class FrameController extends FrameLayout implements Controller {
     public final static int ANIMATION_MOVE_TOP = 6;
     public final static int ANIMATION_SCROLL_VERTICAL = 7;
     public final static int ANIMATION_SCROLL_HORIZONTAL = 8;
+    public final static int ANIMATION_SPRING = 9;
 
     public final static int SPEED_SLOW = 0;
     public final static int SPEED_NORMAL = 1;
     public final static int SPEED_FAST = 2;
 
+    public final static int DRAG_NONE = 0;
+    public final static int DRAG_HORIZONTAL = 1;
+    public final static int DRAG_VERTICAL = 2;
+
+    public final static int QUALITY_FULL = 0;
+    public final static int QUALITY_REDUCED = 1;
+    public final static int QUALITY_FADE = 2;
+    public final static int QUALITY_NONE = 3;
+
+    public final static int QUALITY_REASON_LOW_RAM = 1;
+    public final static int QUALITY_REASON_POWER_SAVE = 2;
+    public final static int QUALITY_REASON_ANIMATIONS_OFF = 3;
+    public final static int QUALITY_REASON_JANK = 4;
+    public final static int QUALITY_REASON_RECOVERED = 5;
+    public final static int QUALITY_REASON_DISABLED = 6;
+
+    public final static int CONTAINER_CREATED = 0;
+    public final static int CONTAINER_ATTACHED = 1;
+    public final static int CONTAINER_VISIBLE = 2;
+    public final static int CONTAINER_HIDDEN = 3;
+    public final static int CONTAINER_EVICTED = 4;
+
     private Context context;
     private Animus animus;
+    private FCTransitions transitions;
     private FCController fc;
+    private FCLifecycle lifecycle;
 
     private FrameLayout currentContainer;
     private OnSwitchListener switchListener;
@@ -97,7 +138,9 @@ public class FrameController extends FrameLayout implements Controller {
     private void init(Context context) {
         this.context = context;
         animus = new Animus();
+        transitions = new FCTransitions(animus);
         fc = new FCController(context);
+        lifecycle = new FCLifecycle();
 
         switchListener = null;
         currentContainer = null;
@@ -122,11 +165,21 @@ public class FrameController extends FrameLayout implements Controller {
 
     @Override
     public FrameLayout addViewToNewContainer(View view, int containerPosition, @Nullable Object tag) {
+        return addViewToNewContainer(view, 0, containerPosition, tag);
+    }
+
+    private FrameLayout addViewToNewContainer(View view, @LayoutRes int layoutID, int containerPosition, @Nullable Object tag) {
+        if (isAdapterSet("addViewToNewContainer")) return null;
+        if (sessionRecorder != null) sessionRecorder.record(scheduler.now(), SessionRecorder.OP_ADD_CONTAINER, layoutID, containerPosition);
+
         FrameLayout container = fc.createNewContainer();
+        lifecycle.onCreated(container);
         container.addView(view);
         container.setTag(tag);
+        if (layoutID != 0) container.setTag(R.id.fc_layout_id, layoutID);
         try {
             addView(container, containerPosition);
+            lifecycle.onAttached(container);
         } catch (Exception e) {
             Log.e("FrameController: ", "addViewToNewContainer: ", e);
         }
@@ -134,12 +187,18 @@ public class FrameController extends FrameLayout implements Controller {
     }
 
     private FrameLayout addViewToNewContainer(@LayoutRes int layoutID, int containerPosition, @Nullable Object tag) {
+        if (isAdapterSet("addViewToNewContainer")) return null;
+        if (sessionRecorder != null) sessionRecorder.record(scheduler.now(), SessionRecorder.OP_ADD_CONTAINER, layoutID, containerPosition);
+
         FrameLayout container = fc.createNewContainer();
-        View layout = LayoutInflater.from(context).inflate(layoutID, container, false);
+        lifecycle.onCreated(container);
+        View layout = inflateLayout(layoutID, container);
         container.setTag(tag);
+        container.setTag(R.id.fc_layout_id, layoutID);
         container.addView(layout);
         try {
             addView(container, containerPosition);
+            lifecycle.onAttached(container);
         } catch (Exception e) {
             Log.e("FrameController: ", "addViewToNewContainer: ", e);
         }
@@ -148,7 +207,6 @@ public class FrameController extends FrameLayout implements Controller {
 
     @Override
     public FrameLayout addLayoutToNewContainer(@LayoutRes int layoutID) {
-        View layout = LayoutInflater.from(context).inflate(layoutID, null);
         return addViewToNewContainer(layoutID, -1, null);
     }
 
@@ -164,28 +222,41 @@ public class FrameController extends FrameLayout implements Controller {
 
     @Override
     public FrameLayout addLayoutToNewContainer(@LayoutRes int layoutID, ViewGroup.LayoutParams layoutParams, @Nullable Object tag) {
-        View layout = LayoutInflater.from(context).inflate(layoutID, null);
+        View layout = inflateLayout(layoutID, null);
         layout.setLayoutParams(layoutParams);
-        return addViewToNewContainer(layout, tag);
+        return addViewToNewContainer(layout, layoutID, -1, tag);
     }
 
     @Override
     public FrameLayout addLayoutToNewContainer(@LayoutRes int layoutID, ViewGroup.LayoutParams layoutParams, int containerPosition, @Nullable Object tag) {
-        View layout = LayoutInflater.from(context).inflate(layoutID, null);
+        View layout = inflateLayout(layoutID, null);
         layout.setLayoutParams(layoutParams);
-        return addViewToNewContainer(layout, containerPosition, tag);
+        return addViewToNewContainer(layout, layoutID, containerPosition, tag);
+    }
+
+    /**
+     * Take layout pre-inflated from manifest or inflate it and tell manifest how long it took
+     */
+    private View inflateLayout(@LayoutRes int layoutID, @Nullable ViewGroup parent) {
+        View layout = (manifest != null) ? manifest.take(layoutID) : null;
+        if (layout != null) return layout;
+
+        long start = System.nanoTime();
+        layout = obtainInflater().inflate(layoutID, parent, false);
+        if (manifest != null) manifest.onInflated(layoutID, System.nanoTime() - start);
+        return layout;
     }
 
     @Override
     public int getContainersCount() {
-        return getChildCount();
+        return (adapter != null) ? adapter.getCount() : getChildCount();
     }
 
     @Override
     public FrameLayout getCurrentContainer() {return currentContainer;}
 
     @Override
-    public int getCurrentPosition() {return indexOfChild(currentContainer);}
+    public int getCurrentPosition() {return positionOf(currentContainer);}
 
     @Override
     public boolean isCurrentFirst() {return (getCurrentPosition() == 0);}
@@ -197,43 +268,84 @@ public class FrameController extends FrameLayout implements Controller {
     public boolean isOut() {return (currentContainer == null);}
 
     @Override
-    public FrameLayout getContainerWithTag(Object tag) { return (FrameLayout)findViewWithTag(tag); }
+    public FrameLayout getContainerWithTag(Object tag) { return (FrameLayout)ensureInflated(findViewWithTag(tag)); }
 
     @Override
-    public FrameLayout getContainerAtPosition(int positionIndex) { return (FrameLayout)getChildAt(positionIndex); }
+    public FrameLayout getContainerAtPosition(int positionIndex) { return (FrameLayout)peekContainerAt(positionIndex); }
 
     @Override
-    public int getPositionOfContainer(FrameLayout container) { return indexOfChild(container); }
+    public int getPositionOfContainer(FrameLayout container) { return positionOf(container); }
 
     @Override
     public void removeContainerAtPosition(int positionIndex) {
+        if (isAdapterSet("removeContainerAtPosition")) return;
+        if (sessionRecorder != null) {
+            sessionRecorder.record(scheduler.now(), SessionRecorder.OP_REMOVE_CONTAINER, positionIndex, 0);
+            sessionRecorder.suspend();
+        }
+        if (springRunning) settleSpring();
         if (positionIndex == getCurrentPosition()) {
             if (positionIndex == 0) goToNext();
             else goToPrevious();
+            if (springRunning) settleSpring();
             currentContainer = null;
         }
-        fc.rmContainer(getContainerAtPosition(positionIndex));
+        if (sessionRecorder != null) sessionRecorder.resume();
+
+        if (recorder != null) recorder.record(FCEventRecorder.EVENT_EVICTED, positionIndex, 1);
+        FrameLayout container = getContainerAtPosition(positionIndex);
+        if (overview != null) overview.remove(container);
+        lazyContainers.remove(container);
+        fc.rmContainer(container);
         removeViewAt(positionIndex);
+        if (container != null) lifecycle.onEvicted(container);
     }
 
     @Override
     public void removeAllContainers() {
+        if (isAdapterSet("removeAllContainers")) return;
+        if (sessionRecorder != null) sessionRecorder.record(scheduler.now(), SessionRecorder.OP_REMOVE_ALL, 0, 0);
+        if (recorder != null) recorder.record(FCEventRecorder.EVENT_EVICTED, -1, getChildCount());
+        if (springRunning) settleSpring();
         currentContainer = null;
+        for (int i = 0; i < getChildCount(); i++) lifecycle.onDetached(getChildAt(i));
         removeAllViews();
     }
 
     @Override
     public void clear() {
+        if (sessionRecorder != null) sessionRecorder.record(scheduler.now(), SessionRecorder.OP_CLEAR, 0, 0);
+        if (recorder != null) recorder.record(FCEventRecorder.EVENT_EVICTED, -1, fc.cCount());
+        if (springRunning) settleSpring();
         currentContainer = null;
+        prefetcher.cancel();
+        if (warmStart != null) warmStart.dropPlaceholder();
+        if (snapshots != null) snapshots.releaseAll();
+        if (overview != null) overview.evictAll();
+        List<FrameLayout> containers = fc.getListContainers();
+        for (int i = 0; i < containers.size(); i++) lifecycle.onEvicted(containers.get(i));
+        for (int i = 0; i < getChildCount(); i++) lifecycle.onEvicted(getChildAt(i));
         removeAllViews();
         fc.rmAll();
+        if (binder != null) binder.reset();
+        pageStates.clear();
+        lazyContainers.clear();
+        restoredStates = null;
+    }
+
+    @Override
+    public MemoryStats getMemoryStats() {
+        return fc.collectMemoryStats();
     }
 
     @Override
     public void fillFromSavedContainers() {
+        if (isAdapterSet("fillFromSavedContainers")) return;
+        if (sessionRecorder != null) sessionRecorder.record(scheduler.now(), SessionRecorder.OP_FILL_FROM_SAVED, 0, 0);
         for (FrameLayout c : fc.getListContainers()) {
             c.setVisibility(INVISIBLE);
             addView(c);
+            lifecycle.onAttached(c);
         }
     }
 
@@ -271,10 +383,16 @@ public class FrameController extends FrameLayout implements Controller {
 
     @Override
     public void setSwitchAnimation(int AnimationType, boolean enableScaleModifier) {
+        if (sessionRecorder != null) sessionRecorder.record(scheduler.now(), SessionRecorder.OP_SET_ANIMATION, AnimationType, enableScaleModifier ? 1 : 0);
         fc.config.setSwitchAnimation(AnimationType);
         fc.config.setScaleMod(enableScaleModifier);
     }
 
+    @Override
+    public int registerTransitionSpec(TransitionSpec spec) {
+        return transitions.register(spec);
+    }
+
     @Override
     public int getSwitchAnimationType() {
         return fc.config.getSwitchAnimation();
@@ -287,6 +405,7 @@ public class FrameController extends FrameLayout implements Controller {
 
     @Override
     public void setAnimationSpeed(int speed) {
+        if (sessionRecorder != null) sessionRecorder.record(scheduler.now(), SessionRecorder.OP_SET_SPEED, speed, 0);
         fc.config.setAnimationSpeed(speed);
     }
 
@@ -327,568 +446,1644 @@ public class FrameController extends FrameLayout implements Controller {
         this.switchListener = listener;
     }
 
-    /*public interface OnContainerEventListener {
-        public void onEnter(FrameLayout container);
-        public void onOpened(FrameLayout container);
-        public void onOut(FrameLayout container);
+    public interface OnContainerEventListener {
+        /**
+         * Triggered when lifecycle state of container changes
+         *
+         * @param container container which state changed
+         * @param state new state, one of FrameController.CONTAINER_...
+         */
+        void onContainerStateChanged(FrameLayout container, int state);
     }
 
-    public void setContainerEventListener(OnContainerEventListener listener) {
-        this.eventListener = listener;
-    }*/
-
-    //==================================== Working with navigation =================================
-
-    private FrameLayout cContainer = null;
-    private int targetPosition = -1;
-    private int nextPosition = -1;
-    private int action = 0;
-    private boolean isBlocked = false;
-    private boolean isSetGone;
-    private boolean isScaleMod = false;
-    private Handler animator = new Handler();
-
     @Override
-    public boolean goTo(@IntRange(from = 0) int position) {
-        return goTo(position, false, false, false);
+    public void setContainerEventListener(@Nullable final OnContainerEventListener listener) {
+        if (listener == null) {
+            lifecycle.setListener(null);
+            return;
+        }
+        lifecycle.setListener(new FCLifecycle.OnStateListener() {
+            @Override
+            public void onStateChanged(FrameLayout container, int state) {
+                listener.onContainerStateChanged(container, state);
+            }
+        });
     }
 
     @Override
-    public boolean goTo(FrameLayout container) {
-        return goTo(indexOfChild(container), false, false, false);
+    public int getContainerState(FrameLayout container) {
+        return lifecycle.getState(container);
     }
 
     @Override
-    public boolean goToContainerWithTag(Object tag) {return goTo(getContainerWithTag(tag));}
-
-    @Override
-    public boolean goFastTo(int position) {
-        return goTo(position, true, false, false);
+    @Nullable
+    public LifecycleOwner getContainerLifecycleOwner(FrameLayout container) {
+        return lifecycle.getOwner(container);
     }
 
-    @Override
-    public boolean goFastTo(FrameLayout container) {
-        return goTo(indexOfChild(container), true, false, false);
+    /**
+     * Every show and hide of container goes through here, so its lifecycle state follows what is on screen
+     */
+    private void setContainerVisibility(View container, int visibility) {
+        container.setVisibility(visibility);
+        lifecycle.onVisibilityChanged(container, visibility == VISIBLE);
+        if (snapshots != null && visibility != VISIBLE) snapshots.release(container);
     }
 
-    @Override
-    public boolean goFastToContainerWithTag(Object tag) {return goFastTo(getContainerWithTag(tag));}
-
-    @Override
-    public boolean goToFirst(boolean goFast) { return goTo(0, goFast, false, false); }
+    private void dispatchSwitchStarted() {
+        prefetcher.cancel();
+        if (frameMonitor != null) frameMonitor.start();
+        if (recorder != null) {
+            recorder.onSwitchStarted();
+            recorder.record(FCEventRecorder.EVENT_START, getCurrentPosition(), navigator.getTargetPosition());
+        }
 
-    @Override
-    public boolean goToLast(boolean goFast) { return goTo(getChildCount()-1, goFast, false, false); }
+        if (switchListener != null)
+            switchListener.onSwitchStarted(currentContainer, getCurrentPosition());
+    }
 
-    @Override
-    public boolean goToNext() { return goTo(getCurrentPosition()+1, false, false, false);}
+    private void dispatchTargetReached() {
+        if (manifest != null && currentContainer != null) {
+            Object layoutID = currentContainer.getTag(R.id.fc_layout_id);
+            manifest.onShown((layoutID instanceof Integer) ? (Integer) layoutID : 0, currentContainer.getTag(), scheduler.now());
+        }
+        // Spring settled by a new request reports its own target, so position is taken from current container
+        if (recorder != null) recorder.record(FCEventRecorder.EVENT_TARGET_REACHED, getCurrentPosition(), 0);
 
-    @Override
-    public boolean goToPrevious() {return goTo(getCurrentPosition()-1, false, false, false);}
+        if (switchListener != null)
+            switchListener.onTargetReached(currentContainer, getCurrentPosition());
+    }
 
-    @Override
-    public boolean goOut(boolean goFast, boolean setVisibilityGone) {
-        if (!isOut()) {
-            return goTo(-1, goFast, true, setVisibilityGone);
-        }
-        else {
-            return false;
+    private void dispatchAnimationEnds() {
+        if (frameMonitor != null && frameMonitor.isRunning()) {
+            frameMonitor.stop();
+            if (quality != null) quality.onSwitchEnded(frameMonitor.getLastFrames(), frameMonitor.getLastDroppedFrames());
         }
+        if (snapshots != null) snapshots.releaseAll();
+        updatePrediction();
+        // Neighbours of current page and predicted pages stay bound for prefetch
+        if (binder != null) binder.recycleFarFrom(getCurrentPosition(), prefetcher.getDistance(), predictedPositions, predictedCount);
+        prefetcher.start(scheduler, getCurrentPosition(), predictedPositions, predictedCount);
+        if (recorder != null) recorder.record(FCEventRecorder.EVENT_END, getCurrentPosition(), isOut() ? 1 : 0);
+        if (debugOverlay != null) invalidate();
+
+        if (switchListener != null) switchListener.onAnimationEnds(isOut());
     }
 
-    private boolean goTo(int position, boolean isFast, boolean isOut, boolean isSetGone) {
-        if (isBlocked) return false;
+    //====================================== Working with debug ====================================
 
-        if (!isOut && (position >= getChildCount() || position < 0)) {
-            return false;
-        }
+    private FCFrameMonitor frameMonitor = null;
+    private FCDebugOverlay debugOverlay = null;
+    private FCEventRecorder recorder = null;
+    private long jankThresholdMillis = 0;
+    private File jankFile = null;
+    private SessionRecorder sessionRecorder = null;
 
-        int cPosition;
+    @Override
+    public void setDebugOverlayEnabled(boolean enabled) {
+        if (enabled == isDebugOverlayEnabled()) return;
 
-        if (currentContainer == null) {
-            cPosition = -1;
+        if (enabled) {
+            debugOverlay = new FCDebugOverlay(context, obtainFrameMonitor());
         }
         else {
-            cPosition = indexOfChild(currentContainer);
+            debugOverlay = null;
+            releaseFrameMonitor();
         }
+        invalidate();
+    }
 
-        if (cPosition == position) {
-            return false;
-        }
-
-        setVisibility(VISIBLE);
-        this.isSetGone = isSetGone;
-
-        targetPosition = position;
-        cContainer = currentContainer;
+    @Override
+    public boolean isDebugOverlayEnabled() {
+        return (debugOverlay != null);
+    }
 
-        switch (fc.config.getSwitchAnimation()) {
-            case ANIMATION_NONE:
-            case ANIMATION_FADE: {
-                isFast = true;
-                break;
+    @Override
+    public void setEventRecorderEnabled(boolean enabled, int capacity) {
+        if (enabled) {
+            capacity = Math.max(capacity, 1);
+            if (recorder == null || recorder.getCapacity() != capacity) {
+                recorder = new FCEventRecorder(capacity);
+                recorder.setJankThreshold(jankThresholdMillis, jankFile);
             }
         }
-
-        animator.removeCallbacksAndMessages(null);
-
-        if (cPosition < position) {
-            if (isFast) prepareNext(targetPosition);
-            else prepareNext(cPosition+1);
-        }
         else {
-            if (isFast) preparePrev(targetPosition);
-            else preparePrev(cPosition-1);
+            recorder = null;
         }
+        updateJankListener();
+    }
 
-        startAnimation();
-        return true;
+    @Override
+    public boolean dumpEvents(File file, boolean binary) {
+        return (recorder != null && recorder.dump(file, binary));
     }
 
-    private void prepareNext(int position) {
-        nextPosition = position;
-        action = 0;
+    @Override
+    public void setJankDumpThreshold(long thresholdMillis, @Nullable File file) {
+        // Kept for recorders enabled later
+        jankThresholdMillis = thresholdMillis;
+        jankFile = file;
+        if (recorder == null) return;
+        recorder.setJankThreshold(thresholdMillis, file);
+        updateJankListener();
     }
 
-    private void preparePrev(int position) {
-        nextPosition = position;
-        action = 1;
+    @Override
+    public void setSessionRecorder(@Nullable SessionRecorder recorder) {
+        this.sessionRecorder = recorder;
     }
 
-    private void startAnimation() {
+    private void updateJankListener() {
+        if (recorder != null && recorder.getJankThresholdNanos() > 0) {
+            final FCEventRecorder jankRecorder = recorder;
+            obtainFrameMonitor().setOnLongFrameListener(recorder.getJankThresholdNanos(), new FCFrameMonitor.OnLongFrameListener() {
+                @Override
+                public void onLongFrame(long intervalNanos) {
+                    jankRecorder.onLongFrame(intervalNanos);
+                }
+            });
+        }
+        else if (frameMonitor != null) {
+            frameMonitor.setOnLongFrameListener(0, null);
+            releaseFrameMonitor();
+        }
+    }
 
-        if (switchListener != null)
-        switchListener.onSwitchStarted(currentContainer, indexOfChild(currentContainer));
+    private FCFrameMonitor obtainFrameMonitor() {
+        if (frameMonitor == null) frameMonitor = new FCFrameMonitor(context);
+        return frameMonitor;
+    }
 
-        currentContainer = (FrameLayout)getChildAt(targetPosition);
-        animus.setInterpolator(Animus.Interpolators.FASTOUT_SLOWIN);
+    private void releaseFrameMonitor() {
+        if (frameMonitor == null) return;
+        if (debugOverlay == null && quality == null && (recorder == null || recorder.getJankThresholdNanos() == 0)) {
+            frameMonitor.stop();
+            frameMonitor = null;
+        }
+    }
 
-        setSpeed();
-        isScaleMod = fc.config.isScaleMod();
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        // Overview covers all containers
+        if (overview != null && overview.isShown()) {
+            if (overview.draw(canvas, getWidth(), getHeight())) postInvalidateOnAnimation();
+        } else {
+            super.dispatchDraw(canvas);
+        }
 
-        switch (fc.config.getSwitchAnimation()) {
-            case ANIMATION_NONE: {
-                animator.post(none);
-                break;
-            }
-            case ANIMATION_FADE: {
-                animus.setInterpolator(Animus.Interpolators.LINEAR);
-                animator.post(fade);
-                break;
-            }
-            case ANIMATION_SCALE: {
-                animator.post(scale);
-                break;
-            }
-            case ANIMATION_SWIPE: {
-                animus.setInterpolator(Animus.Interpolators.LINEAR);
-                animator.post(swipe);
-                break;
-            }
-            case ANIMATION_MOVE_RIGHT:
-            case ANIMATION_MOVE_BOTTOM:
-            case ANIMATION_MOVE_LEFT:
-            case ANIMATION_MOVE_TOP: {
-                moveAnim = fc.config.getSwitchAnimation();
-                animator.post(move);
-                break;
-            }
-            case ANIMATION_SCROLL_VERTICAL:
-            case ANIMATION_SCROLL_HORIZONTAL: {
-                animus.setInterpolator(Animus.Interpolators.LINEAR);
-                animator.post(scroll);
-                break;
-            }
+        if (warmStart != null && warmStart.hasPlaceholder()) {
+            if (warmStart.draw(canvas, getWidth(), getHeight(), isCurrentContainerLaidOut(), scheduler.now())) postInvalidateOnAnimation();
         }
+
+        if (debugOverlay != null)
+            debugOverlay.draw(canvas, getCurrentPosition(), fc.cInflatedCount(), getChildCount(), fc.cCount() - fc.cAttachedCount());
     }
 
-    private void setSpeed() {
-        switch (fc.config.getSwitchAnimation()) {
-            case ANIMATION_FADE:
-            case ANIMATION_SCALE: {
-                if (getAnimationSpeed() == SPEED_FAST) {duration=350; delay = 140;}
-                if (getAnimationSpeed() == SPEED_NORMAL) {duration=600; delay = 240;}
-                if (getAnimationSpeed() == SPEED_SLOW) {duration=1000; delay = 400;}
-                break;
-            }
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        attached = true;
+        if (quality != null) quality.register();
+        if (warmStart != null) context.getApplicationContext().registerComponentCallbacks(trimCallbacks);
+    }
 
-            case ANIMATION_SWIPE:
-            case ANIMATION_SCROLL_VERTICAL:
-            case ANIMATION_SCROLL_HORIZONTAL: {
-                if (getAnimationSpeed() == SPEED_FAST) {duration=200; delay = 200;}
-                if (getAnimationSpeed() == SPEED_NORMAL) {duration=400; delay = 400;}
-                if (getAnimationSpeed() == SPEED_SLOW) {duration=600; delay = 600;}
-                break;
-            }
-            case ANIMATION_MOVE_RIGHT:
-            case ANIMATION_MOVE_BOTTOM:
-            case ANIMATION_MOVE_LEFT:
-            case ANIMATION_MOVE_TOP: {
-                if (getAnimationSpeed() == SPEED_FAST) {duration=350; delay = 140;}
-                if (getAnimationSpeed() == SPEED_NORMAL) {duration=500; delay = 200;}
-                if (getAnimationSpeed() == SPEED_SLOW) {duration=800; delay = 300;}
-                break;
-            }
+    @Override
+    protected void onDetachedFromWindow() {
+        attached = false;
+        if (frameMonitor != null) frameMonitor.stop();
+        if (quality != null) quality.unregister();
+        if (manifest != null) manifest.write();
+        if (warmStart != null) context.getApplicationContext().unregisterComponentCallbacks(trimCallbacks);
+        if (snapshots != null) {
+            snapshots.releaseAll();
+            snapshots.trim();
         }
+        if (overview != null) overview.trim();
+        super.onDetachedFromWindow();
+        if (retainKey != null) retainContainers();
     }
 
-    //====================================== Animations ============================================
+    //=================================== Inflation manifest =======================================
 
-    private boolean out = false;
-    private int duration = 0;
-    private int delay = 0;
+    private FCInflationManifest manifest = null;
 
-    private Runnable none = new Runnable() {
-        @Override
-        public void run() {
-            if (cContainer!=null)
-                cContainer.setVisibility(GONE);
+    @Override
+    public void setInflationManifest(@Nullable String name, long recordMillis) {
+        if (manifest != null) manifest.write();
+        if (name == null) {
+            manifest = null;
+            return;
+        }
 
-            if (currentContainer != null)
-                currentContainer.setVisibility(VISIBLE);
+        manifest = new FCInflationManifest(new File(context.getFilesDir(), "framecontroller_" + name + ".manifest"), recordMillis, scheduler.now());
+        manifest.preinflate(fc.getContext(), this, scheduler);
+    }
 
-            if (switchListener !=null) {
-                switchListener.onTargetReached(currentContainer, targetPosition);
-                switchListener.onAnimationEnds(isOut());
-            }
+    @Override
+    public float getInflationSavedMillis() {
+        return (manifest != null) ? manifest.getSavedNanos() / 1000000.0f : 0;
+    }
 
-            if (isSetGone)
-                setVisibility(GONE);
-        }
-    };
+    //========================================== Overview ==========================================
 
-    private Runnable fade = new Runnable() {
-        @Override
-        public void run() {
+    private FCOverview overview = null;
+    private int thumbnailCacheBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 16, Integer.MAX_VALUE);
 
-            final View next = currentContainer;
-            final View prev = cContainer;
-            AnimationSet fade = new AnimationSet(false);
+    @Override
+    public void showOverview(@IntRange(from = 1) int columns) {
+        if (overview == null) overview = new FCOverview(context, overviewHost, thumbnailCacheBytes);
+        if (springRunning) settleSpring();
+        prefetcher.cancel();
+
+        // Current container is the one which could change since overview was shown last time
+        overview.invalidate(overviewHost.keyOf(getCurrentPosition()));
+        overview.show(columns);
+        invalidate();
+    }
 
-            Animation.AnimationListener listener = new Animation.AnimationListener() {
-                @Override
-                public void onAnimationStart(Animation animation) {}
+    @Override
+    public void hideOverview() {
+        if (overview == null || !overview.isShown()) return;
+        overview.hide();
+        invalidate();
+    }
 
-                @Override
-                public void onAnimationEnd(Animation animation) {
-                    if (prev!=null) prev.setVisibility(GONE);
-                    if (isSetGone) setVisibility(GONE);
-                    if (switchListener != null) switchListener.onAnimationEnds(isOut());
-                }
+    @Override
+    public boolean isOverviewShown() {
+        return (overview != null && overview.isShown());
+    }
 
-                @Override
-                public void onAnimationRepeat(Animation animation) {}
-            };
+    @Override
+    public void invalidateThumbnail(int position) {
+        if (overview == null || position < 0 || position >= getContainersCount()) return;
+        overview.invalidate(overviewHost.keyOf(position));
+        if (overview.isShown()) invalidate();
+    }
 
-            if (action == 0) {
-                if (next != null) {
-                    if (isScaleMod) fade.addAnimation(animus.scaleFrom0To1(duration, false));
-                    fade.addAnimation(animus.show(duration, false));
-                    fade.setAnimationListener(listener);
+    @Override
+    public void setThumbnailCacheSize(@IntRange(from = 1) int maxBytes) {
+        thumbnailCacheBytes = maxBytes;
+        if (overview != null) overview.setMaxBytes(maxBytes);
+    }
 
-                    next.setVisibility(VISIBLE);
-                    next.startAnimation(fade);
-                }
-            }
-            else {
-                if (prev != null) {
-                    if (isScaleMod) fade.addAnimation(animus.scaleFrom1To0(duration, false));
-                    fade.addAnimation(animus.hide(duration, false));
-                    fade.setAnimationListener(listener);
+    private FCOverview.Host overviewHost = new FCOverview.Host() {
+        @Override
+        public int getCount() {
+            return getContainersCount();
+        }
 
-                    if (next != null) next.setVisibility(VISIBLE);
-                    prev.startAnimation(fade);
-                }
-            }
+        @Override
+        public int getCurrentPosition() {
+            return FrameController.this.getCurrentPosition();
+        }
 
-            if (switchListener != null)
-                switchListener.onTargetReached(currentContainer, targetPosition);
+        @Override
+        public Object keyOf(int position) {
+            // Pages of adapter are recycled, so their thumbnails are kept by position
+            if (position < 0) return null;
+            return (binder == null) ? getChildAt(position) : (Object) position;
         }
-    };
 
-    private Runnable scale = new Runnable() {
         @Override
-        public void run() {
-            isBlocked = true;
+        public View obtainContainer(int position) {
+            View container = containerAt(position);
+            if (container != null) layoutContainer(container);
+            return container;
+        }
 
-            Animation anim;
-            final View next = getChildAt(nextPosition);
-            final View prev = cContainer;
+        @Override
+        public void releaseContainer(View container) {
+            if (binder == null) return;
+            int position = positionOf(container);
+            if (Math.abs(position - FrameController.this.getCurrentPosition()) > prefetcher.getDistance()) binder.recycle(container);
+        }
 
-            if (action == 0) {
-                if (nextPosition != targetPosition) { nextPosition++; out = false; }
-                else out = true;
+        @Override
+        public void onPicked(int position) {
+            hideOverview();
+            if (position != FrameController.this.getCurrentPosition()) goTo(position);
+        }
+    };
 
-                if (next != null) {
-                    anim = animus.scaleFrom0To1(duration, false);
-                    if (out) anim.setAnimationListener(getAnimationListener(next, prev, true));
-                    else anim.setAnimationListener(getAnimationListener(next, prev, false));
+    //====================================== Instance state ========================================
 
-                    next.startAnimation(anim);
-                }
-            }
-            else {
-                if (nextPosition != targetPosition) { nextPosition--; out = false; }
-                else out = true;
+    public interface ContainerFactory {
+        /**
+         * Triggered when container restored from saved state is needed
+         * and it was not made from a layout
+         *
+         * @param container empty container to fill
+         * @param position position of container
+         * @param tag restored tag of container
+         * @return content of container or null to leave it empty
+         */
+        @Nullable
+        View onCreateView(FrameLayout container, int position, @Nullable Object tag);
+    }
 
-                if (prev != null) {
-                    anim = animus.scaleFrom1To0(duration, false);
-                    if (out) anim.setAnimationListener(getAnimationListener(next, prev, true));
-                    else anim.setAnimationListener(getAnimationListener(next, prev, false));
+    private ContainerFactory containerFactory = null;
+    private final IdentityHashMap<View, Boolean> lazyContainers = new IdentityHashMap<>();
+    private SparseArray<Parcelable> restoredStates = null;
 
-                    prev.startAnimation(anim);
-                }
-            }
+    @Override
+    public void setContainerFactory(@Nullable ContainerFactory factory) {
+        containerFactory = factory;
+    }
 
-            if (out) {
-                if (switchListener != null)
-                    switchListener.onTargetReached(currentContainer, targetPosition);
-            }
-            else animator.postDelayed(this, delay);
+    static class SavedState extends BaseSavedState {
+        int position = -1;
+        int[] layoutIDs = new int[0];
+        Object[] tags = new Object[0];
+
+        int animation;
+        int speed;
+        boolean scaleMod;
+        int[] margins;
+        int[] paddings;
+        boolean hasBackgroundColor;
+        int backgroundColor;
+
+        SavedState(Parcelable superState) {
+            super(superState);
         }
-    };
-
-    private Runnable swipe = new Runnable() {
-        @Override
-        public void run() {
-
-            isBlocked = true;
-            View next = getChildAt(nextPosition);
-            View prev = cContainer;
 
-            AnimationSet nextAnim = new AnimationSet(false);
-            AnimationSet prevAnim = new AnimationSet(false);
+        SavedState(Parcel in, ClassLoader loader) {
+            super(in);
+            position = in.readInt();
+            layoutIDs = in.createIntArray();
+            tags = new Object[layoutIDs.length];
+            for (int i = 0; i < tags.length; i++) tags[i] = in.readValue(loader);
+
+            animation = in.readInt();
+            speed = in.readInt();
+            scaleMod = (in.readInt() != 0);
+            margins = in.createIntArray();
+            paddings = in.createIntArray();
+            hasBackgroundColor = (in.readInt() != 0);
+            backgroundColor = in.readInt();
+        }
 
-            if (action == 0) {
-                if (isScaleMod) {
-                    nextAnim.addAnimation(animus.scale(0.3f, 1.0f, 0.3f, 1.0f, 1.0f, 1.0f, duration, false));
-                    prevAnim.addAnimation(animus.scale(1.0f, 0.2f, 1.0f, 0.2f, 0.0f, 1.0f, (int)(duration*0.8), true));
-                }
-                nextAnim.addAnimation(animus.fromRightOfParent(duration, false));
-                prevAnim.addAnimation(animus.toLeftOfParent(duration, false));
-                nextAnim.addAnimation(animus.rotate(20, 0, 0.5f, 1.0f, duration, false));
-                prevAnim.addAnimation(animus.rotate(0, -20, 0.5f, 1.0f, duration, false));
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(position);
+            out.writeIntArray(layoutIDs);
+            for (int i = 0; i < tags.length; i++) out.writeValue(tags[i]);
+
+            out.writeInt(animation);
+            out.writeInt(speed);
+            out.writeInt(scaleMod ? 1 : 0);
+            out.writeIntArray(margins);
+            out.writeIntArray(paddings);
+            out.writeInt(hasBackgroundColor ? 1 : 0);
+            out.writeInt(backgroundColor);
+        }
 
-                if (nextPosition != targetPosition) { nextPosition++; out = false; }
-                else out = true;
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.ClassLoaderCreator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in, ClassLoader loader) {
+                return new SavedState(in, loader);
             }
-            else {
-                if (isScaleMod) {
-                    nextAnim.addAnimation(animus.scale(0.3f, 1.0f, 0.3f, 1.0f, 0.0f, 1.0f, duration, false));
-                    prevAnim.addAnimation(animus.scale(1.0f, 0.2f, 1.0f, 0.2f, 1.0f, 1.0f, (int)(duration*0.8), true));
-                }
-                nextAnim.addAnimation(animus.fromLeftOfParent(duration, false));
-                prevAnim.addAnimation(animus.toRightOfParent(duration, false));
-                nextAnim.addAnimation(animus.rotate(-20, 0, 0.5f, 1.0f, duration, false));
-                prevAnim.addAnimation(animus.rotate(0, 20, 0.5f, 1.0f, duration, false));
 
-                if (nextPosition != targetPosition) { nextPosition--; out = false; }
-                else out = true;
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in, null);
             }
 
-            if (isScaleMod) {
-                nextAnim.addAnimation(animus.scale(0.3f, 1.0f, 0.3f, 1.0f, 0.5f, 0.5f, duration, false));
-                prevAnim.addAnimation(animus.scale(1.0f, 0.3f, 1.0f, 0.3f, 0.5f, 0.5f, duration, false));
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
             }
+        };
+    }
 
-            if (prev != null) {
-                if (out) prevAnim.setAnimationListener(getAnimationListener(next, prev, true));
-                else prevAnim.setAnimationListener(getAnimationListener(next, prev, false));
-                prev.startAnimation(prevAnim);
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        state.position = getCurrentPosition();
+
+        // Pages of adapter are made by the app again, only containers are saved
+        if (adapter == null) {
+            int count = getChildCount();
+            state.layoutIDs = new int[count];
+            state.tags = new Object[count];
+            for (int i = 0; i < count; i++) {
+                View container = getChildAt(i);
+                Object layoutID = container.getTag(R.id.fc_layout_id);
+                state.layoutIDs[i] = (layoutID instanceof Integer) ? (Integer) layoutID : 0;
+                state.tags[i] = isSavable(container.getTag()) ? container.getTag() : null;
             }
-            else if (out) nextAnim.setAnimationListener(getAnimationListener(next, prev, true));
-                 else nextAnim.setAnimationListener(getAnimationListener(next, prev, false));
+        }
 
-            if (next != null) next.startAnimation(nextAnim);
+        FCController.Config config = fc.config;
+        state.animation = config.getSwitchAnimation();
+        state.speed = config.getAnimationSpeed();
+        state.scaleMod = config.isScaleMod();
+        state.margins = config.getMargins();
+        state.paddings = config.getPaddings();
+        state.hasBackgroundColor = config.hasBackgroundColor();
+        state.backgroundColor = config.getBackgroundColor();
+        return state;
+    }
 
-            if (out) {
-                if (switchListener != null)
-                    switchListener.onTargetReached(currentContainer, targetPosition);
-            }
-            else animator.postDelayed(this, delay);
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
         }
-    };
+        SavedState saved = (SavedState) state;
+        super.onRestoreInstanceState(saved.getSuperState());
 
-    private int moveAnim;
+        // Configuration is applied to containers added again by the app as well
+        restoreConfig(saved);
+        if (adapter == null && getChildCount() == 0 && saved.layoutIDs.length > 0) restoreContainers(saved);
+        restoreCurrent(saved.position);
+    }
 
-    private Runnable move = new Runnable() {
-        @Override
-        public void run() {
-            isBlocked = true;
+    @Override
+    protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+        super.dispatchRestoreInstanceState(container);
+        // States of views in containers which are not filled yet are restored when they are filled
+        restoredStates = lazyContainers.isEmpty() ? null : container;
+    }
 
-            AnimationSet anim = new AnimationSet(false);
-            View next = getChildAt(nextPosition);
-            View prev = cContainer;
+    private static boolean isSavable(Object tag) {
+        return (tag instanceof String || tag instanceof Integer || tag instanceof Long || tag instanceof Parcelable);
+    }
 
-            if (action == 0) {
-                if (nextPosition != targetPosition) { nextPosition++; out = false; }
-                else out = true;
-
-                if (next != null) {
-                    switch (moveAnim){
-                        case ANIMATION_MOVE_RIGHT: {
-                            anim.addAnimation(animus.fromRightOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(0.6f, 1.0f, 0.6f, 1.0f, 1.0f, 0.5f, duration, false));
-                            break; }
-                        case ANIMATION_MOVE_BOTTOM: {
-                            anim.addAnimation(animus.fromBottomOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(0.6f, 1.0f, 0.6f, 1.0f, 0.5f, 1.0f, duration, false));
-                            break; }
-                        case ANIMATION_MOVE_LEFT: {
-                            anim.addAnimation(animus.fromLeftOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(0.6f, 1.0f, 0.6f, 1.0f, 0.0f, 0.5f, duration, false));
-                            break; }
-                        case ANIMATION_MOVE_TOP: {
-                            anim.addAnimation(animus.fromTopOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(0.6f, 1.0f, 0.6f, 1.0f, 0.5f, 0.0f, duration, false));
-                            break; }
-                        default: {
-                            anim.addAnimation(animus.fromRightOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(0.6f, 1.0f, 0.6f, 1.0f, 1.0f, 0.5f, duration, false));
-                            break; }
-                    }
-                    if (out) anim.setAnimationListener(getAnimationListener(next, prev, true));
-                    else anim.setAnimationListener(getAnimationListener(next, prev, false));
-                    next.startAnimation(anim);
-                }
-            }
-            else {
-                if (nextPosition != targetPosition) { nextPosition--;out = false; }
-                else out = true;
-
-                if (prev != null) {
-                    switch (moveAnim) {
-                        case ANIMATION_MOVE_RIGHT: {
-                            anim.addAnimation(animus.toRightOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(1.0f, 0.6f, 1.0f, 0.6f, 1.0f, 0.5f, duration, false));
-                            break; }
-                        case ANIMATION_MOVE_BOTTOM: {
-                            anim.addAnimation(animus.toBottomOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(1.0f, 0.6f, 1.0f, 0.6f, 0.5f, 1.0f, duration, false));
-                            break; }
-                        case ANIMATION_MOVE_LEFT: {
-                            anim.addAnimation(animus.toLeftOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(1.0f, 0.6f, 1.0f, 0.6f, 0.0f, 0.5f, duration, false));
-                            break; }
-                        case ANIMATION_MOVE_TOP: {
-                            anim.addAnimation(animus.toTopOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(1.0f, 0.6f, 1.0f, 0.6f, 0.5f, 0.0f, duration, false));
-                            break; }
-                        default: {
-                            anim.addAnimation(animus.toRightOfParent(duration, false));
-                            if (isScaleMod) anim.addAnimation(animus.scale(1.0f, 0.6f, 1.0f, 0.6f, 1.0f, 0.5f, duration, false));
-                            break; }
-                    }
-                    if (out) anim.setAnimationListener(getAnimationListener(next, prev, true));
-                    else anim.setAnimationListener(getAnimationListener(next, prev, false));
-                    prev.startAnimation(anim);
-                }
-            }
+    private void restoreConfig(SavedState saved) {
+        FCController.Config config = fc.config;
+        config.setSwitchAnimation(saved.animation);
+        config.setAnimationSpeed(saved.speed);
+        config.setScaleMod(saved.scaleMod);
+        config.setMargins(saved.margins[0], saved.margins[1], saved.margins[2], saved.margins[3]);
+        config.setPaddings(saved.paddings[0], saved.paddings[1], saved.paddings[2], saved.paddings[3]);
+        if (saved.hasBackgroundColor) config.setBackgroundColor(saved.backgroundColor);
+    }
 
-            if (out) {
-                if (switchListener != null)
-                    switchListener.onTargetReached(currentContainer, targetPosition);
-            }
-            else animator.postDelayed(this, delay);
+    /**
+     * Make empty containers in one layout pass, they are filled when they are needed first
+     */
+    private void restoreContainers(SavedState saved) {
+        for (int i = 0; i < saved.layoutIDs.length; i++) {
+            FrameLayout container = fc.createNewContainer();
+            lifecycle.onCreated(container);
+            container.setTag(saved.tags[i]);
+            if (saved.layoutIDs[i] != 0) container.setTag(R.id.fc_layout_id, saved.layoutIDs[i]);
+            lazyContainers.put(container, Boolean.TRUE);
+            addViewInLayout(container, -1, container.getLayoutParams(), true);
+            lifecycle.onAttached(container);
         }
-    };
-
-    private Runnable scroll = new Runnable() {
-        @Override
-        public void run() {
+        requestLayout();
+    }
 
-            isBlocked = true;
-            View next = getChildAt(nextPosition);
-            View prev = cContainer;
+    /**
+     * Show container at position at once, without switch and its callbacks
+     */
+    private void restoreCurrent(int position) {
+        if (position < 0 || position >= getContainersCount() || position == getCurrentPosition()) return;
 
-            AnimationSet nextAnim = new AnimationSet(false);
-            AnimationSet prevAnim = new AnimationSet(false);
-
-            if (action == 0) {
-                if (fc.config.getSwitchAnimation() == ANIMATION_SCROLL_VERTICAL) {
-                    nextAnim.addAnimation(animus.fromBottomOfParent(duration, false));
-                    prevAnim.addAnimation(animus.toTopOfParent(duration, false));
-                    if (isScaleMod) {
-                        nextAnim.addAnimation(animus.scale(0.7f, 1.0f, 0.7f, 1.0f, 0.5f, 1.0f, duration, false));
-                        prevAnim.addAnimation(animus.scale(1.0f, 0.7f, 1.0f, 0.7f, 0.5f, 0.0f, duration, false));
-                    }
-                }
-                else {
-                    nextAnim.addAnimation(animus.fromRightOfParent(duration, false));
-                    prevAnim.addAnimation(animus.toLeftOfParent(duration, false));
-                    if (isScaleMod) {
-                        nextAnim.addAnimation(animus.scale(0.7f, 1.0f, 0.7f, 1.0f, 1.0f, 0.5f, duration, false));
-                        prevAnim.addAnimation(animus.scale(1.0f, 0.7f, 1.0f, 0.7f, 0.0f, 0.5f, duration, false));
-                    }
-                }
+        View target = containerAt(position);
+        if (target == null) return;
+        if (currentContainer != null) setContainerVisibility(currentContainer, GONE);
+        currentContainer = (FrameLayout) target;
+        cContainer = currentContainer;
+        setContainerVisibility(currentContainer, VISIBLE);
+    }
 
-                if (nextPosition != targetPosition) { nextPosition++; out = false; }
-                else out = true;
-            }
-            else {
-                if (fc.config.getSwitchAnimation() == ANIMATION_SCROLL_VERTICAL) {
-                    nextAnim.addAnimation(animus.fromTopOfParent(duration, false));
-                    prevAnim.addAnimation(animus.toBottomOfParent(duration, false));
-                    if (isScaleMod) {
-                        nextAnim.addAnimation(animus.scale(0.7f, 1.0f, 0.7f, 1.0f, 0.5f, 0.0f, duration, false));
-                        prevAnim.addAnimation(animus.scale(1.0f, 0.7f, 1.0f, 0.7f, 0.5f, 1.0f, duration, false));
-                    }
-                }
-                else {
-                    nextAnim.addAnimation(animus.fromLeftOfParent(duration, false));
-                    prevAnim.addAnimation(animus.toRightOfParent(duration, false));
-                    if (isScaleMod) {
-                        nextAnim.addAnimation(animus.scale(0.7f, 1.0f, 0.7f, 1.0f, 0.0f, 0.5f, duration, false));
-                        prevAnim.addAnimation(animus.scale(1.0f, 0.7f, 1.0f, 0.7f, 1.0f, 0.5f, duration, false));
-                    }
-                }
+    /**
+     * Fill restored container from its layout or container factory if it is not filled yet
+     */
+    private View ensureInflated(View container) {
+        if (container == null || lazyContainers.remove(container) == null) return container;
 
-                if (nextPosition != targetPosition) { nextPosition--; out = false; }
-                else out = true;
-            }
+        FrameLayout frame = (FrameLayout) container;
+        Object layoutID = frame.getTag(R.id.fc_layout_id);
+        View content = null;
+        try {
+            if (layoutID instanceof Integer) content = inflateLayout((Integer) layoutID, frame);
+            else if (containerFactory != null) content = containerFactory.onCreateView(frame, indexOfChild(frame), frame.getTag());
+        } catch (Exception e) {
+            Log.e("FrameController: ", "ensureInflated: ", e);
+        }
+        if (content != null) {
+            frame.addView(content);
+            if (restoredStates != null) content.restoreHierarchyState(restoredStates);
+        }
+        if (lazyContainers.isEmpty()) restoredStates = null;
+        return container;
+    }
 
-            if (prev != null) {
-                if (out) prevAnim.setAnimationListener(getAnimationListener(next, prev, true));
-                else prevAnim.setAnimationListener(getAnimationListener(next, prev, false));
-                prev.startAnimation(prevAnim);
-            }
-            else if (out) nextAnim.setAnimationListener(getAnimationListener(next, prev, true));
-                 else nextAnim.setAnimationListener(getAnimationListener(next, prev, false));
+    //=================================== Retained containers ======================================
 
-            if (next != null) next.startAnimation(nextAnim);
+    private String retainKey = null;
+    private MutableContextWrapper retainContext = null;
+    private LayoutInflater inflater = null;
 
-            if (out) {
-                if (switchListener != null)
-                    switchListener.onTargetReached(currentContainer, targetPosition);
-            }
-            else animator.postDelayed(this, delay);
+    @Override
+    public boolean setRetainKey(@Nullable String key) {
+        if (retainKey != null && !retainKey.equals(key)) FCRetainedStore.remove(retainKey);
+        retainKey = key;
+        if (key == null) return false;
+
+        if (retainContext == null) {
+            retainContext = new MutableContextWrapper(context);
+            fc.setContext(retainContext);
+            inflater = null;
         }
+
+        // Entry stays in the store while adapter makes containers
+        if (!FCRetainedStore.contains(key) || isAdapterSet("setRetainKey")) return false;
+        FCRetainedStore.Retained retained = FCRetainedStore.take(key);
+
+        clear();
+        retained.context.setBaseContext(context);
+        retainContext = retained.context;
+        inflater = null;
+        fc = retained.fc;
+        fc.setContext(retainContext);
+
+        // One layout pass for all containers instead of one request per container
+        for (int i = 0; i < retained.attached.size(); i++) {
+            FrameLayout container = retained.attached.get(i);
+            addViewInLayout(container, -1, container.getLayoutParams(), true);
+        }
+        List<FrameLayout> containers = fc.getListContainers();
+        for (int i = 0; i < containers.size(); i++) {
+            FrameLayout container = containers.get(i);
+            lifecycle.onCreated(container);
+            if (container.getParent() == this) lifecycle.onAttached(container);
+        }
+
+        currentContainer = (retained.current != null && retained.current.getParent() == this) ? retained.current : null;
+        cContainer = currentContainer;
+        if (currentContainer != null) setContainerVisibility(currentContainer, VISIBLE);
+        requestLayout();
+        invalidate();
+        return true;
+    }
+
+    @Override
+    @Nullable
+    public String getRetainKey() {
+        return retainKey;
+    }
+
+    /**
+     * @return inflater which makes views with context of containers
+     */
+    private LayoutInflater obtainInflater() {
+        if (inflater == null) {
+            inflater = (retainContext != null) ? LayoutInflater.from(context).cloneInContext(retainContext) : LayoutInflater.from(context);
+        }
+        return inflater;
+    }
+
+    /**
+     * Put containers to retained store if activity is recreated for new configuration, else drop retained ones
+     */
+    private void retainContainers() {
+        Activity activity = findActivity(context);
+        if (activity == null || !activity.isChangingConfigurations() || adapter != null) {
+            FCRetainedStore.remove(retainKey);
+            return;
+        }
+
+        // Containers made with context of activity would hold destroyed activity
+        List<FrameLayout> containers = fc.getListContainers();
+        for (int i = 0; i < containers.size(); i++) {
+            if (containers.get(i).getContext() != retainContext) {
+                Log.e("FrameController: ", "retainContainers: ", new IllegalStateException("Set retain key before adding containers"));
+                FCRetainedStore.remove(retainKey);
+                return;
+            }
+        }
+
+        if (springRunning) settleSpring();
+        scheduler.cancelAll();
+        prefetcher.cancel();
+
+        ArrayList<FrameLayout> attached = new ArrayList<>(getChildCount());
+        for (int i = 0; i < getChildCount(); i++) {
+            View container = getChildAt(i);
+            transitions.recycle(container);
+            container.clearAnimation();
+            attached.add((FrameLayout) container);
+        }
+        FCRetainedStore.put(retainKey, new FCRetainedStore.Retained(fc, retainContext, attached, currentContainer));
+
+        // This FrameController is left with activity, its owners of containers are destroyed
+        for (int i = 0; i < containers.size(); i++) lifecycle.onEvicted(containers.get(i));
+        removeAllViewsInLayout();
+        currentContainer = null;
+        cContainer = null;
+        fc = new FCController(context);
+    }
+
+    private static Activity findActivity(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) return (Activity) context;
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
+    //=================================== Warm start snapshot ======================================
+
+    private FCWarmStart warmStart = null;
+
+    private ComponentCallbacks2 trimCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            // App went to background, next levels come while it stays there
+            if (level == TRIM_MEMORY_UI_HIDDEN) saveWarmStartSnapshot();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {}
+
+        @Override
+        public void onLowMemory() {}
     };
 
-    private Animation.AnimationListener getAnimationListener(final View next, final View prev, final boolean unblock) {
+    @Override
+    public void setWarmStartSnapshot(@Nullable String name) {
+        if (warmStart != null && attached) context.getApplicationContext().unregisterComponentCallbacks(trimCallbacks);
+        if (name == null) {
+            warmStart = null;
+            invalidate();
+            return;
+        }
 
-        return new Animation.AnimationListener() {
+        final FCWarmStart start = new FCWarmStart(new File(context.getFilesDir(), "framecontroller_" + name + ".snapshot"));
+        warmStart = start;
+        start.load(new Runnable() {
             @Override
-            public void onAnimationStart(Animation animation) {
-                if (next != null)
-                next.setVisibility(VISIBLE);
-                cContainer = (FrameLayout)next;
+            public void run() {
+                if (warmStart != start) return;
+                // Placeholder decoded after current container is shown would only cover it
+                if (isCurrentContainerLaidOut()) start.dropPlaceholder();
+                else invalidate();
             }
+        });
+        if (attached) context.getApplicationContext().registerComponentCallbacks(trimCallbacks);
+        invalidate();
+    }
 
-            @Override
-            public void onAnimationEnd(Animation animation) {
-                if (prev != null) prev.setVisibility(GONE);
-                if (out) {
-                    if (unblock) isBlocked = false;
-                    if (isSetGone) setVisibility(GONE);
-                    if (switchListener != null) switchListener.onAnimationEnds(isOut());
+    private boolean isCurrentContainerLaidOut() {
+        return (currentContainer != null && currentContainer.getWidth() > 0 && !currentContainer.isLayoutRequested());
+    }
+
+    @Override
+    public boolean saveWarmStartSnapshot() {
+        return (warmStart != null && warmStart.save(currentContainer, getWidth(), getHeight()));
+    }
+
+    @Override
+    public boolean isWarmStartPlaceholderShown() {
+        return (warmStart != null && warmStart.hasPlaceholder());
+    }
+
+    //======================================== Prefetch ============================================
+
+    private FCPrefetcher prefetcher = new FCPrefetcher(new FCPrefetcher.Host() {
+        @Override
+        public int getCount() {
+            return getContainersCount();
+        }
+
+        @Override
+        public View obtainContainer(int position) {
+            return containerAt(position);
+        }
+
+        @Override
+        public int getPosition(View container) {
+            return positionOf(container);
+        }
+
+        @Override
+        public void measureContainer(View container) {
+            prefetchLayout(container);
+        }
+    });
+
+    @Override
+    public void setPrefetch(@IntRange(from = 0) int distance, boolean warmLayers) {
+        prefetcher.setDistance(distance, warmLayers);
+        if (distance == 0) prefetcher.cancel();
+    }
+
+    @Override
+    public int getPrefetchDistance() {
+        return prefetcher.getDistance();
+    }
+
+    /**
+     * Measure and lay out hidden container now, so showing it does not need layout in a frame
+     */
+    private void prefetchLayout(View container) {
+        if (container.getVisibility() == GONE) setContainerVisibility(container, INVISIBLE);
+        layoutContainer(container);
+    }
+
+    /**
+     * Measure and lay out container with size of FrameController, visibility of container is not changed
+     */
+    private void layoutContainer(View container) {
+        if (getWidth() == 0 || getHeight() == 0) return;
+
+        // Measured container with the same size is skipped by measure cache of view
+
+        measureChildWithMargins(container, MeasureSpec.makeMeasureSpec(getWidth(), MeasureSpec.EXACTLY), 0,
+                MeasureSpec.makeMeasureSpec(getHeight(), MeasureSpec.EXACTLY), 0);
+        MarginLayoutParams lp = (MarginLayoutParams) container.getLayoutParams();
+        int left = getPaddingLeft() + lp.leftMargin;
+        int top = getPaddingTop() + lp.topMargin;
+        container.layout(left, top, left + container.getMeasuredWidth(), top + container.getMeasuredHeight());
+    }
+
+    //=================================== Navigation prediction ====================================
+
+    private FCPredictor predictor = null;
+    private final int[] predictedPositions = new int[FCPredictor.MAX_PREDICTIONS];
+    private int predictedCount = 0;
+
+    @Override
+    public void setPredictionEnabled(boolean enabled) {
+        if (enabled == isPredictionEnabled()) return;
+        predictor = enabled ? new FCPredictor() : null;
+        predictedCount = 0;
+    }
+
+    @Override
+    public boolean isPredictionEnabled() {
+        return (predictor != null);
+    }
+
+    @Override
+    public PredictionStats getPredictionStats() {
+        return (predictor != null) ? predictor.collectStats() : new PredictionStats(0, 0, 0, 0);
+    }
+
+    /**
+     * Teach predictor the switch which ended and resolve its predictions into positions
+     */
+    private void updatePrediction() {
+        predictedCount = 0;
+        if (predictor == null) return;
+
+        predictor.onVisited(keyOf(currentContainer));
+        for (int i = 0; i < predictor.getPredictedCount(); i++) {
+            int position = positionOfKey(predictor.getPredicted(i));
+            if (position >= 0) predictedPositions[predictedCount++] = position;
+        }
+    }
+
+    /**
+     * @return tag of container or its position if it has no tag, null if out
+     */
+    private Object keyOf(View container) {
+        if (container == null) return null;
+        return (container.getTag() != null) ? container.getTag() : (Object) positionOf(container);
+    }
+
+    private int positionOfKey(Object key) {
+        View tagged = (binder == null) ? findViewWithTag(key) : null;
+        if (tagged != null && tagged.getParent() == this) return positionOf(tagged);
+        if (key instanceof Integer && (Integer) key < getContainersCount()) return (Integer) key;
+        return -1;
+    }
+
+    //======================================== Adapter =============================================
+
+    private ContainerAdapter adapter = null;
+    private FCAdapterBinder binder = null;
+
+    private DataSetObserver adapterObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            onAdapterDataChanged();
+        }
+    };
+
+    @Override
+    public void setAdapter(@Nullable ContainerAdapter adapter) {
+        if (this.adapter != null) this.adapter.unregisterDataSetObserver(adapterObserver);
+        clear();
+
+        this.adapter = adapter;
+        binder = (adapter != null) ? new FCAdapterBinder(this, fc, lifecycle, adapter, pageStates) : null;
+        if (adapter != null) adapter.registerDataSetObserver(adapterObserver);
+    }
+
+    @Override
+    @Nullable
+    public ContainerAdapter getAdapter() {
+        return adapter;
+    }
+
+    private FCStateStore pageStates = new FCStateStore();
+
+    @Override
+    public void setPageStateCacheSize(@IntRange(from = 0) int maxBytes) {
+        pageStates.setMaxBytes(maxBytes);
+    }
+
+    @Override
+    public int getPageStateCacheBytes() {
+        return pageStates.getBytes();
+    }
+
+    /**
+     * Bind shown pages again, current page out of count is replaced by the last page
+     */
+    private void onAdapterDataChanged() {
+        if (springRunning) settleSpring();
+        int position = getCurrentPosition();
+        binder.onDataSetChanged();
+        if (overview != null) overview.evictAll();
+
+        if (currentContainer != null && binder.positionOf(currentContainer) < 0) {
+            int count = adapter.getCount();
+            currentContainer = (count > 0) ? binder.obtain(Math.min(position, count - 1)) : null;
+            if (currentContainer != null) setContainerVisibility(currentContainer, VISIBLE);
+            cContainer = currentContainer;
+        }
+    }
+
+    /**
+     * @return container at position, page of adapter is bound if it is not yet
+     */
+    private View containerAt(int position) {
+        if (binder == null) return ensureInflated(getChildAt(position));
+        return (position >= 0 && position < adapter.getCount()) ? binder.obtain(position) : null;
+    }
+
+    /**
+     * @return container at position or null if page of adapter is not bound
+     */
+    private View peekContainerAt(int position) {
+        return (binder != null) ? binder.get(position) : ensureInflated(getChildAt(position));
+    }
+
+    private int positionOf(View container) {
+        return (binder != null) ? binder.positionOf(container) : indexOfChild(container);
+    }
+
+    private boolean isAdapterSet(String method) {
+        if (adapter == null) return false;
+        Log.e("FrameController: ", method + ": ", new IllegalStateException("Containers are made by ContainerAdapter"));
+        return true;
+    }
+
+    //===================================== Adaptive quality =======================================
+
+    private FCQuality quality = null;
+    private OnQualityChangeListener qualityListener = null;
+    private boolean attached = false;
+
+    public interface OnQualityChangeListener {
+        /**
+         * Triggered when adaptive quality of switching animations changes
+         *
+         * @param quality new quality, one of FrameController.QUALITY_...
+         * @param reason reason of change, one of FrameController.QUALITY_REASON_...
+         */
+        void onQualityChanged(int quality, int reason);
+    }
+
+    @Override
+    public void setAdaptiveQualityEnabled(boolean enabled) {
+        if (enabled == isAdaptiveQualityEnabled()) return;
+
+        if (enabled) {
+            obtainFrameMonitor();
+            quality = new FCQuality(context, new FCQuality.OnChangeListener() {
+                @Override
+                public void onChange(int quality, int reason) {
+                    dispatchQualityChanged(quality, reason);
                 }
+            });
+            if (attached) quality.register();
+        }
+        else {
+            int last = quality.getQuality();
+            quality.unregister();
+            quality = null;
+            releaseFrameMonitor();
+            if (last != QUALITY_FULL) dispatchQualityChanged(QUALITY_FULL, QUALITY_REASON_DISABLED);
+        }
+    }
+
+    @Override
+    public boolean isAdaptiveQualityEnabled() {
+        return (quality != null);
+    }
+
+    @Override
+    public int getQuality() {
+        return (quality != null) ? quality.getQuality() : QUALITY_FULL;
+    }
+
+    @Override
+    public void setQualityChangeListener(@Nullable OnQualityChangeListener listener) {
+        this.qualityListener = listener;
+    }
+
+    private void dispatchQualityChanged(int quality, int reason) {
+        if (recorder != null) recorder.record(FCEventRecorder.EVENT_QUALITY, quality, reason);
+        if (qualityListener != null) qualityListener.onQualityChanged(quality, reason);
+    }
+
+    /**
+     * @return animation type lowered by adaptive quality
+     */
+    private int getEffectiveAnimationType() {
+        int type = fc.config.getSwitchAnimation();
+        return (quality != null) ? quality.applyToType(type) : type;
+    }
+
+    private boolean isEffectiveScaleMod() {
+        boolean scaleMod = fc.config.isScaleMod();
+        return (quality != null) ? quality.applyToScaleModifier(scaleMod) : scaleMod;
+    }
+
+    //==================================== Working with navigation =================================
+
+    private FrameLayout cContainer = null;
+    private FCNavigator navigator = new FCNavigator();
+    private boolean isSetGone;
+    private boolean isScaleMod = false;
+    private Scheduler scheduler = new FCHandlerScheduler();
+
+    @Override
+    public boolean goTo(@IntRange(from = 0) int position) {
+        return goTo(position, false, false, false);
+    }
+
+    @Override
+    public boolean goTo(FrameLayout container) {
+        return goTo(positionOf(container), false, false, false);
+    }
+
+    @Override
+    public boolean goToContainerWithTag(Object tag) {return goTo(getContainerWithTag(tag));}
+
+    @Override
+    public boolean goFastTo(int position) {
+        return goTo(position, true, false, false);
+    }
+
+    @Override
+    public boolean goFastTo(FrameLayout container) {
+        return goTo(positionOf(container), true, false, false);
+    }
+
+    @Override
+    public boolean goFastToContainerWithTag(Object tag) {return goFastTo(getContainerWithTag(tag));}
+
+    @Override
+    public boolean goToFirst(boolean goFast) { return goTo(0, goFast, false, false); }
+
+    @Override
+    public boolean goToLast(boolean goFast) { return goTo(getContainersCount()-1, goFast, false, false); }
+
+    @Override
+    public boolean goToNext() { return goTo(getCurrentPosition()+1, false, false, false);}
+
+    @Override
+    public boolean goToPrevious() {return goTo(getCurrentPosition()-1, false, false, false);}
+
+    @Override
+    public boolean goOut(boolean goFast, boolean setVisibilityGone) {
+        if (!isOut()) {
+            return goTo(-1, goFast, true, setVisibilityGone);
+        }
+        else {
+            return false;
+        }
+    }
+
+    @Override
+    public void setScheduler(@Nullable Scheduler scheduler) {
+        if (springRunning) settleSpring();
+        prefetcher.cancel();
+        this.scheduler.cancelAll();
+        this.scheduler = (scheduler != null) ? scheduler : new FCHandlerScheduler();
+        if (manifest != null) manifest.scheduleEnd(this.scheduler);
+    }
+
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    private boolean goTo(int position, boolean isFast, boolean isOut, boolean isSetGone) {
+        // Recorder can be replaced by listener of switch
+        SessionRecorder session = sessionRecorder;
+        if (session == null) return requestSwitch(position, isFast, isOut, isSetGone);
+
+        int step = session.record(scheduler.now(), SessionRecorder.OP_GO_TO, position,
+                (isFast ? SessionRecorder.FLAG_FAST : 0) | (isOut ? SessionRecorder.FLAG_OUT : 0) | (isSetGone ? SessionRecorder.FLAG_SET_GONE : 0));
+        boolean started = requestSwitch(position, isFast, isOut, isSetGone);
+        session.recordResult(step, started);
+        return started;
+    }
+
+    private boolean requestSwitch(int position, boolean isFast, boolean isOut, boolean isSetGone) {
+        if (recorder != null) recorder.record(FCEventRecorder.EVENT_REQUEST, position, isFast ? 1 : 0);
+
+        int cPosition;
+
+        if (currentContainer == null) {
+            cPosition = -1;
+        }
+        else {
+            cPosition = positionOf(currentContainer);
+        }
+
+        int type = getEffectiveAnimationType();
+        boolean spring = ((type == ANIMATION_SPRING || dragSettling) && cPosition >= 0 && !isOut);
+        TransitionSpec spec = transitions.getSpec(type);
+        // Pages of adapter between current and target are never bound
+        if (spring || spec == null || spec.isDirect() || adapter != null) isFast = true;
+
+        switch (navigator.request(position, cPosition, getContainersCount(), isFast, isOut)) {
+            case FCNavigator.BLOCKED: {
+                if (recorder != null) recorder.record(FCEventRecorder.EVENT_BLOCKED, position, 0);
+                return false;
             }
+            case FCNavigator.OUT_OF_BOUNDS: {
+                if (recorder != null) recorder.record(FCEventRecorder.EVENT_REJECTED, position, getContainersCount());
+                return false;
+            }
+            case FCNavigator.ALREADY_CURRENT: {
+                if (recorder != null) recorder.record(FCEventRecorder.EVENT_REJECTED, position, cPosition);
+                return false;
+            }
+        }
 
-            @Override
-            public void onAnimationRepeat(Animation animation) { }
-        };
+        if (springRunning && !spring) settleSpring();
+        springSwitch = spring;
+
+        setVisibility(VISIBLE);
+        this.isSetGone = isSetGone;
+
+        cContainer = currentContainer;
+
+        scheduler.cancelAll();
+        if (manifest != null) manifest.scheduleEnd(scheduler);
+
+        startAnimation();
+        return true;
     }
-}
 
+    private void startAnimation() {
+
+        dispatchSwitchStarted();
+
+        currentContainer = (FrameLayout)containerAt(navigator.getTargetPosition());
+
+        transitionType = getEffectiveAnimationType();
+        setSpeed();
+        isScaleMod = isEffectiveScaleMod();
+
+        if (springSwitch) startSpring();
+        else if (transitions.getSpec(transitionType) == null) startTimeline(none);
+        else startTimeline(transition);
+    }
+
+    /**
+     * Compile offsets of all hops and animation setup shared by them into timeline
+     * and play it with a single driver. Animations and listeners of a hop are still
+     * made when the hop runs, because they depend on containers attached at that time.
+     *
+     * @param hop runnable which makes one hop
+     */
+    private void startTimeline(Runnable hop) {
+        this.hop = hop;
+        TransitionSpec spec = transitions.getSpec(transitionType);
+        if (spec != null) {
+            boolean forward = (navigator.getAction() == FCNavigator.ACTION_NEXT);
+            hopDirect = spec.isDirect();
+            hopInterpolator = transitions.getInterpolator(transitionType);
+            hopIncoming = transitions.getCurves(transitionType, forward, isScaleMod, true);
+            hopOutgoing = transitions.getCurves(transitionType, forward, isScaleMod, false);
+        }
+        timeline.compile(navigator.hopsLeft(), delay, duration);
+        timelineStart = scheduler.now();
+        scheduler.post(driver);
+    }
+
+    @Override
+    public long getSwitchDuration() {
+        return timeline.getTotalDuration();
+    }
+
+    @Override
+    public long getRemainingSwitchDuration() {
+        return timeline.getRemainingDuration(scheduler.now() - timelineStart);
+    }
+
+    private void setSpeed() {
+        TransitionSpec spec = transitions.getSpec(transitionType);
+        duration = (spec != null) ? spec.getDuration(getAnimationSpeed()) : 0;
+        delay = (spec != null) ? spec.getHopDelay(getAnimationSpeed()) : 0;
+    }
+
+    //====================================== Animations ============================================
+
+    private int duration = 0;
+    private int delay = 0;
+
+    private FCTimeline timeline = new FCTimeline();
+    private long timelineStart = 0;
+    private Runnable hop = null;
+
+    // Setup of transition hops compiled with timeline
+    private boolean hopDirect = false;
+    private Interpolator hopInterpolator = null;
+    private TransitionCurves hopIncoming = null;
+    private TransitionCurves hopOutgoing = null;
+
+    /**
+     * Makes one hop per run and posts itself at absolute time of the next hop,
+     * so late hops do not shift the rest of the timeline
+     */
+    private Runnable driver = new Runnable() {
+        @Override
+        public void run() {
+            timeline.advance();
+            hop.run();
+
+            if (timeline.hasNextHop())
+                scheduler.postDelayed(this, Math.max(timelineStart + timeline.getNextHopOffset() - scheduler.now(), 0));
+        }
+    };
+
+    private Runnable none = new Runnable() {
+        @Override
+        public void run() {
+            int position = navigator.step();
+            if (recorder != null) recorder.record(FCEventRecorder.EVENT_HOP, position, navigator.getTargetPosition());
+
+            if (cContainer!=null)
+                setContainerVisibility(cContainer, GONE);
+
+            if (currentContainer != null)
+                setContainerVisibility(currentContainer, VISIBLE);
+
+            dispatchTargetReached();
+            dispatchAnimationEnds();
+
+            if (isSetGone)
+                setVisibility(GONE);
+        }
+    };
+
+    private int transitionType;
+
+    private Runnable transition = new Runnable() {
+        @Override
+        public void run() {
+            if (!hopDirect) navigator.block();
+            int position = navigator.step();
+            boolean out = navigator.isLastHop();
+            if (recorder != null) recorder.record(FCEventRecorder.EVENT_HOP, position, navigator.getTargetPosition());
+
+            View next = containerAt(position);
+            View prev = cContainer;
+            Animation nextAnim = (next != null && !hopIncoming.isEmpty()) ? obtainHopAnimation(next, hopIncoming) : null;
+            Animation prevAnim = (prev != null && !hopOutgoing.isEmpty()) ? obtainHopAnimation(prev, hopOutgoing) : null;
+
+            Animation.AnimationListener listener = hopDirect ? directListener : hopListener;
+            Animation listened = (prevAnim != null) ? prevAnim : nextAnim;
+            if (listened != null) {
+                ((FCSpecAnimation) listened).setHop(next, prev, out);
+                listened.setAnimationListener(listener);
+            }
+
+            if (hopDirect && next != null) setContainerVisibility(next, VISIBLE);
+            if (snapshots != null) {
+                if (prevAnim != null) snapshots.capture(prev);
+                if (nextAnim != null) snapshots.capture(next);
+            }
+            if (prevAnim != null) scheduler.startAnimation(prev, prevAnim);
+            if (nextAnim != null) scheduler.startAnimation(next, nextAnim);
+
+            if (listened == null) {
+                // Nothing to animate, finish hop at once
+                if (hopDirect) onDirectHopEnd(prev);
+                else {
+                    onHopStart(next);
+                    onHopEnd(prev, out);
+                }
+            }
+
+            if (out) dispatchTargetReached();
+        }
+    };
+
+    /**
+     * Animation of previous hop is replaced on the container now, so it goes back to pool first
+     * and the container usually gets it again
+     */
+    private Animation obtainHopAnimation(View container, TransitionCurves curves) {
+        transitions.recycle(container);
+        return transitions.obtainAnimation(curves, hopInterpolator, duration);
+    }
+
+    /**
+     * Listeners are shared by all hops, containers of a hop are kept by its animation,
+     * because animations of earlier hops may still run when the next hop starts
+     */
+    private final Animation.AnimationListener directListener = new Animation.AnimationListener() {
+        @Override
+        public void onAnimationStart(Animation animation) {}
+
+        @Override
+        public void onAnimationEnd(Animation animation) {
+            onDirectHopEnd(((FCSpecAnimation) animation).getHopPrev());
+        }
+
+        @Override
+        public void onAnimationRepeat(Animation animation) {}
+    };
+
+    private final Animation.AnimationListener hopListener = new Animation.AnimationListener() {
+        @Override
+        public void onAnimationStart(Animation animation) {
+            onHopStart(((FCSpecAnimation) animation).getHopNext());
+        }
+
+        @Override
+        public void onAnimationEnd(Animation animation) {
+            FCSpecAnimation hop = (FCSpecAnimation) animation;
+            onHopEnd(hop.getHopPrev(), hop.isHopLast());
+        }
+
+        @Override
+        public void onAnimationRepeat(Animation animation) { }
+    };
+
+    private void onDirectHopEnd(View prev) {
+        if (prev != null) setContainerVisibility(prev, GONE);
+        if (isSetGone) setVisibility(GONE);
+        dispatchAnimationEnds();
+    }
+
+    private void onHopStart(View next) {
+        if (next != null)
+        setContainerVisibility(next, VISIBLE);
+        cContainer = (FrameLayout)next;
+    }
+
+    private void onHopEnd(View prev, boolean unblock) {
+        if (prev != null) setContainerVisibility(prev, GONE);
+        if (navigator.isLastHop()) {
+            if (unblock) navigator.unblock();
+            if (isSetGone) setVisibility(GONE);
+            dispatchAnimationEnds();
+        }
+    }
+
+    //==================================== Snapshot transitions ====================================
+
+    private FCSnapshots snapshots = null;
+
+    @Override
+    public void setSnapshotTransitionsEnabled(boolean enabled) {
+        if (enabled == (snapshots != null)) return;
+
+        if (enabled) {
+            snapshots = new FCSnapshots();
+        } else {
+            snapshots.releaseAll();
+            snapshots.trim();
+            snapshots = null;
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean isSnapshotTransitionsEnabled() {
+        return (snapshots != null);
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (snapshots != null && snapshots.has(child) && snapshots.draw(canvas, child, drawingTime, this)) return false;
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    //====================================== Spring switching ======================================
+
+    private final static float[] SPRING_STIFFNESS = {150.0f, 300.0f, 600.0f};
+    private final static float SPRING_ALPHA = 0.5f;
+    private final static float SPRING_SCALE = 0.2f;
+
+    private FCSpring spring = new FCSpring();
+    private boolean springSwitch = false;
+    private boolean springRunning = false;
+    private boolean springStarted = false;
+    private long springFrameTime = 0;
+    private int springLow = -1;
+    private int springHigh = -1;
+
+    /**
+     * Start spring switch or retarget running one.
+     * Running spring keeps its position and velocity, so the switch turns to new target without a jump.
+     */
+    private void startSpring() {
+        int target = navigator.step();
+        if (recorder != null) recorder.record(FCEventRecorder.EVENT_HOP, target, navigator.getTargetPosition());
+
+        if (!springRunning) {
+            int from = positionOf(cContainer);
+            spring.snapTo(from);
+            springLow = from;
+            springHigh = from;
+            springRunning = true;
+        }
+        springStarted = true;
+        runSpring(target);
+    }
+
+    private void runSpring(int target) {
+        spring.setStiffness(SPRING_STIFFNESS[Math.max(Math.min(getAnimationSpeed(), SPEED_FAST), SPEED_SLOW)]);
+        spring.setTarget(target);
+
+        springFrameTime = scheduler.now();
+        timeline.compile(1, 0, spring.estimateRestMillis(FCSpring.ESTIMATE_FRAME_MILLIS));
+        timelineStart = springFrameTime;
+        scheduler.postFrame(springFrame);
+    }
+
+    private Runnable springFrame = new Runnable() {
+        @Override
+        public void run() {
+            if (!springRunning || dragging) return;
+
+            long now = scheduler.now();
+            boolean moving = spring.step(now - springFrameTime);
+            springFrameTime = now;
+
+            if (moving) {
+                layoutSpring(spring.getPosition());
+                scheduler.postFrame(this);
+            }
+            else {
+                settleSpring();
+            }
+        }
+    };
+
+    /**
+     * Place containers around spring position, only two nearest containers are visible.
+     * While dragging containers are only hidden, not gone, so moves do not request layout.
+     */
+    private void layoutSpring(float position) {
+        int low = Math.max((int) Math.floor(position), 0);
+        int high = Math.min((int) Math.ceil(position), getContainersCount() - 1);
+
+        for (int i = springLow; i <= springHigh; i++) {
+            if (i < low || i > high) hideSpringContainer(peekContainerAt(i), dragging ? INVISIBLE : GONE);
+        }
+
+        boolean vertical = (dragOrientation == DRAG_VERTICAL);
+        int size = vertical ? getHeight() : getWidth();
+
+        for (int i = low; i <= high; i++) {
+            View container = containerAt(i);
+            float offset = i - position;
+            float distance = Math.abs(offset);
+            float scale = isScaleMod ? 1.0f - distance * SPRING_SCALE : 1.0f;
+
+            setContainerVisibility(container, (distance < 1.0f) ? VISIBLE : INVISIBLE);
+            if (vertical) container.setTranslationY(offset * size);
+            else container.setTranslationX(offset * size);
+            container.setScaleX(scale);
+            container.setScaleY(scale);
+            container.setAlpha(1.0f - distance * SPRING_ALPHA);
+        }
+
+        springLow = low;
+        springHigh = high;
+    }
+
+    /**
+     * Finish spring switch at once, only target container stays visible
+     */
+    private void settleSpring() {
+        springRunning = false;
+        dragSettling = false;
+        if (dragging) {
+            dragging = false;
+            dragTracker.end();
+        }
+
+        for (int i = springLow; i <= springHigh; i++) {
+            View container = peekContainerAt(i);
+            if (container != currentContainer) hideSpringContainer(container, GONE);
+        }
+        resetSpringContainer(currentContainer, VISIBLE);
+        springLow = -1;
+        springHigh = -1;
+        setDragLayers(false);
+
+        cContainer = currentContainer;
+        if (springStarted) {
+            springStarted = false;
+            dispatchTargetReached();
+            dispatchAnimationEnds();
+        }
+    }
 
+    /**
+     * Hide container which left spring, container of adapter goes back to pool unless it is dragged
+     */
+    private void hideSpringContainer(View container, int visibility) {
+        resetSpringContainer(container, visibility);
+        if (binder != null && container != null && container != currentContainer && !dragging) binder.recycle(container);
+    }
+
+    private void resetSpringContainer(View container, int visibility) {
+        if (container == null) return;
+        setContainerVisibility(container, visibility);
+        container.setTranslationX(0);
+        container.setTranslationY(0);
+        container.setScaleX(1.0f);
+        container.setScaleY(1.0f);
+        container.setAlpha(1.0f);
+    }
+
+    //====================================== Drag to switch ========================================
+
+    private int dragOrientation = DRAG_NONE;
+    private FCDragTracker dragTracker = null;
+    private boolean dragging = false;
+    private boolean dragSettling = false;
+    private int dragBase = -1;
+    private int dragLow = -1;
+    private int dragHigh = -1;
+    private float dragStartPosition = 0;
+    private int layeredLow = -1;
+    private int layeredHigh = -1;
+
+    @Override
+    public void setDragOrientation(@IntRange(from = 0, to = 2) int orientation) {
+        if (dragging) settleSpring();
+        dragOrientation = orientation;
+
+        if (orientation == DRAG_NONE) {
+            if (dragTracker != null) dragTracker.end();
+            dragTracker = null;
+        }
+        else {
+            if (dragTracker == null) dragTracker = new FCDragTracker(context);
+            dragTracker.setVertical(orientation == DRAG_VERTICAL);
+        }
+    }
+
+    @Override
+    public int getDragOrientation() {
+        return dragOrientation;
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (overview != null && overview.isShown()) return true;
+        if (dragTracker == null) return super.onInterceptTouchEvent(event);
+        return handleDrag(event);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (overview != null && overview.isShown()) {
+            if (overview.onTouchEvent(event, getWidth(), getHeight())) invalidate();
+            return true;
+        }
+        if (dragTracker == null) return super.onTouchEvent(event);
+        // Take touch down which no container handled to follow the rest of gesture
+        return handleDrag(event) || (event.getActionMasked() == MotionEvent.ACTION_DOWN && dragTracker.isTracking());
+    }
+
+    /**
+     * @return True while drag is running
+     */
+    private boolean handleDrag(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                if (dragging) return true;
+                if (currentContainer == null || getContainersCount() < 2 || navigator.isBlocked()) {
+                    dragTracker.end();
+                    return false;
+                }
+                dragTracker.down(event);
+                prepareDrag();
+                return false;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                if (!dragTracker.isTracking()) return false;
+                if (dragTracker.move(event)) {
+                    if (!dragging) startDrag();
+                    layoutSpring(getDragPosition());
+                }
+                return dragging;
+            }
+            case MotionEvent.ACTION_POINTER_UP: {
+                if (dragTracker.isTracking()) dragTracker.pointerUp(event);
+                return dragging;
+            }
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL: {
+                boolean wasDragging = dragging;
+                if (dragging) releaseDrag(event.getActionMasked() == MotionEvent.ACTION_CANCEL);
+                dragTracker.end();
+                return wasDragging;
+            }
+        }
+        return dragging;
+    }
+
+    /**
+     * Make neighbours of current container measured and ready to be shown on touch down,
+     * so drag does not need layout
+     */
+    private void prepareDrag() {
+        dragBase = springRunning ? Math.round(spring.getPosition()) : getCurrentPosition();
+        dragLow = Math.max(dragBase - 1, 0);
+        dragHigh = Math.min(dragBase + 1, getContainersCount() - 1);
+
+        for (int i = dragLow; i <= dragHigh; i++) {
+            View container = containerAt(i);
+            if (container.getVisibility() == GONE) setContainerVisibility(container, INVISIBLE);
+        }
+    }
+
+    private void startDrag() {
+        dragging = true;
+        prefetcher.cancel();
+        if (getParent() != null) getParent().requestDisallowInterceptTouchEvent(true);
+
+        if (springRunning) {
+            // Catch running spring where it is
+            dragStartPosition = spring.getPosition();
+        }
+        else {
+            isScaleMod = isEffectiveScaleMod();
+            dragStartPosition = dragBase;
+            springLow = dragBase;
+            springHigh = dragBase;
+        }
+        setDragLayers(true);
+    }
+
+    private float getDragPosition() {
+        int size = (dragOrientation == DRAG_VERTICAL) ? getHeight() : getWidth();
+        float position = dragStartPosition - ((size > 0) ? dragTracker.getDistance() / size : 0);
+        return Math.max(Math.min(position, dragHigh), dragLow);
+    }
+
+    /**
+     * Commit or cancel drag and let the spring settle containers from finger position and velocity
+     */
+    private void releaseDrag(boolean cancel) {
+        int size = (dragOrientation == DRAG_VERTICAL) ? getHeight() : getWidth();
+        float velocity = cancel ? 0 : dragTracker.getVelocity();
+        float position = getDragPosition();
+
+        int target;
+        if (!cancel && dragTracker.isFling(velocity)) target = (velocity < 0) ? (int) Math.floor(position) + 1 : (int) Math.ceil(position) - 1;
+        else target = Math.round(position);
+        target = Math.max(Math.min(target, dragHigh), dragLow);
+
+        spring.snapTo(position);
+        spring.setVelocity((size > 0) ? -velocity / size : 0);
+        springRunning = true;
+        dragging = false;
+        dragSettling = true;
+
+        if (target != getCurrentPosition() && goTo(target, false, false, false)) return;
+
+        // Back to current container, only a switch caught while running reports its end
+        runSpring(getCurrentPosition());
+    }
+
+    private void setDragLayers(boolean enabled) {
+        if (enabled) {
+            layeredLow = dragLow;
+            layeredHigh = dragHigh;
+        }
+        for (int i = layeredLow; i <= layeredHigh && i >= 0; i++) {
+            View container = peekContainerAt(i);
+            if (container != null) container.setLayerType(enabled ? LAYER_TYPE_HARDWARE : LAYER_TYPE_NONE, null);
+        }
+        if (!enabled) {
+            layeredLow = -1;
+            layeredHigh = -1;
+        }
+    }
+}
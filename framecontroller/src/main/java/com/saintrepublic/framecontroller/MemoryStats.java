@@ -0,0 +1,131 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+public final class MemoryStats {
+
+    /*
+     * Snapshot of memory footprint of FrameController containers.
+     *
+     * Containers are listed in order of container collection,
+     * so it also includes containers that were removed from FrameController
+     * by removeAllContainers() but still held to be restored.
+     *
+     * Sizes are estimated: every view counts as VIEW_ESTIMATED_BYTES
+     * plus bitmaps of its background and of ImageView drawables.
+     * Bitmaps shared between views are counted once.
+     */
+
+    /**
+     * Estimated size of a single view object without its bitmaps
+     */
+    public final static int VIEW_ESTIMATED_BYTES = 512;
+
+    private final int containersCount;
+    private final int inflatedCount;
+    private final int attachedCount;
+    private final int[] viewCounts;
+    private final long[] estimatedBytes;
+    private final long totalEstimatedBytes;
+
+    MemoryStats(int inflatedCount, int attachedCount, int[] viewCounts, long[] estimatedBytes, long totalEstimatedBytes) {
+        this.containersCount = viewCounts.length;
+        this.inflatedCount = inflatedCount;
+        this.attachedCount = attachedCount;
+        this.viewCounts = viewCounts;
+        this.estimatedBytes = estimatedBytes;
+        this.totalEstimatedBytes = totalEstimatedBytes;
+    }
+
+    /**
+     * @return count of containers in container collection
+     */
+    public int getContainersCount() {
+        return containersCount;
+    }
+
+    /**
+     * @return count of containers which have views inside
+     */
+    public int getInflatedCount() {
+        return inflatedCount;
+    }
+
+    /**
+     * @return count of containers attached to FrameController
+     */
+    public int getAttachedCount() {
+        return attachedCount;
+    }
+
+    /**
+     * @return count of containers removed from FrameController but still held in container collection
+     */
+    public int getDetachedHeldCount() {
+        return containersCount - attachedCount;
+    }
+
+    /**
+     * Return count of views in container including container itself
+     *
+     * @param index index of container in container collection
+     * @return count of views
+     */
+    public int getViewCount(int index) {
+        return viewCounts[index];
+    }
+
+    /**
+     * Return count of views in all containers
+     *
+     * @return total count of views
+     */
+    public int getTotalViewCount() {
+        int count = 0;
+        for (int viewCount : viewCounts) count += viewCount;
+        return count;
+    }
+
+    /**
+     * Return estimated retained size of container with its views, backgrounds and bitmaps
+     *
+     * @param index index of container in container collection
+     * @return estimated size in bytes
+     */
+    public long getEstimatedBytes(int index) {
+        return estimatedBytes[index];
+    }
+
+    /**
+     * Return estimated retained size of all containers
+     *
+     * @return estimated size in bytes
+     */
+    public long getTotalEstimatedBytes() {
+        return totalEstimatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryStats{containers=" + containersCount
+                + ", inflated=" + inflatedCount
+                + ", attached=" + attachedCount
+                + ", detachedHeld=" + getDetachedHeldCount()
+                + ", views=" + getTotalViewCount()
+                + ", estimatedBytes=" + totalEstimatedBytes + "}";
+    }
+}
@@ -0,0 +1,85 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+public final class PredictionStats {
+
+    /*
+     * Snapshot of navigation prediction metrics.
+     *
+     * A switch is predicted when the model had successors of the container it started from,
+     * it is a hit when its target was one of them.
+     */
+
+    private final int switchesCount;
+    private final int predictedCount;
+    private final int hitsCount;
+    private final int statesCount;
+
+    PredictionStats(int switchesCount, int predictedCount, int hitsCount, int statesCount) {
+        this.switchesCount = switchesCount;
+        this.predictedCount = predictedCount;
+        this.hitsCount = hitsCount;
+        this.statesCount = statesCount;
+    }
+
+    /**
+     * @return count of switches learned by the model
+     */
+    public int getSwitchesCount() {
+        return switchesCount;
+    }
+
+    /**
+     * @return count of switches which had a prediction
+     */
+    public int getPredictedCount() {
+        return predictedCount;
+    }
+
+    /**
+     * @return count of switches which went to a predicted container
+     */
+    public int getHitsCount() {
+        return hitsCount;
+    }
+
+    /**
+     * Return share of predicted switches which went to a predicted container
+     *
+     * @return hit rate from 0 to 1, 0 if nothing was predicted yet
+     */
+    public float getHitRate() {
+        return (predictedCount > 0) ? (float) hitsCount / predictedCount : 0.0f;
+    }
+
+    /**
+     * @return count of containers which successors are kept by the model
+     */
+    public int getStatesCount() {
+        return statesCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PredictionStats{switches=" + switchesCount
+                + ", predicted=" + predictedCount
+                + ", hits=" + hitsCount
+                + ", hitRate=" + getHitRate()
+                + ", states=" + statesCount + "}";
+    }
+}
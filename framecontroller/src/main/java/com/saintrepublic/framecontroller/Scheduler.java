@@ -0,0 +1,80 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.view.View;
+import android.view.animation.Animation;
+
+public interface Scheduler {
+
+    /*
+     * Source of time for FrameController switching.
+     *
+     * FrameController posts every hop of a switch and starts every container animation
+     * through its scheduler. Default scheduler uses main thread Handler and view animations,
+     * VirtualScheduler runs them on virtual time for tests and headless tools.
+     */
+
+    /**
+     * @return current time of scheduler in milliseconds
+     */
+    long now();
+
+    /**
+     * Run task as soon as possible after already posted tasks
+     *
+     * @param task task to run
+     */
+    void post(Runnable task);
+
+    /**
+     * Run task after delay
+     *
+     * @param task task to run
+     * @param delayMillis delay in milliseconds
+     */
+    void postDelayed(Runnable task, long delayMillis);
+
+    /**
+     * Run task once at the start of the next frame
+     *
+     * @param task task to run
+     */
+    void postFrame(Runnable task);
+
+    /**
+     * Run task once when there is nothing else to do,
+     * post it again from the task to continue on the next idle time
+     *
+     * @param task task to run
+     */
+    void postIdle(Runnable task);
+
+    /**
+     * Remove all posted tasks, frame tasks and idle tasks which are not run yet.
+     * Started animations are not affected.
+     */
+    void cancelAll();
+
+    /**
+     * Start animation of view from the next frame
+     *
+     * @param view animated view
+     * @param animation animation with listener already set
+     */
+    void startAnimation(View view, Animation animation);
+}
@@ -0,0 +1,183 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public final class SessionRecorder {
+
+    /*
+     * Records calls of FrameController API to replay them later with SessionReplayer.
+     *
+     * Every call is stored as time in milliseconds from the first call,
+     * operation code, two int arguments and result of the call. Navigation calls are stored with
+     * already resolved target position, so goToNext(), goToContainerWithTag() etc.
+     * are replayed as goTo() of the same position. Containers are stored with
+     * their layout ids, containers added from views are stored with id 0.
+     *
+     * Calls are written into preallocated arrays, so recording does not allocate.
+     * When recorder is full next calls are counted as dropped.
+     */
+
+    public final static byte OP_GO_TO = 1;
+    public final static byte OP_ADD_CONTAINER = 2;
+    public final static byte OP_REMOVE_CONTAINER = 3;
+    public final static byte OP_REMOVE_ALL = 4;
+    public final static byte OP_CLEAR = 5;
+    public final static byte OP_FILL_FROM_SAVED = 6;
+    public final static byte OP_SET_ANIMATION = 7;
+    public final static byte OP_SET_SPEED = 8;
+
+    /**
+     * Flags of OP_GO_TO second argument
+     */
+    public final static int FLAG_FAST = 1;
+    public final static int FLAG_OUT = 2;
+    public final static int FLAG_SET_GONE = 4;
+
+    static final String[] OP_NAMES = {
+            "?", "GO_TO", "ADD_CONTAINER", "REMOVE_CONTAINER", "REMOVE_ALL", "CLEAR", "FILL_FROM_SAVED", "SET_ANIMATION", "SET_SPEED"
+    };
+
+    static final int MAGIC = 0x46435353; // "FCSS"
+    static final int VERSION = 2;
+
+    private final int capacity;
+    private final int[] times;
+    private final byte[] ops;
+    private final int[] args1;
+    private final int[] args2;
+    private final boolean[] results;
+    private int size = 0;
+    private int dropped = 0;
+    private long startMillis = -1;
+    private int suspended = 0;
+
+    /**
+     * @param capacity maximal count of recorded calls
+     */
+    public SessionRecorder(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        times = new int[this.capacity];
+        ops = new byte[this.capacity];
+        args1 = new int[this.capacity];
+        args2 = new int[this.capacity];
+        results = new boolean[this.capacity];
+    }
+
+    //========================================= Recording ==========================================
+
+    /**
+     * @return index of recorded call for recordResult() or -1 if call was not recorded
+     */
+    int record(long nowMillis, byte op, int arg1, int arg2) {
+        if (suspended > 0) return -1;
+        if (size == capacity) {
+            dropped++;
+            return -1;
+        }
+
+        if (startMillis < 0) startMillis = nowMillis;
+        times[size] = (int)(nowMillis - startMillis);
+        ops[size] = op;
+        args1[size] = arg1;
+        args2[size] = arg2;
+        results[size] = true;
+        return size++;
+    }
+
+    /**
+     * Store result of navigation call, other calls are stored as successful
+     *
+     * @param index index returned by record()
+     */
+    void recordResult(int index, boolean result) {
+        if (index >= 0 && index < size) results[index] = result;
+    }
+
+    /**
+     * Stop recording of calls made by FrameController itself
+     */
+    void suspend() {
+        suspended++;
+    }
+
+    void resume() {
+        suspended--;
+    }
+
+    /**
+     * Remove all recorded calls
+     */
+    public void reset() {
+        size = 0;
+        dropped = 0;
+        startMillis = -1;
+    }
+
+    /**
+     * @return count of recorded calls
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return count of calls which were not recorded because recorder was full
+     */
+    public int getDroppedCount() {
+        return dropped;
+    }
+
+    //========================================== Output ============================================
+
+    /**
+     * Write recorded session in compact binary format readable by SessionReplayer
+     *
+     * Format is header (magic "FCSS", version, count)
+     * followed by records of int time in milliseconds, byte operation, int arg1, int arg2, boolean result.
+     *
+     * @param out stream to write, it is not closed
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            data.writeInt(times[i]);
+            data.writeByte(ops[i]);
+            data.writeInt(args1[i]);
+            data.writeInt(args2[i]);
+            data.writeBoolean(results[i]);
+        }
+        data.flush();
+    }
+
+    /**
+     * @return new replayer of recorded session
+     */
+    public SessionReplayer toReplayer() {
+        return new SessionReplayer(Arrays.copyOf(times, size), Arrays.copyOf(ops, size),
+                Arrays.copyOf(args1, size), Arrays.copyOf(args2, size), Arrays.copyOf(results, size));
+    }
+}
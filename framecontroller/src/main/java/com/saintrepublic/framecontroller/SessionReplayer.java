@@ -0,0 +1,361 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.view.View;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public final class SessionReplayer {
+
+    /*
+     * Replays session recorded by SessionRecorder against FrameController
+     * and measures every step.
+     *
+     * Pauses between calls are replayed on virtual time of VirtualScheduler,
+     * so hops and animation frames run between steps as in recorded session.
+     * When no scheduler is given, a VirtualScheduler is set to FrameController for the time of replay.
+     * Steps whose result differs from recorded one, e.g. navigation blocked by a switch
+     * which was already finished in recorded session, are reported as divergences.
+     *
+     * Replaying FrameController should be empty and have the same layouts as recording application.
+     * Containers recorded from views are replayed as empty views.
+     */
+
+    private final int[] times;
+    private final byte[] ops;
+    private final int[] args1;
+    private final int[] args2;
+    private final boolean[] results;
+
+    SessionReplayer(int[] times, byte[] ops, int[] args1, int[] args2, boolean[] results) {
+        this.times = times;
+        this.ops = ops;
+        this.args1 = args1;
+        this.args2 = args2;
+        this.results = results;
+    }
+
+    /**
+     * Read session written by SessionRecorder.writeTo()
+     *
+     * @param in stream to read, it is not closed
+     * @return new replayer
+     * @throws IOException if reading fails or stream is not a session
+     */
+    public static SessionReplayer readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != SessionRecorder.MAGIC) throw new IOException("Not a FrameController session");
+        if (data.readInt() != SessionRecorder.VERSION) throw new IOException("Unsupported session version");
+
+        int count = data.readInt();
+        int[] times = new int[count];
+        byte[] ops = new byte[count];
+        int[] args1 = new int[count];
+        int[] args2 = new int[count];
+        boolean[] results = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = data.readInt();
+            ops[i] = data.readByte();
+            args1[i] = data.readInt();
+            args2[i] = data.readInt();
+            results[i] = data.readBoolean();
+        }
+        return new SessionReplayer(times, ops, args1, args2, results);
+    }
+
+    /**
+     * @return count of recorded calls
+     */
+    public int size() {
+        return ops.length;
+    }
+
+    //========================================== Replay ============================================
+
+    /**
+     * Replay session on current thread
+     *
+     * @param controller FrameController to replay session with
+     * @param scheduler scheduler set to controller or null to replay on a new VirtualScheduler
+     * @return report with latency, allocations and divergences of every step
+     */
+    public Report replay(FrameController controller, @Nullable VirtualScheduler scheduler) {
+        return replay(controller, scheduler, new FCAllocCounter());
+    }
+
+    Report replay(FrameController controller, @Nullable VirtualScheduler scheduler, FCAllocCounter counter) {
+        Scheduler previous = null;
+        if (scheduler == null) {
+            previous = controller.getScheduler();
+            scheduler = new VirtualScheduler();
+            controller.setScheduler(scheduler);
+        }
+
+        int count = ops.length;
+        long[] latencies = new long[count];
+        long[] allocations = new long[count];
+        boolean[] replayed = new boolean[count];
+
+        counter.start();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) scheduler.advanceBy(times[i] - times[i - 1]);
+
+            long bytes = counter.allocatedBytes();
+            long nanos = System.nanoTime();
+            replayed[i] = perform(controller, ops[i], args1[i], args2[i]);
+            latencies[i] = System.nanoTime() - nanos;
+            allocations[i] = (bytes < 0) ? -1 : counter.allocatedBytes() - bytes;
+        }
+        counter.stop();
+
+        scheduler.runUntilIdle();
+        if (previous != null) controller.setScheduler(previous);
+        return new Report(ops, latencies, allocations, replayed, results);
+    }
+
+    private static boolean perform(FrameController controller, byte op, int arg1, int arg2) {
+        try {
+            switch (op) {
+                case SessionRecorder.OP_GO_TO: {
+                    boolean isFast = (arg2 & SessionRecorder.FLAG_FAST) != 0;
+                    if ((arg2 & SessionRecorder.FLAG_OUT) != 0)
+                        return controller.goOut(isFast, (arg2 & SessionRecorder.FLAG_SET_GONE) != 0);
+                    return isFast ? controller.goFastTo(arg1) : controller.goTo(arg1);
+                }
+                case SessionRecorder.OP_ADD_CONTAINER: {
+                    if (arg1 != 0) controller.addLayoutToNewContainer(arg1, arg2, null);
+                    else controller.addViewToNewContainer(new View(controller.getContext()), arg2, null);
+                    return true;
+                }
+                case SessionRecorder.OP_REMOVE_CONTAINER: {
+                    controller.removeContainerAtPosition(arg1);
+                    return true;
+                }
+                case SessionRecorder.OP_REMOVE_ALL: {
+                    controller.removeAllContainers();
+                    return true;
+                }
+                case SessionRecorder.OP_CLEAR: {
+                    controller.clear();
+                    return true;
+                }
+                case SessionRecorder.OP_FILL_FROM_SAVED: {
+                    controller.fillFromSavedContainers();
+                    return true;
+                }
+                case SessionRecorder.OP_SET_ANIMATION: {
+                    controller.setSwitchAnimation(arg1, arg2 != 0);
+                    return true;
+                }
+                case SessionRecorder.OP_SET_SPEED: {
+                    controller.setAnimationSpeed(arg1);
+                    return true;
+                }
+                default: return false;
+            }
+        } catch (Exception e) {
+            Log.e("FrameController: ", "replay: ", e);
+            return false;
+        }
+    }
+
+    //========================================== Report ============================================
+
+    public static final class Report {
+
+        /*
+         * Latency, allocations and result of every replayed step with result of recorded call.
+         * Allocations are -1 when allocation counting is not supported
+         * and include a few bytes of counting itself.
+         * Reports of the same session replayed with different library versions
+         * can be saved and compared with diff().
+         */
+
+        private static final int MAGIC = 0x46435250; // "FCRP"
+        private static final int VERSION = 2;
+
+        private final byte[] ops;
+        private final long[] latencies;
+        private final long[] allocations;
+        private final boolean[] results;
+        private final boolean[] recorded;
+
+        Report(byte[] ops, long[] latencies, long[] allocations, boolean[] results, boolean[] recorded) {
+            this.ops = ops;
+            this.latencies = latencies;
+            this.allocations = allocations;
+            this.results = results;
+            this.recorded = recorded;
+        }
+
+        public static Report readFrom(InputStream in) throws IOException {
+            DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+            if (data.readInt() != MAGIC) throw new IOException("Not a FrameController replay report");
+            if (data.readInt() != VERSION) throw new IOException("Unsupported report version");
+
+            int count = data.readInt();
+            byte[] ops = new byte[count];
+            long[] latencies = new long[count];
+            long[] allocations = new long[count];
+            boolean[] results = new boolean[count];
+            boolean[] recorded = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                ops[i] = data.readByte();
+                latencies[i] = data.readLong();
+                allocations[i] = data.readLong();
+                results[i] = data.readBoolean();
+                recorded[i] = data.readBoolean();
+            }
+            return new Report(ops, latencies, allocations, results, recorded);
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(ops.length);
+            for (int i = 0; i < ops.length; i++) {
+                data.writeByte(ops[i]);
+                data.writeLong(latencies[i]);
+                data.writeLong(allocations[i]);
+                data.writeBoolean(results[i]);
+                data.writeBoolean(recorded[i]);
+            }
+            data.flush();
+        }
+
+        public int size() {
+            return ops.length;
+        }
+
+        /**
+         * @param step index of replayed call
+         * @return operation code of SessionRecorder
+         */
+        public byte getOp(int step) {
+            return ops[step];
+        }
+
+        public long getLatencyNanos(int step) {
+            return latencies[step];
+        }
+
+        public long getAllocatedBytes(int step) {
+            return allocations[step];
+        }
+
+        /**
+         * @param step index of replayed call
+         * @return result of navigation call, True for other calls which did not fail
+         */
+        public boolean getResult(int step) {
+            return results[step];
+        }
+
+        /**
+         * @param step index of replayed call
+         * @return True if result of replayed call differs from recorded one
+         */
+        public boolean isDiverged(int step) {
+            return results[step] != recorded[step];
+        }
+
+        /**
+         * @return count of steps whose result differs from recorded one,
+         * latency and allocations of such steps measure different work
+         */
+        public int getDivergenceCount() {
+            int count = 0;
+            for (int i = 0; i < results.length; i++) if (isDiverged(i)) count++;
+            return count;
+        }
+
+        public long getTotalLatencyNanos() {
+            long total = 0;
+            for (long latency : latencies) total += latency;
+            return total;
+        }
+
+        public long getTotalAllocatedBytes() {
+            long total = 0;
+            for (long bytes : allocations) {
+                if (bytes < 0) return -1;
+                total += bytes;
+            }
+            return total;
+        }
+
+        /**
+         * Compare this report with a baseline report of the same session
+         *
+         * @param baseline report of previous run
+         * @return text table of mean latency and allocations per operation, one operation per line
+         */
+        public String diff(Report baseline) {
+            StringBuilder text = new StringBuilder();
+            if (baseline.size() != size())
+                text.append("Reports have different count of steps: ").append(baseline.size())
+                        .append(" -> ").append(size()).append('\n');
+            if (baseline.getDivergenceCount() != 0 || getDivergenceCount() != 0)
+                text.append("Steps diverged from recording: ").append(baseline.getDivergenceCount())
+                        .append(" -> ").append(getDivergenceCount()).append('\n');
+
+            int steps = Math.min(baseline.size(), size());
+            for (int op = 1; op < SessionRecorder.OP_NAMES.length; op++) {
+                int count = 0;
+                long baseLatency = 0, latency = 0, baseBytes = 0, bytes = 0;
+                for (int i = 0; i < steps; i++) {
+                    if (ops[i] != op) continue;
+                    count++;
+                    baseLatency += baseline.latencies[i];
+                    latency += latencies[i];
+                    baseBytes += baseline.allocations[i];
+                    bytes += allocations[i];
+                }
+                if (count == 0) continue;
+
+                text.append(String.format(Locale.US, "%-16s steps %5d  latency %10.2f us -> %10.2f us (%+.1f%%)  alloc %8d B -> %8d B (%+.1f%%)%n",
+                        SessionRecorder.OP_NAMES[op], count,
+                        baseLatency / 1000.0 / count, latency / 1000.0 / count, change(baseLatency, latency),
+                        baseBytes / count, bytes / count, change(baseBytes, bytes)));
+            }
+            return text.toString();
+        }
+
+        private static double change(long base, long value) {
+            return (base == 0) ? 0 : (value - base) * 100.0 / base;
+        }
+
+        @Override
+        public String toString() {
+            return "Report{steps=" + ops.length
+                    + ", divergences=" + getDivergenceCount()
+                    + ", latencyNanos=" + getTotalLatencyNanos()
+                    + ", allocatedBytes=" + getTotalAllocatedBytes() + "}";
+        }
+    }
+}
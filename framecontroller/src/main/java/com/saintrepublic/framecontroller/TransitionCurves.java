@@ -0,0 +1,182 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.graphics.Matrix;
+import android.view.animation.Interpolator;
+import android.view.animation.Transformation;
+
+import java.util.Arrays;
+
+public final class TransitionCurves {
+
+    /*
+     * Property tracks of a container declared by TransitionSpec.
+     *
+     * Tracks are applied in order of declaration, as animations of AnimationSet.
+     * Every track runs from the start of hop animation to its end fraction
+     * and keeps its last value after it.
+     *
+     * Tracks are stored in plain arrays and evaluated without allocations.
+     */
+
+    private static final int TRANSLATE = 0;
+    private static final int SCALE = 1;
+    private static final int ROTATE = 2;
+    private static final int ALPHA = 3;
+
+    private int count = 0;
+    private int[] types = new int[4];
+    private float[] values = new float[4 * 6];
+    private float[] ends = new float[4];
+
+    TransitionCurves() {}
+
+    //======================================== Declaration =========================================
+
+    /**
+     * Move container
+     *
+     * @param fromX starting horizontal offset in parent widths
+     * @param toX ending horizontal offset in parent widths
+     * @param fromY starting vertical offset in parent heights
+     * @param toY ending vertical offset in parent heights
+     * @return this curves
+     */
+    public TransitionCurves translate(float fromX, float toX, float fromY, float toY) {
+        return add(TRANSLATE, fromX, toX, fromY, toY, 0, 0);
+    }
+
+    /**
+     * Scale container
+     *
+     * @param fromX starting horizontal scale
+     * @param toX ending horizontal scale
+     * @param fromY starting vertical scale
+     * @param toY ending vertical scale
+     * @param pivotX horizontal pivot in container widths
+     * @param pivotY vertical pivot in container heights
+     * @return this curves
+     */
+    public TransitionCurves scale(float fromX, float toX, float fromY, float toY, float pivotX, float pivotY) {
+        return add(SCALE, fromX, toX, fromY, toY, pivotX, pivotY);
+    }
+
+    /**
+     * Rotate container
+     *
+     * @param fromDegrees starting angle
+     * @param toDegrees ending angle
+     * @param pivotX horizontal pivot in container widths
+     * @param pivotY vertical pivot in container heights
+     * @return this curves
+     */
+    public TransitionCurves rotate(float fromDegrees, float toDegrees, float pivotX, float pivotY) {
+        return add(ROTATE, fromDegrees, toDegrees, 0, 0, pivotX, pivotY);
+    }
+
+    /**
+     * Change opacity of container
+     *
+     * @param from starting opacity
+     * @param to ending opacity
+     * @return this curves
+     */
+    public TransitionCurves alpha(float from, float to) {
+        return add(ALPHA, from, to, 0, 0, 0, 0);
+    }
+
+    /**
+     * End the last declared track before the end of hop animation
+     *
+     * @param fraction end of track as fraction of hop animation duration
+     * @return this curves
+     */
+    public TransitionCurves until(float fraction) {
+        if (count > 0) ends[count - 1] = Math.min(Math.max(fraction, 0.01f), 1.0f);
+        return this;
+    }
+
+    /**
+     * @return True if no tracks are declared
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    private TransitionCurves add(int type, float v0, float v1, float v2, float v3, float v4, float v5) {
+        if (count == types.length) {
+            types = Arrays.copyOf(types, count * 2);
+            values = Arrays.copyOf(values, count * 2 * 6);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+
+        types[count] = type;
+        int v = count * 6;
+        values[v] = v0;
+        values[v + 1] = v1;
+        values[v + 2] = v2;
+        values[v + 3] = v3;
+        values[v + 4] = v4;
+        values[v + 5] = v5;
+        ends[count] = 1.0f;
+        count++;
+        return this;
+    }
+
+    //========================================= Evaluation =========================================
+
+    /**
+     * Write transformation of container at time of hop animation
+     *
+     * @param time fraction of hop animation duration from 0 to 1
+     */
+    void apply(float time, Interpolator interpolator, Transformation t, int width, int height, int parentWidth, int parentHeight) {
+        t.clear();
+        Matrix matrix = t.getMatrix();
+
+        for (int i = count - 1; i >= 0; i--) {
+            float f = interpolator.getInterpolation(Math.min(time / ends[i], 1.0f));
+            int v = i * 6;
+
+            switch (types[i]) {
+                case TRANSLATE: {
+                    matrix.preTranslate(lerp(values[v], values[v + 1], f) * parentWidth,
+                            lerp(values[v + 2], values[v + 3], f) * parentHeight);
+                    break;
+                }
+                case SCALE: {
+                    matrix.preScale(lerp(values[v], values[v + 1], f), lerp(values[v + 2], values[v + 3], f),
+                            values[v + 4] * width, values[v + 5] * height);
+                    break;
+                }
+                case ROTATE: {
+                    matrix.preRotate(lerp(values[v], values[v + 1], f), values[v + 4] * width, values[v + 5] * height);
+                    break;
+                }
+                case ALPHA: {
+                    t.setAlpha(t.getAlpha() * lerp(values[v], values[v + 1], f));
+                    break;
+                }
+            }
+        }
+    }
+
+    private static float lerp(float from, float to, float f) {
+        return from + (to - from) * f;
+    }
+}
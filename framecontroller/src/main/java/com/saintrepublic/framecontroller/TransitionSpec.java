@@ -0,0 +1,69 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+public interface TransitionSpec {
+
+    /*
+     * Description of a switch animation.
+     *
+     * Spec declares curves of incoming and outgoing container once
+     * when it is registered in FrameController. Declared curves are cached
+     * and evaluated on every frame without allocations.
+     *
+     * Built-in animations (FrameController.ANIMATION_*) are specs too.
+     * Register custom spec with Controller.registerTransitionSpec()
+     * and use returned type in setSwitchAnimation().
+     */
+
+    /**
+     * Declare curves of containers for a direction of switch.
+     * Called once for each combination of direction and scale modifier.
+     * Container without curves is not animated.
+     *
+     * @param incoming curves of container which becomes visible
+     * @param outgoing curves of container which becomes invisible
+     * @param forward true if switch goes to greater position
+     * @param scaleModifier true if scale modifier is enabled
+     */
+    void declare(TransitionCurves incoming, TransitionCurves outgoing, boolean forward, boolean scaleModifier);
+
+    /**
+     * @param speed FrameController.SPEED_*
+     * @return duration of animation of a hop in milliseconds
+     */
+    int getDuration(int speed);
+
+    /**
+     * @param speed FrameController.SPEED_*
+     * @return delay between hops of multi-hop switch in milliseconds
+     */
+    int getHopDelay(int speed);
+
+    /**
+     * @return interpolator of curves, use Animus.Interpolators.{INTERPOLATOR}
+     */
+    int getInterpolator();
+
+    /**
+     * Direct transition goes straight to target container in a single hop,
+     * shows target container at once and does not block next switches
+     *
+     * @return true if transition is direct else false
+     */
+    boolean isDirect();
+}
@@ -0,0 +1,245 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.Animation;
+import android.view.animation.Transformation;
+
+import java.util.ArrayList;
+
+public class VirtualScheduler implements Scheduler {
+
+    /*
+     * Scheduler with virtual time for tests and headless tools.
+     *
+     * Time stands still until advanceBy() or runUntilIdle() is called,
+     * so thousands of switches can be run in milliseconds.
+     * Posted tasks run in order of their time and then in order of posting,
+     * animations are stepped on every frame as views do it,
+     * so hops, blocking and listener callbacks come in the same order as on device.
+     * Idle tasks run when no task is due and no animation is running, at most once
+     * at every virtual time, so idle tasks posted by idle tasks wait for the next frame.
+     *
+     * Animations are set on views as View.startAnimation() does it, so they are pooled
+     * and seen by snapshots as on device, but views are not invalidated to draw them,
+     * so use it only with FrameController which is not shown on screen.
+     */
+
+    /**
+     * Default frame duration in milliseconds, about 60 frames per second
+     */
+    public final static long DEFAULT_FRAME_MILLIS = 16;
+
+    private final long frameMillis;
+    private long now = 0;
+    private long lastFrame = -1;
+    private long lastIdle = -1;
+
+    private final ArrayList<Task> tasks = new ArrayList<>();
+    private final ArrayList<View> views = new ArrayList<>();
+    private final ArrayList<Animation> animations = new ArrayList<>();
+    private final ArrayList<Animation> frameAnimations = new ArrayList<>();
+    private final ArrayList<Runnable> idleTasks = new ArrayList<>();
+    private final ArrayList<Runnable> runningIdleTasks = new ArrayList<>();
+    private final Transformation transformation = new Transformation();
+
+    private static class Task {
+        final long time;
+        final Runnable runnable;
+
+        Task(long time, Runnable runnable) {
+            this.time = time;
+            this.runnable = runnable;
+        }
+    }
+
+    public VirtualScheduler() {
+        this(DEFAULT_FRAME_MILLIS);
+    }
+
+    /**
+     * @param frameMillis duration of a frame in milliseconds
+     */
+    public VirtualScheduler(long frameMillis) {
+        this.frameMillis = Math.max(frameMillis, 1);
+    }
+
+    //======================================== Scheduler ===========================================
+
+    @Override
+    public long now() {
+        return now;
+    }
+
+    @Override
+    public void post(Runnable task) {
+        postDelayed(task, 0);
+    }
+
+    @Override
+    public void postDelayed(Runnable task, long delayMillis) {
+        long time = now + Math.max(delayMillis, 0);
+
+        int index = tasks.size();
+        while (index > 0 && tasks.get(index - 1).time > time) index--;
+        tasks.add(index, new Task(time, task));
+    }
+
+    @Override
+    public void postFrame(Runnable task) {
+        postDelayed(task, (now / frameMillis + 1) * frameMillis - now);
+    }
+
+    @Override
+    public void postIdle(Runnable task) {
+        idleTasks.add(task);
+    }
+
+    @Override
+    public void cancelAll() {
+        tasks.clear();
+        idleTasks.clear();
+    }
+
+    @Override
+    public void startAnimation(View view, Animation animation) {
+        int index = views.indexOf(view);
+        if (index >= 0) {
+            views.remove(index);
+            animations.remove(index);
+        }
+
+        // Same as View.startAnimation(), reused animations start from the beginning.
+        // Test environments may step animation set on a view from its start time on their own clock,
+        // so it is set far ahead first and virtual start is set after it
+        animation.setStartTime(SystemClock.uptimeMillis() + Integer.MAX_VALUE);
+        view.setAnimation(animation);
+        if (!animation.isInitialized()) {
+            ViewGroup parent = (view.getParent() instanceof ViewGroup) ? (ViewGroup) view.getParent() : null;
+            animation.initialize(view.getWidth(), view.getHeight(),
+                    (parent != null) ? parent.getWidth() : view.getWidth(),
+                    (parent != null) ? parent.getHeight() : view.getHeight());
+        }
+        animation.setStartTime(Animation.START_ON_FIRST_FRAME);
+
+        views.add(view);
+        animations.add(animation);
+    }
+
+    //========================================= Driving ============================================
+
+    /**
+     * Move virtual time forward, running due tasks and animation frames on the way
+     *
+     * @param millis time to move forward in milliseconds
+     */
+    public void advanceBy(long millis) {
+        long target = now + Math.max(millis, 0);
+
+        long next = nextEventTime();
+        while (next <= target) {
+            now = next;
+            runTasks();
+            if (now % frameMillis == 0 && now != lastFrame) stepAnimations();
+            if (isIdleNow() && now != lastIdle) runIdleTasks();
+            next = nextEventTime();
+        }
+        now = target;
+    }
+
+    /**
+     * Move virtual time forward until there are no posted tasks and running animations.
+     * Does not return while an idle task keeps posting itself.
+     *
+     * @return elapsed virtual time in milliseconds
+     */
+    public long runUntilIdle() {
+        long start = now;
+        while (!isIdle()) advanceBy(nextEventTime() - now);
+        return now - start;
+    }
+
+    /**
+     * @return True if there are no posted tasks and running animations
+     */
+    public boolean isIdle() {
+        return tasks.isEmpty() && animations.isEmpty() && idleTasks.isEmpty();
+    }
+
+    /**
+     * @return count of posted tasks which are not run yet
+     */
+    public int getPendingTaskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * @return count of animations which are not ended yet
+     */
+    public int getRunningAnimationCount() {
+        return animations.size();
+    }
+
+    private long nextEventTime() {
+        long next = Long.MAX_VALUE;
+        if (!tasks.isEmpty()) next = tasks.get(0).time;
+        if (!animations.isEmpty()) next = Math.min(next, (now / frameMillis + 1) * frameMillis);
+        if (!idleTasks.isEmpty() && isIdleNow()) next = Math.min(next, (now != lastIdle) ? now : (now / frameMillis + 1) * frameMillis);
+        return next;
+    }
+
+    private boolean isIdleNow() {
+        return animations.isEmpty() && (tasks.isEmpty() || tasks.get(0).time > now);
+    }
+
+    private void runIdleTasks() {
+        lastIdle = now;
+        // Tasks posted while running wait for the next idle time
+        for (int i = 0; i < idleTasks.size(); i++) runningIdleTasks.add(idleTasks.get(i));
+        idleTasks.clear();
+        for (int i = 0; i < runningIdleTasks.size(); i++) runningIdleTasks.get(i).run();
+        runningIdleTasks.clear();
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty() && tasks.get(0).time <= now) {
+            tasks.remove(0).runnable.run();
+        }
+    }
+
+    private void stepAnimations() {
+        lastFrame = now;
+
+        // Listeners may start new animations, they are stepped from the next frame
+        frameAnimations.clear();
+        for (int i = 0; i < animations.size(); i++) frameAnimations.add(animations.get(i));
+        for (int i = 0; i < frameAnimations.size(); i++) {
+            frameAnimations.get(i).getTransformation(now, transformation);
+        }
+        frameAnimations.clear();
+
+        for (int i = animations.size() - 1; i >= 0; i--) {
+            if (animations.get(i).hasEnded()) {
+                views.remove(i);
+                animations.remove(i);
+            }
+        }
+    }
+}
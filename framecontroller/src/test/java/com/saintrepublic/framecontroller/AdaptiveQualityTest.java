@@ -0,0 +1,241 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.app.Activity;
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Matrix;
+import android.os.PowerManager;
+import android.provider.Settings;
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.Transformation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class AdaptiveQualityTest {
+
+    /*
+     * Decisions of adaptive quality are written as <quality>/<reason>.
+     */
+
+    private Context context;
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+    private StringBuilder decisions = new StringBuilder();
+
+    private FrameController.OnQualityChangeListener listener = new FrameController.OnQualityChangeListener() {
+        @Override
+        public void onQualityChanged(int quality, int reason) {
+            decisions.append(quality).append('/').append(reason).append(' ');
+        }
+    };
+
+    @Before
+    public void setUp() {
+        // Adaptive quality runs frame monitor, its frames come on the next frame as on device
+        ShadowChoreographer.setPostFrameCallbackDelay(16);
+
+        context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        for (int i = 0; i < 4; i++) controller.addViewToNewContainer(new View(context));
+        controller.layout(0, 0, 480, 800);
+
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        controller.setSwitchAnimation(Controller.ANIMATION_SWIPE, true);
+        controller.setQualityChangeListener(listener);
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+    }
+
+    @Test
+    public void fullQualityKeepsAnimation() {
+        controller.setAdaptiveQualityEnabled(true);
+        assertEquals(Controller.QUALITY_FULL, controller.getQuality());
+        assertEquals("", decisions.toString());
+
+        assertTrue(controller.goTo(1));
+        assertEquals(durationOf(Controller.ANIMATION_SWIPE), controller.getSwitchDuration());
+    }
+
+    @Test
+    public void animationsOffSwitchWithoutAnimation() {
+        Settings.Global.putFloat(context.getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 0.0f);
+        controller.setAdaptiveQualityEnabled(true);
+        assertEquals(Controller.QUALITY_NONE, controller.getQuality());
+        assertEquals("3/3 ", decisions.toString());
+
+        assertTrue(controller.goTo(2));
+        assertEquals(0, controller.getSwitchDuration());
+        scheduler.runUntilIdle();
+        assertEquals(2, controller.getCurrentPosition());
+
+        controller.setAdaptiveQualityEnabled(false);
+        assertEquals("3/3 0/6 ", decisions.toString());
+        assertEquals(Controller.QUALITY_FULL, controller.getQuality());
+    }
+
+    @Test
+    public void powerSaveUsesFadeAndFollowsBroadcasts() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setContentView(controller);
+
+        controller.setAdaptiveQualityEnabled(true);
+        assertEquals("", decisions.toString());
+
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        shadowOf(powerManager).setIsPowerSaveMode(true);
+        context.sendBroadcast(new Intent(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+        ShadowLooper.idleMainLooper();
+        assertEquals(Controller.QUALITY_FADE, controller.getQuality());
+
+        assertTrue(controller.goTo(1));
+        assertEquals(durationOf(Controller.ANIMATION_FADE), controller.getSwitchDuration());
+        scheduler.runUntilIdle();
+
+        shadowOf(powerManager).setIsPowerSaveMode(false);
+        context.sendBroadcast(new Intent(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+        ShadowLooper.idleMainLooper();
+        assertEquals("2/2 0/5 ", decisions.toString());
+
+        // Detached FrameController does not follow broadcasts
+        activity.setContentView(new View(activity));
+        shadowOf(powerManager).setIsPowerSaveMode(true);
+        context.sendBroadcast(new Intent(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+        ShadowLooper.idleMainLooper();
+        assertEquals(Controller.QUALITY_FULL, controller.getQuality());
+    }
+
+    @Test
+    public void lowRamDropsRotationAndScale() {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        shadowOf(activityManager).setIsLowRamDevice(true);
+        controller.setAdaptiveQualityEnabled(true);
+        assertEquals("1/1 ", decisions.toString());
+
+        assertTrue(controller.goTo(1));
+        assertEquals(durationOf(Controller.ANIMATION_SCROLL_HORIZONTAL), controller.getSwitchDuration());
+        scheduler.advanceBy(VirtualScheduler.DEFAULT_FRAME_MILLIS * 4);
+
+        // Swipe would rotate and scale containers, scroll only moves them
+        Animation animation = controller.getChildAt(1).getAnimation();
+        Transformation transformation = new Transformation();
+        animation.getTransformation(animation.getStartTime() + animation.getDuration() / 2, transformation);
+        float[] values = new float[9];
+        transformation.getMatrix().getValues(values);
+        assertEquals(1.0f, values[Matrix.MSCALE_X], 0.001f);
+        assertEquals(0.0f, values[Matrix.MSKEW_X], 0.001f);
+        assertTrue(values[Matrix.MTRANS_X] != 0);
+        scheduler.runUntilIdle();
+        assertEquals(1, controller.getCurrentPosition());
+    }
+
+    @Test
+    public void reducedQualityFadesCustomTransitions() {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        shadowOf(activityManager).setIsLowRamDevice(true);
+        controller.setAdaptiveQualityEnabled(true);
+        assertEquals(Controller.QUALITY_REDUCED, controller.getQuality());
+
+        // Custom spec may rotate and scale as swipe does
+        int type = controller.registerTransitionSpec(new FCBuiltInSpec(Controller.ANIMATION_SWIPE));
+        controller.setSwitchAnimation(type, true);
+        assertTrue(controller.goTo(1));
+        assertEquals(durationOf(Controller.ANIMATION_FADE), controller.getSwitchDuration());
+        scheduler.runUntilIdle();
+        assertEquals(1, controller.getCurrentPosition());
+        assertEquals(type, controller.getSwitchAnimationType());
+    }
+
+    @Test
+    public void jankStreaksLowerAndRecoverQuality() {
+        StringBuilder changes = new StringBuilder();
+        FCQuality quality = new FCQuality(context, recordTo(changes));
+
+        for (int i = 0; i < FCQuality.JANK_STREAK - 1; i++) quality.onSwitchEnded(20, 10);
+        // Smooth switch breaks the streak
+        quality.onSwitchEnded(20, 0);
+        for (int i = 0; i < FCQuality.JANK_STREAK - 1; i++) quality.onSwitchEnded(20, 10);
+        assertEquals(Controller.QUALITY_FULL, quality.getQuality());
+
+        quality.onSwitchEnded(20, 10);
+        assertEquals(Controller.QUALITY_REDUCED, quality.getQuality());
+        for (int i = 0; i < FCQuality.JANK_STREAK; i++) quality.onSwitchEnded(20, 10);
+        assertEquals(Controller.QUALITY_FADE, quality.getQuality());
+
+        for (int i = 0; i < FCQuality.RECOVER_STREAK; i++) quality.onSwitchEnded(20, 1);
+        assertEquals(Controller.QUALITY_REDUCED, quality.getQuality());
+
+        // Device level is the floor of quality
+        quality.setDeviceState(false, true, false);
+        for (int i = 0; i < FCQuality.RECOVER_STREAK; i++) quality.onSwitchEnded(20, 0);
+        assertEquals(Controller.QUALITY_FADE, quality.getQuality());
+        quality.setDeviceState(false, false, false);
+
+        assertEquals("1/4 2/4 1/5 2/2 0/5 ", changes.toString());
+        assertEquals(Controller.ANIMATION_SWIPE, quality.applyToType(Controller.ANIMATION_SWIPE));
+        assertTrue(quality.applyToScaleModifier(true));
+    }
+
+    @Test
+    public void instantSwitchesRecoverFromNoAnimation() {
+        StringBuilder changes = new StringBuilder();
+        FCQuality quality = new FCQuality(context, recordTo(changes));
+
+        for (int i = 0; i < 3 * FCQuality.JANK_STREAK; i++) quality.onSwitchEnded(20, 10);
+        assertEquals(Controller.QUALITY_NONE, quality.getQuality());
+        assertEquals(Controller.ANIMATION_NONE, quality.applyToType(Controller.ANIMATION_SWIPE));
+
+        // Switches without animation end before frame monitor sees a frame
+        for (int i = 0; i < FCQuality.RECOVER_STREAK; i++) quality.onSwitchEnded(0, 0);
+        assertEquals(Controller.QUALITY_FADE, quality.getQuality());
+        for (int i = 0; i < 2 * FCQuality.RECOVER_STREAK; i++) quality.onSwitchEnded(20, 0);
+        assertEquals(Controller.QUALITY_FULL, quality.getQuality());
+
+        assertEquals("1/4 2/4 3/4 2/5 1/5 0/5 ", changes.toString());
+    }
+
+    private FCQuality.OnChangeListener recordTo(final StringBuilder changes) {
+        return new FCQuality.OnChangeListener() {
+            @Override
+            public void onChange(int quality, int reason) {
+                changes.append(quality).append('/').append(reason).append(' ');
+            }
+        };
+    }
+
+    private long durationOf(int type) {
+        return new FCBuiltInSpec(type).getDuration(controller.getAnimationSpeed());
+    }
+}
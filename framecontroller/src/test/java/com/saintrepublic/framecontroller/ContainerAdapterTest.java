@@ -0,0 +1,215 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ContainerAdapterTest {
+
+    /*
+     * Adapter pages driven by VirtualScheduler.
+     * Pages are TextViews showing their position, odd pages have their own view type
+     * when the adapter is made with two view types.
+     */
+
+    private static final int PAGES = 1000000;
+
+    private Context context;
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+
+    private static class PageAdapter extends ContainerAdapter {
+        int count;
+        int viewTypes;
+        boolean stableIds = false;
+        int created = 0;
+        int bound = 0;
+        int recycled = 0;
+
+        PageAdapter(int count, int viewTypes) {
+            this.count = count;
+            this.viewTypes = viewTypes;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public int getViewType(int position) {
+            return position % viewTypes;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return stableIds ? position : NO_ID;
+        }
+
+        @Override
+        public View onCreateView(ViewGroup parent, int viewType) {
+            created++;
+            return new TextView(parent.getContext());
+        }
+
+        @Override
+        public void onBindView(View view, int position) {
+            bound++;
+            ((TextView) view).setText(String.valueOf(position));
+        }
+
+        @Override
+        public void onRecycleView(View view) {
+            recycled++;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(16);
+        context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        controller.layout(0, 0, 480, 800);
+
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        controller.setSwitchAnimation(Controller.ANIMATION_SWIPE, false);
+        // Bindings are counted without neighbours, prefetch is tested in PrefetchTest
+        controller.setPrefetch(0, false);
+    }
+
+    private void settle() {
+        scheduler.runUntilIdle();
+        controller.layout(0, 0, 480, 800);
+    }
+
+    private String shownText() {
+        return ((TextView) controller.getCurrentContainer().getChildAt(0)).getText().toString();
+    }
+
+    @Test
+    public void farSwitchCostsTheSameAsNearOne() {
+        PageAdapter adapter = new PageAdapter(PAGES, 1);
+        controller.setAdapter(adapter);
+        controller.goFastTo(0);
+        settle();
+
+        assertTrue(controller.goTo(1));
+        long near = scheduler.runUntilIdle();
+        int nearBinds = adapter.bound;
+
+        assertTrue(controller.goTo(PAGES / 2));
+        long far = scheduler.runUntilIdle();
+
+        assertEquals(near, far);
+        assertEquals(nearBinds + 1, adapter.bound);
+        assertEquals(PAGES, controller.getContainersCount());
+        assertEquals(PAGES / 2, controller.getCurrentPosition());
+        assertEquals(String.valueOf(PAGES / 2), shownText());
+        assertEquals(2, adapter.created);
+    }
+
+    @Test
+    public void containersAreRecycledByViewType() {
+        PageAdapter adapter = new PageAdapter(PAGES, 2);
+        controller.setAdapter(adapter);
+        controller.goFastTo(0);
+        settle();
+
+        for (int i = 1; i <= 50; i++) {
+            assertTrue(controller.goTo(i * 7));
+            settle();
+            assertEquals(String.valueOf(i * 7), shownText());
+            assertEquals(View.VISIBLE, controller.getCurrentContainer().getVisibility());
+        }
+
+        // One container of each type is shown or in transition at a time, the rest wait in pools
+        assertTrue(adapter.created <= 4);
+        assertTrue(controller.getChildCount() <= 2 * FCAdapterBinder.POOL_SIZE);
+        assertEquals(adapter.bound - 1, adapter.recycled);
+        assertNull(controller.getContainerAtPosition(7));
+    }
+
+    @Test
+    public void stableIdsSkipBindingOnDataChange() {
+        PageAdapter adapter = new PageAdapter(10, 1);
+        adapter.stableIds = true;
+        controller.setAdapter(adapter);
+        controller.goFastTo(8);
+        settle();
+
+        int bound = adapter.bound;
+        adapter.notifyDataSetChanged();
+        assertEquals(bound, adapter.bound);
+
+        // Current page out of new count is replaced by the last page
+        adapter.count = 5;
+        adapter.notifyDataSetChanged();
+        assertEquals(4, controller.getCurrentPosition());
+        assertEquals("4", shownText());
+        assertEquals(View.VISIBLE, controller.getCurrentContainer().getVisibility());
+    }
+
+    @Test
+    public void springLeavesOnlyTargetBound() {
+        PageAdapter adapter = new PageAdapter(PAGES, 1);
+        controller.setAdapter(adapter);
+        controller.setSwitchAnimation(Controller.ANIMATION_SPRING, false);
+        controller.goFastTo(0);
+        settle();
+
+        assertTrue(controller.goTo(3));
+        settle();
+
+        assertEquals(3, controller.getCurrentPosition());
+        assertEquals("3", shownText());
+        assertEquals(adapter.bound - 1, adapter.recycled);
+        assertTrue(controller.getChildCount() <= FCAdapterBinder.POOL_SIZE + 1);
+    }
+
+    @Test
+    public void containersCanNotBeAddedWhileAdapterIsSet() {
+        controller.addViewToNewContainer(new View(context));
+        controller.setAdapter(new PageAdapter(3, 1));
+        assertEquals(0, controller.getChildCount());
+
+        assertNull(controller.addViewToNewContainer(new View(context)));
+        assertEquals(0, controller.getChildCount());
+
+        controller.setAdapter(null);
+        assertTrue(controller.addViewToNewContainer(new View(context)) instanceof FrameLayout);
+        assertEquals(1, controller.getContainersCount());
+    }
+}
@@ -0,0 +1,156 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.arch.lifecycle.Lifecycle;
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ContainerLifecycleTest {
+
+    /*
+     * Lifecycle states of containers driven by VirtualScheduler.
+     * States are written as <index of container><state letter>:
+     * C created, A attached, V visible, H hidden and E evicted.
+     */
+
+    private static final int CONTAINERS = 4;
+    private static final String LETTERS = "CAVHE";
+
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+    private List<FrameLayout> containers = new ArrayList<>();
+    private StringBuilder states = new StringBuilder();
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        controller.setContainerEventListener(new FrameController.OnContainerEventListener() {
+            @Override
+            public void onContainerStateChanged(FrameLayout container, int state) {
+                states.append(containers.indexOf(container)).append(LETTERS.charAt(state)).append(' ');
+            }
+        });
+
+        for (int i = 0; i < CONTAINERS; i++) {
+            FrameLayout container = controller.addViewToNewContainer(new View(context));
+            containers.add(container);
+        }
+        controller.layout(0, 0, 480, 800);
+
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+    }
+
+    @Test
+    public void newContainersAreCreatedThenAttached() {
+        // Listener is called before container is returned, so its index is not known yet
+        assertEquals("-1C -1A -1C -1A -1C -1A -1C -1A ", states.toString());
+        for (int i = 0; i < CONTAINERS; i++)
+            assertEquals(Controller.CONTAINER_ATTACHED, controller.getContainerState(containers.get(i)));
+    }
+
+    @Test
+    public void switchShowsTargetAndHidesPrevious() {
+        controller.setSwitchAnimation(Controller.ANIMATION_SWIPE, false);
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+        states.setLength(0);
+
+        controller.goTo(2);
+        scheduler.runUntilIdle();
+
+        // Hops overlap, so the next hop shows its container before the first one is hidden
+        assertEquals("1V 2V 0H 1H ", states.toString());
+        assertEquals(Controller.CONTAINER_HIDDEN, controller.getContainerState(containers.get(0)));
+        assertEquals(Controller.CONTAINER_VISIBLE, controller.getContainerState(containers.get(2)));
+        assertEquals(Controller.CONTAINER_ATTACHED, controller.getContainerState(containers.get(3)));
+    }
+
+    @Test
+    public void noneAndSpringSwitchesReportTheSameStates() {
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+        states.setLength(0);
+        controller.goFastTo(1);
+        scheduler.runUntilIdle();
+        assertEquals("0H 1V ", states.toString());
+
+        controller.setSwitchAnimation(Controller.ANIMATION_SPRING, false);
+        states.setLength(0);
+        controller.goTo(0);
+        scheduler.runUntilIdle();
+        assertEquals(Controller.CONTAINER_VISIBLE, controller.getContainerState(containers.get(0)));
+        assertEquals(Controller.CONTAINER_HIDDEN, controller.getContainerState(containers.get(1)));
+        assertEquals("0V 1H ", states.toString());
+    }
+
+    @Test
+    public void removedContainersAreDetachedOrEvicted() {
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+
+        states.setLength(0);
+        controller.removeAllContainers();
+        assertEquals("0H 0C 1C 2C 3C ", states.toString());
+
+        states.setLength(0);
+        controller.fillFromSavedContainers();
+        assertEquals("0A 1A 2A 3A ", states.toString());
+
+        states.setLength(0);
+        controller.clear();
+        assertEquals("0E 1E 2E 3E ", states.toString());
+        assertEquals(Controller.CONTAINER_EVICTED, controller.getContainerState(containers.get(0)));
+    }
+
+    @Test
+    public void lifecycleOwnerFollowsContainerState() {
+        FrameLayout first = containers.get(0);
+        Lifecycle lifecycle = controller.getContainerLifecycleOwner(first).getLifecycle();
+        assertEquals(Lifecycle.State.CREATED, lifecycle.getCurrentState());
+
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+        assertEquals(Lifecycle.State.RESUMED, lifecycle.getCurrentState());
+
+        controller.goFastTo(1);
+        scheduler.runUntilIdle();
+        assertEquals(Lifecycle.State.CREATED, lifecycle.getCurrentState());
+
+        controller.removeContainerAtPosition(0);
+        assertEquals(Lifecycle.State.DESTROYED, lifecycle.getCurrentState());
+        assertNull(controller.getContainerLifecycleOwner(first));
+    }
+}
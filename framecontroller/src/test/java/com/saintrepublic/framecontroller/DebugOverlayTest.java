@@ -0,0 +1,129 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.util.ReflectionHelpers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DebugOverlayTest {
+
+    /*
+     * Frames of the frame monitor are made by hand with fixed intervals,
+     * Choreographer callbacks of Robolectric are held on the main looper which never runs.
+     * Text of the overlay is caught by a canvas which keeps drawn lines.
+     * Monitor exists only while something reads it, so disabled overlay costs a null check.
+     */
+
+    private Context context;
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+
+    private static class TextCanvas extends Canvas {
+        final StringBuilder lines = new StringBuilder();
+
+        @Override
+        public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+            lines.append(text, start, end).append('\n');
+        }
+    }
+
+    @Before
+    public void setUp() {
+        ShadowChoreographer.setPostFrameCallbackDelay(16);
+
+        context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        for (int i = 0; i < 4; i++) controller.addLayoutToNewContainer(android.R.layout.simple_list_item_1, "page " + i);
+        controller.layout(0, 0, 480, 800);
+
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        controller.setSwitchAnimation(Controller.ANIMATION_FADE, false);
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+    }
+
+    @Test
+    public void disabledOverlayHasNoMonitor() {
+        assertTrue(controller.goTo(2));
+        scheduler.runUntilIdle();
+        assertNull(frameMonitor());
+
+        controller.setDebugOverlayEnabled(true);
+        assertNotNull(frameMonitor());
+        controller.setDebugOverlayEnabled(false);
+        assertFalse(controller.isDebugOverlayEnabled());
+        assertNull(frameMonitor());
+        assertNull(ReflectionHelpers.getField(controller, "debugOverlay"));
+    }
+
+    @Test
+    public void overlayShowsDroppedFramesAndCensus() {
+        controller.setDebugOverlayEnabled(true);
+
+        assertTrue(controller.goToNext());
+        FCFrameMonitor monitor = frameMonitor();
+        assertTrue(monitor.isRunning());
+        long interval = monitor.getFrameIntervalNanos();
+        long time = 1000 * interval;
+        monitor.doFrame(time);
+        monitor.doFrame(time += interval);
+        // Two frames missed
+        monitor.doFrame(time += 3 * interval);
+        monitor.doFrame(time + interval);
+        scheduler.runUntilIdle();
+        assertFalse(monitor.isRunning());
+
+        String text = draw();
+        assertTrue(text, text.contains(", dropped 2/4\n"));
+        assertTrue(text, text.contains("position 1 "));
+        assertTrue(text, text.contains("inflated 4 attached 4 evicted 0\n"));
+
+        // Removed containers are still held by FrameController
+        controller.removeAllContainers();
+        text = draw();
+        assertTrue(text, text.contains("position -1 "));
+        assertTrue(text, text.contains("inflated 4 attached 0 evicted 4\n"));
+    }
+
+    private FCFrameMonitor frameMonitor() {
+        return ReflectionHelpers.getField(controller, "frameMonitor");
+    }
+
+    private String draw() {
+        TextCanvas canvas = new TextCanvas();
+        controller.dispatchDraw(canvas);
+        return canvas.lines.toString();
+    }
+}
@@ -0,0 +1,281 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DragSwitchTest {
+
+    /*
+     * Drag to switch driven by synthetic touch events and VirtualScheduler.
+     * Callbacks are written as in VirtualSchedulerTest: S, T<position> and E.
+     */
+
+    private static final int CONTAINERS = 4;
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+    private StringBuilder callbacks = new StringBuilder();
+    private long downTime;
+
+    // Pooled VelocityTracker keeps history between tests, so event time only grows
+    private static long eventTime = 0;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        for (int i = 0; i < CONTAINERS; i++) controller.addViewToNewContainer(new View(context));
+        layout();
+
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        controller.setDragOrientation(Controller.DRAG_HORIZONTAL);
+        controller.goFastTo(1);
+        scheduler.runUntilIdle();
+
+        controller.setSwitchListener(new FrameController.OnSwitchListener() {
+            @Override
+            public void onSwitchStarted(FrameLayout currentContainer, int currentPosition) {
+                callbacks.append("S");
+            }
+
+            @Override
+            public void onTargetReached(FrameLayout targetContainer, int targetPosition) {
+                callbacks.append("T").append(targetPosition);
+            }
+
+            @Override
+            public void onAnimationEnds(boolean isOut) {
+                callbacks.append("E");
+            }
+        });
+    }
+
+    @Test
+    public void slowDragPastHalfCommitsSwitch() {
+        drag(400, 100, 40, 50);
+        hold(100);
+        up(100);
+        scheduler.runUntilIdle();
+
+        assertEquals("ST2E", callbacks.toString());
+        assertSettledOn(2);
+    }
+
+    @Test
+    public void slowShortDragReturnsToCurrent() {
+        drag(100, 300, 20, 50);
+        assertEquals(View.VISIBLE, controller.getChildAt(0).getVisibility());
+        hold(300);
+        up(300);
+        scheduler.runUntilIdle();
+
+        assertEquals("", callbacks.toString());
+        assertSettledOn(1);
+    }
+
+    @Test
+    public void flingCommitsShortDrag() {
+        drag(100, 300, 5, 10);
+        up(300);
+        scheduler.runUntilIdle();
+
+        assertEquals("ST0E", callbacks.toString());
+        assertSettledOn(0);
+    }
+
+    @Test
+    public void containersFollowFingerWithoutLayout() {
+        down(300);
+        // Neighbours are measured on touch down
+        layout();
+        move(250);
+        move(240);
+        assertFalse(controller.isLayoutRequested());
+
+        View current = controller.getChildAt(1);
+        View next = controller.getChildAt(2);
+        for (int x = 240; x > 60; x -= 3) {
+            move(x);
+            assertFalse(controller.isLayoutRequested());
+            assertEquals(x - 250, current.getTranslationX(), 0.01f);
+            assertEquals(WIDTH, next.getTranslationX() - current.getTranslationX(), 0.01f);
+            assertEquals(View.VISIBLE, next.getVisibility());
+        }
+
+        // Drag is limited by neighbour containers
+        for (int x = 60; x > -700; x -= 40) move(x);
+        assertEquals(0.0f, next.getTranslationX(), 0.0f);
+        assertEquals(View.INVISIBLE, current.getVisibility());
+        up(-700);
+        scheduler.runUntilIdle();
+        assertSettledOn(2);
+    }
+
+    @Test
+    public void movesDoNotAllocate() {
+        int moves = 200;
+        MotionEvent[] events = new MotionEvent[moves];
+        for (int i = 0; i < moves; i++)
+            events[i] = MotionEvent.obtain(0, i * 8, MotionEvent.ACTION_MOVE, 300 - (i % 100), HEIGHT / 2, 0);
+
+        // Robolectric dispatching and shadows of native MotionEvent and VelocityTracker allocate by themselves,
+        // so they are measured on a layout which only reads touches the same way
+        final VelocityTracker tracker = VelocityTracker.obtain();
+        FrameLayout baseline = new FrameLayout(RuntimeEnvironment.application) {
+            @Override
+            public boolean onTouchEvent(MotionEvent event) {
+                int index = event.findPointerIndex(0);
+                tracker.addMovement(event);
+                return event.getX(index) + event.getY(index) > Float.NEGATIVE_INFINITY;
+            }
+        };
+        baseline.dispatchTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 320, HEIGHT / 2, 0));
+        long baselineBytes = bytesPerMove(baseline, events);
+        tracker.recycle();
+
+        down(320);
+        move(310);
+        move(300);
+        long bytes = bytesPerMove(controller, events) - baselineBytes;
+        assertTrue("move allocates " + bytes + " bytes", bytes < 64);
+    }
+
+    @Test
+    public void verticalDragMovesAlongY() {
+        controller.setDragOrientation(Controller.DRAG_VERTICAL);
+        assertEquals(Controller.DRAG_VERTICAL, controller.getDragOrientation());
+
+        MotionEvent event = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 200, 600, 0);
+        controller.dispatchTouchEvent(event);
+        for (int y = 590; y > 200; y -= 10) {
+            controller.dispatchTouchEvent(MotionEvent.obtain(0, 600 - y, MotionEvent.ACTION_MOVE, 200, y, 0));
+        }
+        assertEquals(0.0f, controller.getChildAt(1).getTranslationX(), 0.0f);
+        assertTrue(controller.getChildAt(1).getTranslationY() < 0);
+
+        controller.dispatchTouchEvent(MotionEvent.obtain(0, 1000, MotionEvent.ACTION_UP, 200, 200, 0));
+        scheduler.runUntilIdle();
+        assertSettledOn(2);
+    }
+
+    @Test
+    public void disabledDragLeavesTouchesToContainers() {
+        controller.setDragOrientation(Controller.DRAG_NONE);
+        drag(400, 100, 40, 50);
+        up(100);
+        scheduler.runUntilIdle();
+
+        assertEquals("", callbacks.toString());
+        assertSettledOn(1);
+    }
+
+    //========================================== Gestures ==========================================
+
+    /**
+     * Drag from one point to another in steps, every step takes stepMillis
+     */
+    private void drag(int fromX, int toX, int steps, int stepMillis) {
+        down(fromX);
+        for (int i = 1; i <= steps; i++) {
+            eventTime += stepMillis;
+            dispatch(MotionEvent.ACTION_MOVE, fromX + (toX - fromX) * i / steps);
+        }
+    }
+
+    /**
+     * Keep finger still long enough to lose velocity
+     */
+    private void hold(int x) {
+        for (int i = 0; i < 10; i++) {
+            eventTime += 50;
+            dispatch(MotionEvent.ACTION_MOVE, x);
+        }
+    }
+
+    private void down(int x) {
+        eventTime += 10000;
+        downTime = eventTime;
+        dispatch(MotionEvent.ACTION_DOWN, x);
+    }
+
+    private void move(int x) {
+        eventTime += 8;
+        dispatch(MotionEvent.ACTION_MOVE, x);
+    }
+
+    private void up(int x) {
+        eventTime += 8;
+        dispatch(MotionEvent.ACTION_UP, x);
+    }
+
+    private void dispatch(int action, int x) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, HEIGHT / 2, 0);
+        controller.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    private static long bytesPerMove(View view, MotionEvent[] events) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (MotionEvent event : events) view.dispatchTouchEvent(event);
+        long bytes = bean.getThreadAllocatedBytes(thread);
+        for (MotionEvent event : events) view.dispatchTouchEvent(event);
+        return (bean.getThreadAllocatedBytes(thread) - bytes) / events.length;
+    }
+
+    private void layout() {
+        controller.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        controller.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private void assertSettledOn(int position) {
+        assertEquals(position, controller.getCurrentPosition());
+        for (int i = 0; i < CONTAINERS; i++) {
+            View container = controller.getChildAt(i);
+            assertEquals(i == position, container.getVisibility() == View.VISIBLE);
+            assertEquals(0.0f, container.getTranslationX(), 0.0f);
+            assertEquals(0.0f, container.getTranslationY(), 0.0f);
+            assertEquals(1.0f, container.getAlpha(), 0.0f);
+            assertEquals(View.LAYER_TYPE_NONE, container.getLayerType());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FCEventRecorderTest {
+
+    /*
+     * Dumps are written on a background thread, tests wait until the recorder is not dumping.
+     */
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void textDumpHasOneLinePerEvent() throws IOException {
+        FCEventRecorder recorder = new FCEventRecorder(8);
+        recorder.record(FCEventRecorder.EVENT_REQUEST, 3, 1);
+        recorder.record(FCEventRecorder.EVENT_HOP, 1, 3);
+        recorder.record(FCEventRecorder.EVENT_END, 3, 0);
+
+        File file = folder.newFile("events.txt");
+        assertTrue(recorder.dump(file, false));
+        awaitDump(recorder);
+
+        List<String> lines = readLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0), lines.get(0).matches("\\d+ REQUEST 3 1"));
+        assertTrue(lines.get(1), lines.get(1).matches("\\d+ HOP 1 3"));
+        assertTrue(lines.get(2), lines.get(2).matches("\\d+ END 3 0"));
+        assertTrue(time(lines.get(0)) <= time(lines.get(1)));
+        assertTrue(time(lines.get(1)) <= time(lines.get(2)));
+    }
+
+    @Test
+    public void binaryDumpHasHeaderAndFixedRecords() throws IOException {
+        FCEventRecorder recorder = new FCEventRecorder(8);
+        recorder.record(FCEventRecorder.EVENT_BLOCKED, 2, 0);
+        recorder.record(FCEventRecorder.EVENT_REJECTED, 9, 4);
+
+        File file = folder.newFile("events.bin");
+        assertTrue(recorder.dump(file, true));
+        awaitDump(recorder);
+
+        // Header of 3 ints, then time, type, two args per event
+        assertEquals(3 * 4 + 2 * (8 + 1 + 4 + 4), file.length());
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            assertEquals(0x46434556, in.readInt());
+            assertEquals(1, in.readInt());
+            assertEquals(2, in.readInt());
+
+            long first = in.readLong();
+            assertEquals(FCEventRecorder.EVENT_BLOCKED, in.readByte());
+            assertEquals(2, in.readInt());
+            assertEquals(0, in.readInt());
+
+            assertTrue(first <= in.readLong());
+            assertEquals(FCEventRecorder.EVENT_REJECTED, in.readByte());
+            assertEquals(9, in.readInt());
+            assertEquals(4, in.readInt());
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void ringKeepsNewestEventsInOrder() throws IOException {
+        FCEventRecorder recorder = new FCEventRecorder(3);
+        for (int i = 0; i < 7; i++) recorder.record(FCEventRecorder.EVENT_HOP, i, 0);
+        assertEquals(3, recorder.size());
+
+        File file = folder.newFile("ring.txt");
+        assertTrue(recorder.dump(file, false));
+        awaitDump(recorder);
+
+        List<String> lines = readLines(file);
+        assertEquals(3, lines.size());
+        for (int i = 0; i < 3; i++) assertTrue(lines.get(i), lines.get(i).endsWith(" HOP " + (4 + i) + " 0"));
+    }
+
+    @Test
+    public void longFramesDumpOncePerSwitch() throws IOException {
+        File file = new File(folder.getRoot(), "jank.bin");
+        FCEventRecorder recorder = new FCEventRecorder(16);
+        assertEquals(0, recorder.getJankThresholdNanos());
+        recorder.setJankThreshold(32, file);
+        assertEquals(32000000L, recorder.getJankThresholdNanos());
+
+        recorder.onSwitchStarted();
+        recorder.onLongFrame(50000000L);
+        awaitDump(recorder);
+        assertTrue(file.delete());
+
+        // The second long frame of the same switch is only recorded
+        recorder.onLongFrame(70000000L);
+        awaitDump(recorder);
+        assertFalse(file.exists());
+        assertEquals(2, recorder.size());
+
+        recorder.onSwitchStarted();
+        recorder.onLongFrame(40000000L);
+        awaitDump(recorder);
+        assertTrue(file.exists());
+        // Header and three JANK events with interval in microseconds
+        assertEquals(3 * 4 + 3 * (8 + 1 + 4 + 4), file.length());
+    }
+
+    private static void awaitDump(FCEventRecorder recorder) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Boolean) ReflectionHelpers.getField(recorder, "dumping")) {
+            assertTrue("dump is not finished", System.currentTimeMillis() < deadline);
+            Thread.yield();
+        }
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) lines.add(line);
+        } finally {
+            reader.close();
+        }
+        return lines;
+    }
+
+    private static long time(String line) {
+        return Long.parseLong(line.substring(0, line.indexOf(' ')));
+    }
+}
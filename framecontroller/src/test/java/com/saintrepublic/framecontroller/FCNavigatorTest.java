@@ -0,0 +1,90 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FCNavigatorTest {
+
+    private FCNavigator navigator = new FCNavigator();
+
+    @Test
+    public void rejectsInvalidRequests() {
+        assertEquals(FCNavigator.OUT_OF_BOUNDS, navigator.request(5, 0, 5, false, false));
+        assertEquals(FCNavigator.OUT_OF_BOUNDS, navigator.request(-1, 0, 5, false, false));
+        assertEquals(FCNavigator.ALREADY_CURRENT, navigator.request(2, 2, 5, false, false));
+        assertEquals(FCNavigator.ALREADY_CURRENT, navigator.request(-1, -1, 5, false, true));
+
+        navigator.block();
+        assertEquals(FCNavigator.BLOCKED, navigator.request(3, 0, 5, false, false));
+        navigator.unblock();
+        assertEquals(FCNavigator.STARTED, navigator.request(3, 0, 5, false, false));
+    }
+
+    @Test
+    public void stepsThroughEveryPositionForward() {
+        navigator.request(3, 0, 5, false, false);
+        assertEquals(FCNavigator.ACTION_NEXT, navigator.getAction());
+        assertEquals(3, navigator.hopsLeft());
+
+        assertEquals(1, navigator.step());
+        assertFalse(navigator.isLastHop());
+        assertEquals(2, navigator.step());
+        assertEquals(3, navigator.step());
+        assertTrue(navigator.isLastHop());
+        assertEquals(0, navigator.hopsLeft());
+    }
+
+    @Test
+    public void stepsThroughEveryPositionBackwardToOut() {
+        navigator.request(-1, 2, 5, false, true);
+        assertEquals(FCNavigator.ACTION_PREVIOUS, navigator.getAction());
+
+        int[] hops = new int[navigator.hopsLeft()];
+        assertEquals(3, navigator.planHops(hops));
+        assertArrayEquals(new int[]{1, 0, -1}, hops);
+
+        for (int hop : hops) assertEquals(hop, navigator.step());
+        assertTrue(navigator.isLastHop());
+    }
+
+    @Test
+    public void fastRequestMakesSingleHop() {
+        navigator.request(4, 0, 5, true, false);
+        assertEquals(1, navigator.hopsLeft());
+        assertEquals(4, navigator.step());
+        assertTrue(navigator.isLastHop());
+    }
+
+    @Test
+    public void lastHopStaysUntilFirstHopOfNextSwitch() {
+        navigator.request(1, 0, 5, false, false);
+        navigator.step();
+        assertTrue(navigator.isLastHop());
+
+        navigator.request(3, 1, 5, false, false);
+        assertTrue(navigator.isLastHop());
+        assertEquals(2, navigator.hopsLeft());
+        navigator.step();
+        assertFalse(navigator.isLastHop());
+    }
+}
@@ -0,0 +1,89 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FCPredictorTest {
+
+    private FCPredictor predictor = new FCPredictor();
+
+    private void visit(Object... keys) {
+        for (Object key : keys) predictor.onVisited(key);
+    }
+
+    @Test
+    public void mostFrequentSuccessorsArePredictedFirst() {
+        visit("dashboard", "mail", "dashboard", "mail", "dashboard", "settings",
+                "dashboard", "mail", "dashboard", "settings", "dashboard", "news", "dashboard");
+
+        assertEquals(2, predictor.getPredictedCount());
+        assertEquals("mail", predictor.getPredicted(0));
+        assertEquals("settings", predictor.getPredicted(1));
+
+        // Successor seen once is not predicted
+        predictor.onVisited("news");
+        assertEquals(0, predictor.getPredictedCount());
+    }
+
+    @Test
+    public void hitsAreCountedOnlyForPredictedSwitches() {
+        // a -> b is predicted only after it was seen twice
+        visit("a", "b", "a", "b", "a", "b");
+        PredictionStats stats = predictor.collectStats();
+        assertEquals(5, stats.getSwitchesCount());
+        assertEquals(1, stats.getPredictedCount());
+        assertEquals(1, stats.getHitsCount());
+
+        visit("c");
+        stats = predictor.collectStats();
+        assertEquals(2, stats.getPredictedCount());
+        assertEquals(0.5f, stats.getHitRate(), 0.0001f);
+
+        // Staying on the same key and going out are not switches
+        visit("c", null, "c");
+        assertEquals(6, predictor.collectStats().getSwitchesCount());
+    }
+
+    @Test
+    public void memoryIsBounded() {
+        for (int i = 0; i < FCPredictor.MAX_STATES * 10; i++) {
+            predictor.onVisited(i);
+            predictor.onVisited("hub");
+        }
+        assertTrue(predictor.getStateCount() <= FCPredictor.MAX_STATES);
+
+        // Hub keeps at most MAX_SUCCESSORS successors, the newest one replaces the rarest
+        for (int i = 0; i < 3; i++) visit("x", "hub");
+        assertEquals(1, predictor.getPredictedCount());
+        assertEquals("x", predictor.getPredicted(0));
+    }
+
+    @Test
+    public void oldHabitsFade() {
+        // Old count is halved when it reaches MAX_COUNT, so fewer new visits take over
+        for (int i = 0; i < FCPredictor.MAX_COUNT; i++) visit("home", "old");
+        for (int i = 0; i < FCPredictor.MAX_COUNT / 2 + 10; i++) visit("home", "new");
+
+        predictor.onVisited("home");
+        assertEquals("new", predictor.getPredicted(0));
+        assertEquals("old", predictor.getPredicted(1));
+    }
+}
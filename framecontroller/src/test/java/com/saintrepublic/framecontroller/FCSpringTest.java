@@ -0,0 +1,143 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FCSpringTest {
+
+    private static final long FRAME = 16;
+
+    private FCSpring spring = new FCSpring();
+
+    @Test
+    public void criticallyDampedSpringComesToTargetWithoutOvershoot() {
+        spring.snapTo(0);
+        spring.setTarget(3);
+
+        float last = 0;
+        long elapsed = 0;
+        while (spring.step(FRAME)) {
+            assertTrue(spring.getPosition() >= last);
+            assertTrue(spring.getPosition() <= 3.0f);
+            last = spring.getPosition();
+            elapsed += FRAME;
+        }
+        assertEquals(3.0f, spring.getPosition(), 0.0f);
+        assertEquals(0.0f, spring.getVelocity(), 0.0f);
+        assertTrue(elapsed > 0 && elapsed < 2000);
+    }
+
+    @Test
+    public void everyDampingRatioSettles() {
+        float[] ratios = {0.3f, 0.7f, 1.0f, 1.5f, 4.0f};
+        for (float ratio : ratios) {
+            spring.setDampingRatio(ratio);
+            spring.snapTo(2);
+            spring.setTarget(0);
+
+            int frames = 0;
+            while (spring.step(FRAME) && frames < 1000) frames++;
+            assertTrue("ratio " + ratio, spring.isAtRest());
+            assertEquals(0.0f, spring.getPosition(), 0.0f);
+        }
+    }
+
+    @Test
+    public void retargetKeepsPositionAndVelocity() {
+        spring.snapTo(0);
+        spring.setTarget(4);
+        for (int i = 0; i < 10; i++) spring.step(FRAME);
+
+        float position = spring.getPosition();
+        float velocity = spring.getVelocity();
+        assertTrue(velocity > 0);
+
+        spring.setTarget(1);
+        assertEquals(position, spring.getPosition(), 0.0f);
+        assertEquals(velocity, spring.getVelocity(), 0.0f);
+
+        // Spring keeps moving forward for a while before it turns to the new target
+        spring.step(FRAME);
+        assertTrue(spring.getPosition() > position);
+
+        while (spring.step(FRAME)) ;
+        assertEquals(1.0f, spring.getPosition(), 0.0f);
+    }
+
+    @Test
+    public void stepsDoNotDependOnFrameRate() {
+        FCSpring fine = new FCSpring();
+        spring.snapTo(0);
+        spring.setTarget(1);
+        fine.snapTo(0);
+        fine.setTarget(1);
+
+        for (int i = 0; i < 8; i++) {
+            spring.step(32);
+            fine.step(8);
+            fine.step(8);
+            fine.step(8);
+            fine.step(8);
+            assertEquals(spring.getPosition(), fine.getPosition(), 0.0001f);
+            assertEquals(spring.getVelocity(), fine.getVelocity(), 0.001f);
+        }
+    }
+
+    @Test
+    public void estimateMatchesStepping() {
+        spring.setStiffness(300);
+        spring.snapTo(0);
+        spring.setTarget(2);
+        spring.step(FRAME);
+
+        float position = spring.getPosition();
+        long estimate = spring.estimateRestMillis(FRAME);
+        // Estimate does not move the spring
+        assertEquals(position, spring.getPosition(), 0.0f);
+
+        long elapsed = 0;
+        while (spring.step(FRAME)) elapsed += FRAME;
+        assertEquals(estimate, elapsed + FRAME);
+    }
+
+    @Test
+    public void steppingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < 20000; i++) step(i);
+
+        long before = bean.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100000; i++) step(i);
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+        assertFalse(Float.isNaN(spring.getPosition()));
+    }
+
+    private void step(int i) {
+        if (i % 50 == 0) spring.setTarget(i % 100 == 0 ? 0 : 5);
+        spring.step(FRAME);
+    }
+}
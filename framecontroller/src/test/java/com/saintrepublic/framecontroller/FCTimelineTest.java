@@ -0,0 +1,54 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FCTimelineTest {
+
+    private FCTimeline timeline = new FCTimeline();
+
+    @Test
+    public void hopsHaveFixedOffsets() {
+        timeline.compile(4, 140, 350);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(timeline.hasNextHop());
+            assertEquals(i * 140, timeline.getNextHopOffset());
+            timeline.advance();
+        }
+        assertFalse(timeline.hasNextHop());
+    }
+
+    @Test
+    public void durationIsKnownBeforeFirstHop() {
+        timeline.compile(4, 140, 350);
+        assertEquals(3 * 140 + 350, timeline.getTotalDuration());
+        assertEquals(3 * 140 + 350 - 500, timeline.getRemainingDuration(500));
+        assertEquals(0, timeline.getRemainingDuration(5000));
+
+        timeline.compile(1, 240, 600);
+        assertEquals(600, timeline.getTotalDuration());
+
+        timeline.compile(0, 240, 600);
+        assertEquals(0, timeline.getTotalDuration());
+    }
+}
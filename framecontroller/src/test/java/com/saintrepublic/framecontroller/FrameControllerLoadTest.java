@@ -0,0 +1,291 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Color;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class FrameControllerLoadTest {
+
+    /*
+     * Load test of FrameController with 10, 100, 1k and 5k containers.
+     *
+     * Every operation is measured in time and allocated bytes per operation
+     * and printed as a report. Values are medians of REPEATS runs.
+     * Test fails when allocations of an operation grow faster than count of containers:
+     * slope of log(bytes per op) fitted over log(count) is over LINEAR_SLOPE.
+     * Allocations under NOISE_FLOOR_BYTES are treated as constant.
+     * Time depends on the machine, so it is checked the same way with generous TIME_SLOPE
+     * and NOISE_FLOOR_NANOS, which catches only clearly quadratic operations.
+     *
+     * Switches run on VirtualScheduler until idle. Animation type is NONE,
+     * except goTo which is animated, so hops of a multi-hop switch are measured too.
+     */
+
+    private static final int[] SIZES = {10, 100, 1000, 5000};
+    private static final int REPEATS = 5;
+    private static final double LINEAR_SLOPE = 1.3;
+    private static final long NOISE_FLOOR_BYTES = 16 * 1024;
+    private static final double TIME_SLOPE = 1.6;
+    private static final long NOISE_FLOOR_NANOS = 50 * 1000;
+    private static final int GO_TO_HOPS = 8;
+
+    private Context context;
+    private VirtualScheduler scheduler;
+    private int animationType = Controller.ANIMATION_NONE;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        measureAll("warm up", new int[]{100}, 20, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.goFastTo(i % size);
+                scheduler.runUntilIdle();
+            }
+        });
+    }
+
+    //========================================= Operations =========================================
+
+    @Test
+    public void add() {
+        Sample[] samples = measureAll("addViewToNewContainer", SIZES, 200, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.addViewToNewContainer(new View(context), "new" + i);
+            }
+        });
+        assertLinear("addViewToNewContainer", samples);
+    }
+
+    @Test
+    public void goTo() {
+        // Hops between the last containers, so the cost of a hop does not depend on the count of them
+        animationType = Controller.ANIMATION_SCROLL_HORIZONTAL;
+        Sample[] samples = measureAll("goTo " + GO_TO_HOPS + " hops", SIZES, 20, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.goTo((i % 2 == 0) ? size - 1 - GO_TO_HOPS : size - 1);
+                scheduler.runUntilIdle();
+            }
+        });
+        assertLinear("goTo", samples);
+    }
+
+    @Test
+    public void goFastTo() {
+        Sample[] samples = measureAll("goFastTo", SIZES, 200, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.goFastTo((i * 7919) % size);
+                scheduler.runUntilIdle();
+            }
+        });
+        assertLinear("goFastTo", samples);
+    }
+
+    @Test
+    public void tagLookup() {
+        Sample[] samples = measureAll("getContainerWithTag", SIZES, 200, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.getContainerWithTag(TAGS[size - 1 - (i % size)]);
+            }
+        });
+        assertLinear("getContainerWithTag", samples);
+    }
+
+    @Test
+    public void removeContainerAtPosition() {
+        Sample[] samples = measureAll("removeContainerAtPosition", SIZES, 5, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.removeContainerAtPosition(controller.getContainersCount() / 2);
+            }
+        });
+        assertLinear("removeContainerAtPosition", samples);
+    }
+
+    @Test
+    public void setContainersMargins() {
+        Sample[] samples = measureAll("setContainersMargins", SIZES, 20, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.setContainersMargins(i % 8);
+            }
+        });
+        assertLinear("setContainersMargins", samples);
+    }
+
+    @Test
+    public void setContainersBackground() {
+        Sample[] samples = measureAll("setContainersBackground", SIZES, 20, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.setContainersBackground((i % 2 == 0) ? Color.WHITE : Color.BLACK);
+            }
+        });
+        assertLinear("setContainersBackground", samples);
+    }
+
+    @Test
+    public void clear() {
+        Sample[] samples = measureAll("clear", SIZES, 1, new Operation() {
+            @Override
+            public void run(FrameController controller, int size, int i) {
+                controller.clear();
+            }
+        });
+        assertLinear("clear", samples);
+    }
+
+    //========================================= Measuring ==========================================
+
+    private static final String[] TAGS = new String[SIZES[SIZES.length - 1]];
+
+    static {
+        for (int i = 0; i < TAGS.length; i++) TAGS[i] = "container " + i;
+    }
+
+    private interface Operation {
+        void run(FrameController controller, int size, int i);
+    }
+
+    private static class Sample {
+        int size;
+        long nanosPerOp;
+        long bytesPerOp;
+    }
+
+    private FrameController createController(int size) {
+        FrameController controller = new FrameController(context);
+        scheduler = new VirtualScheduler(16);
+        controller.setScheduler(scheduler);
+        controller.setSwitchAnimation(animationType, false);
+        controller.setAnimationSpeed(Controller.SPEED_FAST);
+        for (int i = 0; i < size; i++) controller.addViewToNewContainer(new View(context), TAGS[i]);
+        if (animationType != Controller.ANIMATION_NONE) {
+            controller.goFastTo(size - 1);
+            scheduler.runUntilIdle();
+        }
+        return controller;
+    }
+
+    private Sample[] measureAll(String name, int[] sizes, int ops, Operation operation) {
+        Sample[] samples = new Sample[sizes.length];
+        for (int s = 0; s < sizes.length; s++) {
+            samples[s] = measure(sizes[s], ops, operation);
+            System.out.println(String.format(Locale.US, "%-28s n=%5d %12.2f us/op %10d B/op",
+                    name, samples[s].size, samples[s].nanosPerOp / 1000.0, samples[s].bytesPerOp));
+        }
+        return samples;
+    }
+
+    /**
+     * @return medians of REPEATS runs
+     */
+    private Sample measure(int size, int ops, Operation operation) {
+        long[] nanos = new long[REPEATS];
+        long[] bytes = new long[REPEATS];
+
+        for (int r = 0; r < REPEATS; r++) {
+            FrameController controller = createController(size);
+
+            long startBytes = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < ops; i++) operation.run(controller, size, i);
+            nanos[r] = (System.nanoTime() - start) / ops;
+            bytes[r] = (allocatedBytes() - startBytes) / ops;
+        }
+
+        Sample sample = new Sample();
+        sample.size = size;
+        sample.nanosPerOp = median(nanos);
+        sample.bytesPerOp = median(bytes);
+        return sample;
+    }
+
+    private static long median(long[] values) {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    /**
+     * Check that bytes and time per op grow at most linearly with count of containers
+     */
+    private static void assertLinear(String name, Sample[] samples) {
+        double[] bytes = new double[samples.length];
+        double[] nanos = new double[samples.length];
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < samples.length; i++) {
+            bytes[i] = Math.max(samples[i].bytesPerOp, 0) + NOISE_FLOOR_BYTES;
+            nanos[i] = Math.max(samples[i].nanosPerOp, 0) + NOISE_FLOOR_NANOS;
+            report.append(String.format(Locale.US, " %d B/op %.2f us/op at n=%d,",
+                    samples[i].bytesPerOp, samples[i].nanosPerOp / 1000.0, samples[i].size));
+        }
+
+        double bytesSlope = slope(samples, bytes);
+        assertTrue(String.format(Locale.US, "%s allocates worse than linear, slope %.2f:%s", name, bytesSlope, report),
+                bytesSlope <= LINEAR_SLOPE);
+
+        double timeSlope = slope(samples, nanos);
+        assertTrue(String.format(Locale.US, "%s runs worse than linear, slope %.2f:%s", name, timeSlope, report),
+                timeSlope <= TIME_SLOPE);
+    }
+
+    /**
+     * Fit least squares line of log(value) over log(count of containers)
+     */
+    private static double slope(Sample[] samples, double[] values) {
+        int n = samples.length;
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (int i = 0; i < n; i++) {
+            double x = Math.log(samples[i].size);
+            double y = Math.log(values[i]);
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        return (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
+}
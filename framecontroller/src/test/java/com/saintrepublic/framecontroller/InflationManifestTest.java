@@ -0,0 +1,182 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class InflationManifestTest {
+
+    /*
+     * Two sessions of FrameController sharing an inflation manifest.
+     * Framework layouts are used, library has no layouts of its own.
+     */
+
+    private static final int LIST = android.R.layout.simple_list_item_1;
+    private static final int TWO_LINES = android.R.layout.simple_list_item_2;
+    private static final int CHECKED = android.R.layout.simple_list_item_checked;
+    private static final long RECORD_MILLIS = 1000;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    private FrameController newSession(VirtualScheduler scheduler) {
+        FrameController controller = new FrameController(context);
+        controller.setScheduler(scheduler);
+        controller.setInflationManifest("test", RECORD_MILLIS);
+        return controller;
+    }
+
+    /**
+     * Manifest is read and written on worker threads, reading ends on main thread
+     */
+    private void waitForLoading(FCInflationManifest manifest) throws InterruptedException {
+        for (int i = 0; i < 100 && manifest.isLoading(); i++) {
+            Thread.sleep(10);
+            ShadowLooper.idleMainLooper();
+        }
+    }
+
+    private void waitForWriting(FCInflationManifest manifest) throws InterruptedException {
+        for (int i = 0; i < 100 && manifest.isWriting(); i++) Thread.sleep(10);
+    }
+
+    private void waitForPreinflation(FCInflationManifest manifest, int count) throws InterruptedException {
+        for (int i = 0; i < 100 && manifest.getReadyCount() < count; i++) {
+            ShadowLooper.idleMainLooper();
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void layoutsShownAtStartArePreinflatedInNextSession() throws InterruptedException {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        FrameController first = newSession(scheduler);
+        first.addLayoutToNewContainer(LIST, "list");
+        first.addLayoutToNewContainer(TWO_LINES, "details");
+        first.addLayoutToNewContainer(CHECKED, "settings");
+        // Running until idle would run the end of record window too
+        first.goFastTo(0);
+        scheduler.advanceBy(VirtualScheduler.DEFAULT_FRAME_MILLIS);
+        first.goFastTo(1);
+        scheduler.advanceBy(VirtualScheduler.DEFAULT_FRAME_MILLIS);
+
+        // Containers shown after record window are not written
+        scheduler.advanceBy(RECORD_MILLIS);
+        first.goFastTo(2);
+        scheduler.runUntilIdle();
+        assertEquals(0, first.getInflationSavedMillis(), 0.0f);
+
+        File file = new File(context.getFilesDir(), "framecontroller_test.manifest");
+        for (int i = 0; i < 100 && !file.exists(); i++) Thread.sleep(10);
+        FCInflationManifest manifest = new FCInflationManifest(file, RECORD_MILLIS, 0);
+        manifest.preinflate(context, first, scheduler);
+        waitForLoading(manifest);
+        assertEquals(2, manifest.getLoadedCount());
+        waitForPreinflation(manifest, 2);
+        assertEquals(2, manifest.getReadyCount());
+        assertTrue(manifest.take(LIST) != null);
+        assertEquals(1, manifest.getHits());
+        assertTrue(manifest.take(CHECKED) == null);
+
+        // Layouts not taken until the end of record window are released
+        manifest.onShown(LIST, "list", RECORD_MILLIS + 1);
+        assertEquals(0, manifest.getReadyCount());
+
+        FrameController second = newSession(new VirtualScheduler());
+        // Layout is taken only when it is ready, otherwise it is inflated on main thread
+        for (int i = 0; i < 100 && second.getInflationSavedMillis() == 0; i++) {
+            ShadowLooper.idleMainLooper();
+            Thread.sleep(10);
+            second.addLayoutToNewContainer(LIST, "list");
+        }
+        assertTrue(second.getInflationSavedMillis() > 0);
+    }
+
+    @Test
+    public void brokenManifestIsDropped() throws IOException, InterruptedException {
+        File file = new File(context.getFilesDir(), "framecontroller_broken.manifest");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] {0x46, 0x43, 0x4d, 0x31, 0, 0, 0, 5, 1});
+        out.close();
+
+        FrameController parent = new FrameController(context);
+        FCInflationManifest manifest = new FCInflationManifest(file, RECORD_MILLIS, 0);
+        manifest.preinflate(context, parent, new VirtualScheduler());
+        waitForLoading(manifest);
+        assertEquals(0, manifest.getLoadedCount());
+
+        // Ids which are not layouts are not inflated
+        manifest.onShown(android.R.id.text1, null, 0);
+        assertTrue(manifest.write());
+        waitForWriting(manifest);
+        manifest = new FCInflationManifest(file, RECORD_MILLIS, 0);
+        manifest.preinflate(context, parent, new VirtualScheduler());
+        waitForLoading(manifest);
+        assertEquals(1, manifest.getLoadedCount());
+        assertEquals(0, manifest.getReadyCount());
+    }
+
+    @Test
+    public void recordWindowEndsOnSchedulerTime() throws InterruptedException {
+        File file = new File(context.getFilesDir(), "framecontroller_window.manifest");
+        file.delete();
+        VirtualScheduler scheduler = new VirtualScheduler();
+        FrameController controller = new FrameController(context);
+        controller.setScheduler(scheduler);
+        controller.setInflationManifest("window", RECORD_MILLIS);
+        FCInflationManifest manifest = ReflectionHelpers.getField(controller, "manifest");
+        waitForLoading(manifest);
+
+        controller.addLayoutToNewContainer(LIST, "list");
+        controller.goFastTo(0);
+        scheduler.advanceBy(RECORD_MILLIS / 2);
+        // Switch cancels posted tasks of scheduler
+        controller.addLayoutToNewContainer(TWO_LINES, "details");
+        controller.goFastTo(1);
+        scheduler.advanceBy(RECORD_MILLIS / 2 - 1);
+        assertEquals(2, manifest.getRecordedCount());
+        assertFalse(file.exists());
+
+        scheduler.advanceBy(1);
+        waitForWriting(manifest);
+        assertTrue(file.exists());
+        assertFalse(manifest.write());
+    }
+}
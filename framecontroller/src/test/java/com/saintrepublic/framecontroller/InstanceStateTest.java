@@ -0,0 +1,177 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Color;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.support.annotation.Nullable;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class InstanceStateTest {
+
+    /*
+     * State is saved from one FrameController and restored into a new one with the same id,
+     * as it happens when activity is recreated after process death.
+     */
+
+    private static final int ID = 0x7f0b0001;
+    private static final int LAYOUT = android.R.layout.simple_list_item_1;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    private FrameController newController() {
+        FrameController controller = new FrameController(context);
+        controller.setId(ID);
+        controller.setScheduler(new VirtualScheduler());
+        controller.setPrefetch(0, false);
+        return controller;
+    }
+
+    private FrameController savedController() {
+        FrameController controller = newController();
+        controller.setSwitchAnimation(Controller.ANIMATION_SWIPE, true);
+        controller.setAnimationSpeed(Controller.SPEED_FAST);
+        controller.setContainersMargins(4);
+        controller.setContainersPadding(1, 2, 3, 4);
+        controller.setContainersBackground(Color.BLUE);
+
+        controller.addLayoutToNewContainer(LAYOUT, "list");
+        controller.addLayoutToNewContainer(LAYOUT, 42);
+        controller.addLayoutToNewContainer(LAYOUT, new Object());
+        controller.addViewToNewContainer(new TextView(context), "view");
+        controller.goFastTo(2);
+        ((VirtualScheduler) controller.getScheduler()).runUntilIdle();
+        return controller;
+    }
+
+    /**
+     * Save hierarchy state and pass it through a parcel as the system does it
+     */
+    private SparseArray<Parcelable> save(View view) {
+        SparseArray<Parcelable> states = new SparseArray<>();
+        view.saveHierarchyState(states);
+
+        Parcel parcel = Parcel.obtain();
+        parcel.writeParcelable(states.get(ID), 0);
+        parcel.setDataPosition(0);
+        states.put(ID, parcel.readParcelable(getClass().getClassLoader()));
+        parcel.recycle();
+        return states;
+    }
+
+    private static boolean isFilled(FrameController controller, int position) {
+        return ((FrameLayout) controller.getChildAt(position)).getChildCount() > 0;
+    }
+
+    @Test
+    public void containersAreRestoredLazily() {
+        SparseArray<Parcelable> states = save(savedController());
+
+        FrameController restored = newController();
+        restored.restoreHierarchyState(states);
+
+        assertEquals(4, restored.getContainersCount());
+        assertEquals(2, restored.getCurrentPosition());
+        assertEquals(View.VISIBLE, restored.getCurrentContainer().getVisibility());
+        assertTrue(isFilled(restored, 2));
+        assertTrue(!isFilled(restored, 0) && !isFilled(restored, 1) && !isFilled(restored, 3));
+
+        // Tags which can not be saved are lost
+        assertEquals("list", restored.getChildAt(0).getTag());
+        assertEquals(42, restored.getChildAt(1).getTag());
+        assertNull(restored.getChildAt(2).getTag());
+
+        assertTrue(restored.getContainerAtPosition(0).getChildCount() > 0);
+        assertTrue(restored.getContainerWithTag(42).getChildCount() > 0);
+        // Views made by the app are not restored without a factory
+        assertEquals(0, restored.getContainerAtPosition(3).getChildCount());
+
+        assertEquals(Controller.ANIMATION_SWIPE, restored.getSwitchAnimationType());
+        assertEquals(Controller.SPEED_FAST, restored.getAnimationSpeed());
+        assertTrue(restored.isScaleModifierEnabled());
+        FrameLayout container = restored.getContainerAtPosition(0);
+        assertEquals(4, ((FrameLayout.LayoutParams) container.getLayoutParams()).topMargin);
+        assertEquals(3, container.getPaddingRight());
+    }
+
+    @Test
+    public void factoryFillsContainersWithoutLayouts() {
+        SparseArray<Parcelable> states = save(savedController());
+
+        FrameController restored = newController();
+        restored.setContainerFactory(new FrameController.ContainerFactory() {
+            @Nullable
+            @Override
+            public View onCreateView(FrameLayout container, int position, @Nullable Object tag) {
+                TextView text = new TextView(container.getContext());
+                text.setText(tag + " " + position);
+                return text;
+            }
+        });
+        restored.restoreHierarchyState(states);
+
+        restored.goTo(3);
+        ((VirtualScheduler) restored.getScheduler()).runUntilIdle();
+        assertEquals("view 3", ((TextView) restored.getCurrentContainer().getChildAt(0)).getText().toString());
+    }
+
+    @Test
+    public void containersAddedAgainKeepPositionAndConfiguration() {
+        SparseArray<Parcelable> states = save(savedController());
+
+        FrameController restored = newController();
+        for (int i = 0; i < 4; i++) restored.addLayoutToNewContainer(LAYOUT, "again " + i);
+        restored.restoreHierarchyState(states);
+
+        assertEquals(4, restored.getContainersCount());
+        assertEquals(2, restored.getCurrentPosition());
+        assertEquals("again 2", restored.getCurrentContainer().getTag());
+
+        // Configuration is restored to containers made by the app as well
+        assertEquals(Controller.ANIMATION_SWIPE, restored.getSwitchAnimationType());
+        assertEquals(Controller.SPEED_FAST, restored.getAnimationSpeed());
+        assertTrue(restored.isScaleModifierEnabled());
+        FrameLayout container = restored.getContainerAtPosition(0);
+        assertEquals(4, ((FrameLayout.LayoutParams) container.getLayoutParams()).topMargin);
+        assertEquals(3, container.getPaddingRight());
+        restored.measure(View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY), View.MeasureSpec.makeMeasureSpec(100, View.MeasureSpec.EXACTLY));
+        assertEquals(92, container.getMeasuredWidth());
+    }
+}
@@ -0,0 +1,113 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class MemoryStatsTest {
+
+    private Context context;
+    private FrameController controller;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+    }
+
+    @Test
+    public void countsInflatedAndAttachedContainers() {
+        LinearLayout layout = new LinearLayout(context);
+        layout.addView(new View(context));
+        layout.addView(new View(context));
+        controller.addViewToNewContainer(layout);
+        controller.addViewToNewContainer(new View(context));
+        FrameLayout empty = controller.addViewToNewContainer(new View(context));
+        empty.removeAllViews();
+
+        MemoryStats stats = controller.getMemoryStats();
+        assertEquals(3, stats.getContainersCount());
+        assertEquals(2, stats.getInflatedCount());
+        assertEquals(3, stats.getAttachedCount());
+        assertEquals(0, stats.getDetachedHeldCount());
+
+        // Container itself is counted with its views
+        assertEquals(4, stats.getViewCount(0));
+        assertEquals(2, stats.getViewCount(1));
+        assertEquals(1, stats.getViewCount(2));
+        assertEquals(7, stats.getTotalViewCount());
+        assertEquals(4 * MemoryStats.VIEW_ESTIMATED_BYTES, stats.getEstimatedBytes(0));
+        assertEquals(7 * MemoryStats.VIEW_ESTIMATED_BYTES, stats.getTotalEstimatedBytes());
+    }
+
+    @Test
+    public void removedContainersAreStillHeld() {
+        for (int i = 0; i < 3; i++) controller.addViewToNewContainer(new View(context));
+        controller.removeAllContainers();
+
+        MemoryStats stats = controller.getMemoryStats();
+        assertEquals(3, stats.getContainersCount());
+        assertEquals(3, stats.getInflatedCount());
+        assertEquals(0, stats.getAttachedCount());
+        assertEquals(3, stats.getDetachedHeldCount());
+        assertEquals(6, stats.getTotalViewCount());
+
+        controller.clear();
+        stats = controller.getMemoryStats();
+        assertEquals(0, stats.getContainersCount());
+        assertEquals(0, stats.getTotalEstimatedBytes());
+    }
+
+    @Test
+    public void sharedBitmapIsCountedOnce() {
+        Bitmap bitmap = Bitmap.createBitmap(20, 10, Bitmap.Config.ARGB_8888);
+        long bitmapBytes = bitmap.getAllocationByteCount();
+        assertTrue(bitmapBytes > 0);
+
+        ImageView first = new ImageView(context);
+        first.setImageBitmap(bitmap);
+        ImageView second = new ImageView(context);
+        second.setImageBitmap(bitmap);
+        second.setBackground(new BitmapDrawable(context.getResources(), bitmap));
+        controller.addViewToNewContainer(first);
+        controller.addViewToNewContainer(second);
+
+        MemoryStats stats = controller.getMemoryStats();
+        // The first container owns the bitmap, the second counts only its views
+        assertEquals(2 * MemoryStats.VIEW_ESTIMATED_BYTES + bitmapBytes, stats.getEstimatedBytes(0));
+        assertEquals(2 * MemoryStats.VIEW_ESTIMATED_BYTES, stats.getEstimatedBytes(1));
+        assertEquals(4 * MemoryStats.VIEW_ESTIMATED_BYTES + bitmapBytes, stats.getTotalEstimatedBytes());
+    }
+}
@@ -0,0 +1,217 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class OverviewTest {
+
+    /*
+     * Overview of 200 containers on a 400x800 screen, 3 columns show 4 rows at most.
+     * Robolectric does not draw children in View.draw(), so dispatchDraw() is called directly.
+     */
+
+    private static final int COUNT = 200;
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 800;
+    private static final int VISIBLE_CELLS = 12;
+
+    private Context context;
+    private Canvas canvas;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.RGB_565));
+    }
+
+    private static class Host implements FCOverview.Host {
+        final ArrayList<View> containers = new ArrayList<>();
+        int current = 0;
+        int obtained = 0;
+        int picked = -1;
+
+        @Override
+        public int getCount() {
+            return containers.size();
+        }
+
+        @Override
+        public int getCurrentPosition() {
+            return current;
+        }
+
+        @Override
+        public Object keyOf(int position) {
+            return containers.get(position);
+        }
+
+        @Override
+        public View obtainContainer(int position) {
+            obtained++;
+            return containers.get(position);
+        }
+
+        @Override
+        public void releaseContainer(View container) {}
+
+        @Override
+        public void onPicked(int position) {
+            picked = position;
+        }
+    }
+
+    private Host newHost() {
+        Host host = new Host();
+        for (int i = 0; i < COUNT; i++) {
+            FrameLayout container = new FrameLayout(context);
+            container.addView(new TextView(context));
+            container.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            container.layout(0, 0, WIDTH, HEIGHT);
+            host.containers.add(container);
+        }
+        return host;
+    }
+
+    @Test
+    public void onlyVisibleThumbnailsAreRenderedOnce() {
+        Host host = newHost();
+        FCOverview overview = new FCOverview(context, host, Integer.MAX_VALUE);
+        overview.show(3);
+
+        drawAll(overview);
+        int rendered = overview.getRenderedCount();
+        assertTrue(rendered > 0 && rendered <= VISIBLE_CELLS);
+
+        // Cached thumbnails are not rendered again
+        assertFalse(overview.draw(canvas, WIDTH, HEIGHT));
+        assertEquals(rendered, overview.getRenderedCount());
+
+        overview.invalidate(host.keyOf(1));
+        drawAll(overview);
+        assertEquals(rendered + 1, overview.getRenderedCount());
+
+        overview.setScroll(HEIGHT * 10);
+        drawAll(overview);
+        assertTrue(overview.getRenderedCount() <= rendered + 1 + VISIBLE_CELLS);
+        assertEquals(overview.getRenderedCount() - 1, overview.getCachedCount());
+    }
+
+    @Test
+    public void cacheIsBoundedByBytes() {
+        Host host = newHost();
+        FCOverview overview = new FCOverview(context, host, Integer.MAX_VALUE);
+        overview.show(3);
+        drawAll(overview);
+        int bytesPerScreen = overview.getCachedBytes();
+
+        overview.setMaxBytes(bytesPerScreen * 2);
+        for (int scroll = 0; scroll < HEIGHT * 20; scroll += HEIGHT / 2) {
+            overview.setScroll(scroll);
+            drawAll(overview);
+            assertTrue(overview.getCachedBytes() <= bytesPerScreen * 2);
+        }
+
+        overview.trim();
+        assertEquals(0, overview.getCachedBytes());
+    }
+
+    @Test
+    public void overviewOpensAtCurrentContainer() {
+        Host host = newHost();
+        host.current = COUNT - 1;
+        FCOverview overview = new FCOverview(context, host, Integer.MAX_VALUE);
+        overview.show(3);
+        drawAll(overview);
+
+        assertTrue(overview.getScroll() > 0);
+        assertTrue(overview.isCached(host.keyOf(COUNT - 1)));
+        assertFalse(overview.isCached(host.keyOf(0)));
+    }
+
+    @Test
+    public void tapPicksContainerAndHidesOverview() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        FrameController controller = new FrameController(context);
+        controller.setScheduler(scheduler);
+        controller.setPrefetch(0, false);
+        for (int i = 0; i < 30; i++) controller.addViewToNewContainer(new TextView(context));
+        controller.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        controller.layout(0, 0, WIDTH, HEIGHT);
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+
+        controller.showOverview(3);
+        assertTrue(controller.isOverviewShown());
+        controller.dispatchDraw(canvas);
+
+        // Second cell of the first row
+        tap(controller, WIDTH / 2, 20);
+        assertFalse(controller.isOverviewShown());
+        scheduler.runUntilIdle();
+        assertEquals(1, controller.getCurrentPosition());
+
+        // Drags scroll instead of picking
+        controller.showOverview(3);
+        controller.dispatchDraw(canvas);
+        long time = SystemClock.uptimeMillis();
+        controller.dispatchTouchEvent(MotionEvent.obtain(time, time, MotionEvent.ACTION_DOWN, WIDTH / 2, HEIGHT / 2, 0));
+        controller.dispatchTouchEvent(MotionEvent.obtain(time, time + 50, MotionEvent.ACTION_MOVE, WIDTH / 2, 0, 0));
+        controller.dispatchTouchEvent(MotionEvent.obtain(time, time + 100, MotionEvent.ACTION_UP, WIDTH / 2, 0, 0));
+        assertTrue(controller.isOverviewShown());
+
+        controller.hideOverview();
+        assertFalse(controller.isOverviewShown());
+    }
+
+    /**
+     * Draw frames until all visible thumbnails are rendered, rendering of a frame is limited by time
+     */
+    private void drawAll(FCOverview overview) {
+        for (int i = 0; i < 100 && overview.draw(canvas, WIDTH, HEIGHT); i++);
+    }
+
+    private void tap(View view, float x, float y) {
+        long time = SystemClock.uptimeMillis();
+        view.dispatchTouchEvent(MotionEvent.obtain(time, time, MotionEvent.ACTION_DOWN, x, y, 0));
+        view.dispatchTouchEvent(MotionEvent.obtain(time, time + 50, MotionEvent.ACTION_UP, x, y, 0));
+    }
+}
@@ -0,0 +1,141 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.CheckBox;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PageStateTest {
+
+    /*
+     * Pages are CheckBoxes which are unchecked by binding,
+     * so checked state comes back only from saved state.
+     */
+
+    private static final int PAGES = 100;
+
+    private Context context;
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+    private CheckAdapter adapter;
+
+    private static class CheckAdapter extends ContainerAdapter {
+        boolean stableIds = false;
+
+        @Override
+        public int getCount() {
+            return PAGES;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return stableIds ? position * 10 : NO_ID;
+        }
+
+        @Override
+        public View onCreateView(ViewGroup parent, int viewType) {
+            CheckBox check = new CheckBox(parent.getContext());
+            check.setId(android.R.id.checkbox);
+            return check;
+        }
+
+        @Override
+        public void onBindView(View view, int position) {
+            ((CheckBox) view).setChecked(false);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        controller.setPrefetch(0, false);
+        adapter = new CheckAdapter();
+        controller.setAdapter(adapter);
+    }
+
+    private CheckBox go(int position) {
+        controller.goFastTo(position);
+        scheduler.runUntilIdle();
+        return (CheckBox) controller.getCurrentContainer().getChildAt(0);
+    }
+
+    /**
+     * Check page 0 and go through enough pages to evict its container
+     */
+    private void checkAndLeave() {
+        go(0).setChecked(true);
+        for (int i = 1; i <= FCAdapterBinder.POOL_SIZE + 2; i++) go(i * 10);
+    }
+
+    @Test
+    public void stateOfRecycledPageIsRestored() {
+        checkAndLeave();
+        assertTrue(controller.getPageStateCacheBytes() > 0);
+        assertTrue(go(0).isChecked());
+
+        // Restored state is dropped from the store
+        go(50);
+        assertFalse(go(50 - 10).isChecked());
+    }
+
+    @Test
+    public void statesAreDroppedOverLimit() {
+        controller.setPageStateCacheSize(0);
+        checkAndLeave();
+        assertEquals(0, controller.getPageStateCacheBytes());
+        assertFalse(go(0).isChecked());
+
+        controller.setPageStateCacheSize(1024 * 1024);
+        checkAndLeave();
+        int oneState = controller.getPageStateCacheBytes() / (FCAdapterBinder.POOL_SIZE + 2);
+        controller.setPageStateCacheSize(oneState);
+        assertTrue(controller.getPageStateCacheBytes() <= oneState);
+    }
+
+    @Test
+    public void statesByPositionAreDroppedOnDataChange() {
+        checkAndLeave();
+        adapter.notifyDataSetChanged();
+        assertFalse(go(0).isChecked());
+    }
+
+    @Test
+    public void statesByStableIdAreKeptOnDataChange() {
+        adapter.stableIds = true;
+        checkAndLeave();
+        adapter.notifyDataSetChanged();
+        assertTrue(go(0).isChecked());
+    }
+}
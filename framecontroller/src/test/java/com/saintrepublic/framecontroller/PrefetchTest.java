@@ -0,0 +1,225 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.Animation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PrefetchTest {
+
+    /*
+     * Idle-time prefetch of neighbour containers.
+     * Containers which were never measured have zero width,
+     * so a prepared container is the one with width of FrameController.
+     */
+
+    private static final int CONTAINERS = 7;
+    private static final int WIDTH = 480;
+
+    private Context context;
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        for (int i = 0; i < CONTAINERS; i++) controller.addViewToNewContainer(new View(context));
+        controller.layout(0, 0, WIDTH, 800);
+
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        controller.setSwitchAnimation(Controller.ANIMATION_SWIPE, false);
+    }
+
+    private boolean isPrepared(int position) {
+        View container = controller.getContainerAtPosition(position);
+        return container.getVisibility() == View.INVISIBLE && container.getWidth() == WIDTH;
+    }
+
+    @Test
+    public void neighboursArePreparedWhenSwitchEnds() {
+        assertEquals(1, controller.getPrefetchDistance());
+        controller.goFastTo(3);
+        scheduler.runUntilIdle();
+
+        assertTrue(isPrepared(2));
+        assertTrue(isPrepared(4));
+        assertFalse(isPrepared(1));
+        assertFalse(isPrepared(5));
+    }
+
+    @Test
+    public void distanceIsConfigurable() {
+        controller.setPrefetch(2, false);
+        controller.goFastTo(3);
+        scheduler.runUntilIdle();
+        for (int i = 1; i <= 5; i++) if (i != 3) assertTrue(isPrepared(i));
+        assertFalse(isPrepared(0));
+
+        controller.setPrefetch(0, false);
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+        assertEquals(View.GONE, controller.getContainerAtPosition(3).getVisibility());
+        assertNotEquals(WIDTH, controller.getContainerAtPosition(6).getWidth());
+    }
+
+    @Test
+    public void preparedAdapterPagesAreNotBoundAgain() {
+        final int[] binds = {0};
+        controller.setAdapter(new ContainerAdapter() {
+            @Override
+            public int getCount() {
+                return 100;
+            }
+
+            @Override
+            public View onCreateView(ViewGroup parent, int viewType) {
+                return new View(parent.getContext());
+            }
+
+            @Override
+            public void onBindView(View view, int position) {
+                binds[0]++;
+            }
+        });
+        controller.goFastTo(50);
+        scheduler.runUntilIdle();
+        assertEquals(3, binds[0]);
+
+        // Next page is already bound, switch starts without binding
+        assertTrue(controller.goToNext());
+        assertEquals(3, binds[0]);
+        scheduler.runUntilIdle();
+        assertEquals(4, binds[0]);
+    }
+
+    @Test
+    public void predictedContainerIsPreparedBeforeNeighbours() {
+        controller.setPredictionEnabled(true);
+        controller.getContainerAtPosition(5).setTag("mail");
+
+        for (int i = 0; i < 3; i++) {
+            controller.goFastTo(0);
+            scheduler.runUntilIdle();
+            controller.goFastToContainerWithTag("mail");
+            scheduler.runUntilIdle();
+        }
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+
+        assertTrue(isPrepared(5));
+        assertTrue(isPrepared(1));
+        assertFalse(isPrepared(3));
+
+        assertTrue(controller.goFastToContainerWithTag("mail"));
+        PredictionStats stats = controller.getPredictionStats();
+        scheduler.runUntilIdle();
+        assertEquals(1, controller.getPredictionStats().getHitsCount() - stats.getHitsCount());
+        assertTrue(controller.getPredictionStats().getHitRate() > 0.0f);
+    }
+
+    @Test
+    public void prefetchIsSlicedAndCancellable() {
+        final IdleScheduler idle = new IdleScheduler();
+        final int[] obtained = {0};
+        FCPrefetcher prefetcher = new FCPrefetcher(new FCPrefetcher.Host() {
+            @Override
+            public int getCount() {
+                return 100;
+            }
+
+            @Override
+            public View obtainContainer(int position) {
+                obtained[0]++;
+                long end = System.nanoTime() + FCPrefetcher.SLICE_NANOS / 2;
+                while (System.nanoTime() < end) Thread.yield();
+                return new View(context);
+            }
+
+            @Override
+            public int getPosition(View container) {
+                return -1;
+            }
+
+            @Override
+            public void measureContainer(View container) {}
+        });
+        prefetcher.setDistance(4, false);
+        prefetcher.start(idle, 50, new int[0], 0);
+
+        // Slice stops when its time is out and posts the next one
+        assertEquals(1, idle.tasks.size());
+        idle.runNext();
+        assertTrue(obtained[0] >= 1 && obtained[0] < 8);
+        assertEquals(1, idle.tasks.size());
+
+        int before = obtained[0];
+        prefetcher.cancel();
+        idle.runNext();
+        assertEquals(before, obtained[0]);
+        assertTrue(idle.tasks.isEmpty());
+        assertFalse(prefetcher.isRunning());
+    }
+
+    private static class IdleScheduler implements Scheduler {
+        final ArrayList<Runnable> tasks = new ArrayList<>();
+
+        void runNext() {
+            tasks.remove(0).run();
+        }
+
+        @Override
+        public long now() { return 0; }
+
+        @Override
+        public void post(Runnable task) {}
+
+        @Override
+        public void postDelayed(Runnable task, long delayMillis) {}
+
+        @Override
+        public void postFrame(Runnable task) {}
+
+        @Override
+        public void postIdle(Runnable task) { tasks.add(task); }
+
+        @Override
+        public void cancelAll() { tasks.clear(); }
+
+        @Override
+        public void startAnimation(View view, Animation animation) {}
+    }
+}
@@ -0,0 +1,169 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.app.Activity;
+import android.content.ContextWrapper;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RetainedContainersTest {
+
+    /*
+     * Robolectric does not remove views of destroyed activity from window,
+     * so recreation is made by hand as the platform makes it:
+     * old activity is destroyed, its views are detached and then the new one is created.
+     */
+
+    public static class RetainActivity extends Activity {
+        FrameController controller;
+        boolean retained;
+        int inflated = 0;
+        boolean changingConfigurations = false;
+
+        @Override
+        public boolean isChangingConfigurations() {
+            return changingConfigurations;
+        }
+
+        @Override
+        protected void onCreate(Bundle savedInstanceState) {
+            super.onCreate(savedInstanceState);
+            controller = new FrameController(this);
+            setContentView(controller);
+
+            retained = controller.setRetainKey("main");
+            if (!retained) {
+                controller.setSwitchAnimation(Controller.ANIMATION_FADE, true);
+                for (int i = 0; i < 5; i++) {
+                    controller.addLayoutToNewContainer(android.R.layout.simple_list_item_1, "page " + i);
+                    inflated++;
+                }
+                controller.goFastTo(3);
+            }
+        }
+    }
+
+    private RetainActivity recreate(ActivityController<RetainActivity> activityController, boolean changingConfigurations) {
+        RetainActivity activity = activityController.get();
+        activity.changingConfigurations = changingConfigurations;
+        activityController.pause().stop().destroy();
+        ((ViewGroup) activity.controller.getParent()).removeView(activity.controller);
+        return changingConfigurations ? Robolectric.buildActivity(RetainActivity.class).setup().get() : null;
+    }
+
+    @Test
+    public void containersSurviveRecreation() {
+        ActivityController<RetainActivity> activityController = Robolectric.buildActivity(RetainActivity.class).setup();
+        RetainActivity first = activityController.get();
+        assertFalse(first.retained);
+        FrameLayout current = first.controller.getCurrentContainer();
+
+        RetainActivity second = recreate(activityController, true);
+        assertTrue(second.retained);
+        assertEquals(0, second.inflated);
+        assertEquals(5, second.controller.getContainersCount());
+        assertSame(current, second.controller.getCurrentContainer());
+        assertEquals(3, second.controller.getCurrentPosition());
+        assertEquals("page 2", second.controller.getContainerAtPosition(2).getTag());
+        assertEquals(Controller.ANIMATION_FADE, second.controller.getSwitchAnimationType());
+        assertTrue(second.controller.isScaleModifierEnabled());
+        assertEquals(Controller.CONTAINER_VISIBLE, second.controller.getContainerState(current));
+
+        // Views follow the new activity
+        View text = current.getChildAt(0);
+        assertSame(second, ((ContextWrapper) text.getContext()).getBaseContext());
+        assertEquals(0, first.controller.getContainersCount());
+
+        assertFalse(FCRetainedStore.contains("main"));
+    }
+
+    @Test
+    public void finishedActivityRetainsNothing() {
+        ActivityController<RetainActivity> activityController = Robolectric.buildActivity(RetainActivity.class).setup();
+        recreate(activityController, false);
+        assertFalse(FCRetainedStore.contains("main"));
+
+        RetainActivity next = Robolectric.buildActivity(RetainActivity.class).setup().get();
+        assertFalse(next.retained);
+        assertEquals(5, next.inflated);
+    }
+
+    @Test
+    public void unclaimedContainersAreDroppedOnNextResume() {
+        ActivityController<RetainActivity> activityController = Robolectric.buildActivity(RetainActivity.class).setup();
+        RetainActivity activity = activityController.get();
+        activity.changingConfigurations = true;
+        activityController.pause().stop().destroy();
+        ((ViewGroup) activity.controller.getParent()).removeView(activity.controller);
+        assertTrue(FCRetainedStore.contains("main"));
+
+        // Recreated activity does not use the retain key
+
+        Robolectric.buildActivity(Activity.class).setup();
+        assertFalse(FCRetainedStore.contains("main"));
+    }
+
+    @Test
+    public void controllerWithAdapterLeavesRetainedContainers() {
+        ActivityController<RetainActivity> activityController = Robolectric.buildActivity(RetainActivity.class).setup();
+        RetainActivity activity = activityController.get();
+        activity.changingConfigurations = true;
+        activityController.pause().stop().destroy();
+        ((ViewGroup) activity.controller.getParent()).removeView(activity.controller);
+
+        FrameController controller = new FrameController(activity);
+        controller.setAdapter(new ContainerAdapter() {
+            @Override
+            public int getCount() {
+                return 3;
+            }
+
+            @Override
+            public View onCreateView(ViewGroup parent, int viewType) {
+                return new TextView(parent.getContext());
+            }
+
+            @Override
+            public void onBindView(View view, int position) {}
+        });
+        assertFalse(controller.setRetainKey("main"));
+        assertTrue(FCRetainedStore.contains("main"));
+
+        controller.setAdapter(null);
+        assertTrue(controller.setRetainKey("main"));
+        assertEquals(5, controller.getContainersCount());
+        assertFalse(FCRetainedStore.contains("main"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SessionReplayTest {
+
+    private Context context;
+    private FrameController recorded;
+    private VirtualScheduler recordedScheduler;
+    private SessionRecorder recorder;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        recorded = new FrameController(context);
+        recordedScheduler = new VirtualScheduler();
+        recorded.setScheduler(recordedScheduler);
+
+        recorder = new SessionRecorder(64);
+        recorded.setSessionRecorder(recorder);
+
+        recorded.setSwitchAnimation(Controller.ANIMATION_MOVE_RIGHT, true);
+        recorded.setAnimationSpeed(Controller.SPEED_FAST);
+        for (int i = 0; i < 6; i++) recorded.addViewToNewContainer(new View(context));
+
+        recorded.goTo(0);
+        recordedScheduler.advanceBy(1000);
+        recorded.goTo(4);
+        recordedScheduler.advanceBy(100);
+        recorded.goToNext();
+        recordedScheduler.advanceBy(2000);
+        recorded.goToPrevious();
+        recordedScheduler.advanceBy(500);
+        recorded.removeContainerAtPosition(3);
+        recordedScheduler.advanceBy(500);
+        recorded.goFastToContainerWithTag("missing");
+        recordedScheduler.runUntilIdle();
+    }
+
+    @Test
+    public void recordsResolvedCalls() {
+        // 2 settings, 6 containers, 5 navigations, removal without its inner navigation, missing tag
+        assertEquals(14, recorder.size());
+        assertEquals(0, recorder.getDroppedCount());
+    }
+
+    @Test
+    public void replayReproducesSession() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.writeTo(out);
+        SessionReplayer replayer = SessionReplayer.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(recorder.size(), replayer.size());
+
+        FrameController replayed = new FrameController(context);
+        VirtualScheduler scheduler = new VirtualScheduler();
+        replayed.setScheduler(scheduler);
+        SessionReplayer.Report report = replayer.replay(replayed, scheduler);
+
+        assertEquals(replayer.size(), report.size());
+        assertEquals(recorded.getContainersCount(), replayed.getContainersCount());
+        assertEquals(recorded.isOut(), replayed.isOut());
+
+        // goTo(4) blocks goToNext() sent 100 ms later, missing tag is rejected
+        assertEquals(SessionRecorder.OP_GO_TO, report.getOp(10));
+        assertTrue(report.getResult(9));
+        assertFalse(report.getResult(10));
+        assertTrue(report.getResult(11));
+        assertEquals(SessionRecorder.OP_REMOVE_CONTAINER, report.getOp(12));
+        assertFalse(report.getResult(13));
+        assertEquals(0, report.getDivergenceCount());
+        assertTrue(report.getTotalLatencyNanos() > 0);
+    }
+
+    @Test
+    public void replayWithoutSchedulerKeepsRecordedTiming() {
+        FrameController replayed = new FrameController(context);
+        Scheduler scheduler = replayed.getScheduler();
+        SessionReplayer.Report report = recorder.toReplayer().replay(replayed, null);
+
+        assertEquals(0, report.getDivergenceCount());
+        assertEquals(recorded.getCurrentPosition(), replayed.getCurrentPosition());
+        assertTrue(scheduler == replayed.getScheduler());
+    }
+
+    @Test
+    public void blockedStepsAreReportedAsDivergences() {
+        // Virtual time is not used by controller, so switch started by goTo(4) never ends
+        FrameController replayed = new FrameController(context);
+        SessionReplayer.Report report = recorder.toReplayer().replay(replayed, new VirtualScheduler());
+
+        assertFalse(report.getResult(11));
+        assertTrue(report.isDiverged(11));
+        assertFalse(report.isDiverged(10));
+        assertTrue(report.getDivergenceCount() > 0);
+        assertTrue(report.toString(), report.toString().contains("divergences=" + report.getDivergenceCount()));
+    }
+
+    @Test
+    public void reportsCanBeSavedAndCompared() throws IOException {
+        SessionReplayer replayer = recorder.toReplayer();
+
+        FrameController first = new FrameController(context);
+        VirtualScheduler firstScheduler = new VirtualScheduler();
+        first.setScheduler(firstScheduler);
+        SessionReplayer.Report baseline = replayer.replay(first, firstScheduler, new JvmAllocCounter());
+        assertTrue(baseline.getTotalAllocatedBytes() > 0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        baseline.writeTo(out);
+        SessionReplayer.Report saved = SessionReplayer.Report.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(baseline.getTotalLatencyNanos(), saved.getTotalLatencyNanos());
+        assertEquals(baseline.getTotalAllocatedBytes(), saved.getTotalAllocatedBytes());
+
+        FrameController second = new FrameController(context);
+        VirtualScheduler secondScheduler = new VirtualScheduler();
+        second.setScheduler(secondScheduler);
+        String diff = replayer.replay(second, secondScheduler).diff(saved);
+
+        assertTrue(diff, diff.contains("GO_TO"));
+        assertTrue(diff, diff.contains("ADD_CONTAINER"));
+        assertTrue(diff, diff.contains("REMOVE_CONTAINER"));
+    }
+
+    /**
+     * Counts allocations with ThreadMXBean of HotSpot, Debug does not count them on JVM
+     */
+    private static class JvmAllocCounter extends FCAllocCounter {
+        @Override
+        void start() {}
+
+        @Override
+        void stop() {}
+
+        @Override
+        long allocatedBytes() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
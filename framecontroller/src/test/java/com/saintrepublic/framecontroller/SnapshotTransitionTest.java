@@ -0,0 +1,164 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.animation.AlphaAnimation;
+import android.view.animation.Animation;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SnapshotTransitionTest {
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    private FrameLayout newContainer(int width, int height) {
+        FrameLayout container = new FrameLayout(context);
+        container.addView(new TextView(context));
+        container.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        container.layout(0, 0, width, height);
+        return container;
+    }
+
+    @Test
+    public void bitmapsAreReusedForContainersOfTheSameSize() {
+        FCSnapshots snapshots = new FCSnapshots();
+
+        // Containers which are not laid out are animated live
+        assertFalse(snapshots.capture(new FrameLayout(context)));
+
+        FrameLayout first = newContainer(200, 300);
+        FrameLayout second = newContainer(200, 300);
+        assertTrue(snapshots.capture(first));
+        assertTrue(snapshots.capture(first));
+        assertTrue(snapshots.capture(second));
+        assertEquals(2, snapshots.size());
+        assertEquals(2, snapshots.getCreatedCount());
+
+        snapshots.releaseAll();
+        assertEquals(0, snapshots.size());
+        assertEquals(2, snapshots.getPooledCount());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(snapshots.capture(first));
+            assertTrue(snapshots.capture(second));
+            snapshots.release(first);
+            snapshots.release(second);
+        }
+        assertEquals(2, snapshots.getCreatedCount());
+
+        // Other size needs a new bitmap, pool keeps at most POOL_SIZE of them
+        for (int i = 0; i < FCSnapshots.POOL_SIZE; i++) {
+            FrameLayout other = newContainer(100 + i, 100);
+            assertTrue(snapshots.capture(other));
+            snapshots.release(other);
+        }
+        assertEquals(2 + FCSnapshots.POOL_SIZE, snapshots.getCreatedCount());
+        assertEquals(FCSnapshots.POOL_SIZE, snapshots.getPooledCount());
+
+        snapshots.trim();
+        assertEquals(0, snapshots.getPooledCount());
+    }
+
+    @Test
+    public void snapshotIsDrawnWithContainerAnimation() {
+        final FCSnapshots snapshots = new FCSnapshots();
+        FrameLayout parent = newContainer(200, 300);
+        final FrameLayout container = newContainer(200, 300);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(200, 300, Bitmap.Config.ARGB_8888));
+
+        Animation animation = new AlphaAnimation(1.0f, 0.0f);
+        animation.setDuration(100);
+        animation.setAnimationListener(new Animation.AnimationListener() {
+            @Override
+            public void onAnimationStart(Animation animation) {}
+
+            @Override
+            public void onAnimationEnd(Animation animation) {
+                snapshots.release(container);
+            }
+
+            @Override
+            public void onAnimationRepeat(Animation animation) {}
+        });
+        animation.setStartTime(1000);
+        container.setAnimation(animation);
+
+        assertTrue(snapshots.capture(container));
+        assertTrue(snapshots.draw(canvas, container, 1050, parent));
+        assertTrue(animation.isInitialized());
+        assertTrue(snapshots.has(container));
+
+        // Released on the last frame, container is drawn live
+        assertFalse(snapshots.draw(canvas, container, 1100, parent));
+        assertFalse(snapshots.has(container));
+        assertEquals(1, snapshots.getPooledCount());
+    }
+
+    @Test
+    public void switchesWorkWithSnapshots() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        FrameController controller = new FrameController(context);
+        controller.setScheduler(scheduler);
+        controller.setPrefetch(0, false);
+        controller.setSnapshotTransitionsEnabled(true);
+        assertTrue(controller.isSnapshotTransitionsEnabled());
+        controller.setSwitchAnimation(Controller.ANIMATION_SWIPE, true);
+
+        for (int i = 0; i < 3; i++) controller.addViewToNewContainer(new TextView(context));
+        controller.measure(View.MeasureSpec.makeMeasureSpec(400, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        controller.layout(0, 0, 400, 800);
+
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+        controller.goTo(2);
+        scheduler.runUntilIdle();
+        controller.goToPrevious();
+        scheduler.runUntilIdle();
+
+        assertEquals(1, controller.getCurrentPosition());
+        assertEquals(View.GONE, controller.getContainerAtPosition(0).getVisibility());
+        assertEquals(View.VISIBLE, controller.getContainerAtPosition(1).getVisibility());
+        assertEquals(View.GONE, controller.getContainerAtPosition(2).getVisibility());
+
+        controller.setSnapshotTransitionsEnabled(false);
+        assertFalse(controller.isSnapshotTransitionsEnabled());
+    }
+}
@@ -0,0 +1,177 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SpringTransitionTest {
+
+    /*
+     * Spring switches driven by VirtualScheduler.
+     * Callbacks are written as in VirtualSchedulerTest: S, T<position> and E.
+     */
+
+    private static final int CONTAINERS = 6;
+    private static final int WIDTH = 480;
+
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+    private StringBuilder callbacks = new StringBuilder();
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        for (int i = 0; i < CONTAINERS; i++) controller.addViewToNewContainer(new View(context));
+        controller.layout(0, 0, WIDTH, 800);
+
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        controller.setSwitchAnimation(Controller.ANIMATION_SPRING, true);
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+
+        controller.setSwitchListener(new FrameController.OnSwitchListener() {
+            @Override
+            public void onSwitchStarted(FrameLayout currentContainer, int currentPosition) {
+                callbacks.append("S");
+            }
+
+            @Override
+            public void onTargetReached(FrameLayout targetContainer, int targetPosition) {
+                callbacks.append("T").append(targetPosition);
+            }
+
+            @Override
+            public void onAnimationEnds(boolean isOut) {
+                callbacks.append("E");
+            }
+        });
+    }
+
+    @Test
+    public void springMovesContainersAndSettlesOnTarget() {
+        assertTrue(controller.goTo(2));
+        long duration = controller.getSwitchDuration();
+        assertTrue(duration > 0);
+
+        scheduler.advanceBy(5 * VirtualScheduler.DEFAULT_FRAME_MILLIS);
+        float position = springPosition();
+        assertTrue(position > 0.0f && position < 2.0f);
+        assertTrue(controller.getRemainingSwitchDuration() < duration);
+
+        // Containers around spring position share the screen, scale modifier shrinks them
+        int low = (int) position;
+        View left = controller.getChildAt(low);
+        View right = controller.getChildAt(low + 1);
+        assertEquals(View.VISIBLE, left.getVisibility());
+        assertEquals(View.VISIBLE, right.getVisibility());
+        assertEquals(WIDTH, right.getTranslationX() - left.getTranslationX(), 0.5f);
+        assertTrue(left.getScaleX() < 1.0f || right.getScaleX() < 1.0f);
+        assertTrue(left.getAlpha() < 1.0f || right.getAlpha() < 1.0f);
+
+        long elapsed = scheduler.runUntilIdle();
+        assertTrue(elapsed <= duration + VirtualScheduler.DEFAULT_FRAME_MILLIS);
+        assertEquals("ST2E", callbacks.toString());
+        assertSettledOn(2);
+    }
+
+    @Test
+    public void newRequestRetargetsWithoutJump() {
+        assertTrue(controller.goTo(4));
+        scheduler.advanceBy(10 * VirtualScheduler.DEFAULT_FRAME_MILLIS);
+
+        float before = springPosition();
+        // Spring is not blocked, new target is accepted mid-flight
+        assertTrue(controller.goTo(1));
+        assertEquals(before, springPosition(), 0.001f);
+
+        scheduler.advanceBy(VirtualScheduler.DEFAULT_FRAME_MILLIS);
+        float after = springPosition();
+        assertTrue("moved " + (after - before), Math.abs(after - before) < 0.5f);
+
+        scheduler.runUntilIdle();
+        assertEquals("SST1E", callbacks.toString());
+        assertSettledOn(1);
+    }
+
+    @Test
+    public void otherAnimationSettlesRunningSpring() {
+        assertTrue(controller.goTo(3));
+        scheduler.advanceBy(4 * VirtualScheduler.DEFAULT_FRAME_MILLIS);
+
+        controller.setSwitchAnimation(Controller.ANIMATION_FADE, false);
+        assertTrue(controller.goTo(5));
+        assertTrue(callbacks.toString().startsWith("ST3E"));
+
+        scheduler.runUntilIdle();
+        assertEquals(5, controller.getCurrentPosition());
+        for (int i = 0; i < CONTAINERS; i++) {
+            View container = controller.getChildAt(i);
+            assertEquals(0.0f, container.getTranslationX(), 0.0f);
+            assertEquals(1.0f, container.getScaleX(), 0.0f);
+        }
+        assertEquals(View.VISIBLE, controller.getChildAt(5).getVisibility());
+    }
+
+    @Test
+    public void removingContainerSettlesSpring() {
+        assertTrue(controller.goTo(3));
+        scheduler.advanceBy(3 * VirtualScheduler.DEFAULT_FRAME_MILLIS);
+
+        controller.removeContainerAtPosition(5);
+        assertTrue(scheduler.isIdle() || scheduler.getPendingTaskCount() == 1);
+        scheduler.runUntilIdle();
+        assertEquals("ST3E", callbacks.toString());
+        assertEquals(0.0f, controller.getChildAt(3).getTranslationX(), 0.0f);
+        assertEquals(3, controller.getCurrentPosition());
+    }
+
+    private float springPosition() {
+        // Position is restored from translation of the first visible container
+        for (int i = 0; i < controller.getChildCount(); i++) {
+            View container = controller.getChildAt(i);
+            if (container.getVisibility() == View.VISIBLE) return i - container.getTranslationX() / WIDTH;
+        }
+        return Float.NaN;
+    }
+
+    private void assertSettledOn(int position) {
+        assertEquals(position, controller.getCurrentPosition());
+        for (int i = 0; i < CONTAINERS; i++) {
+            View container = controller.getChildAt(i);
+            assertEquals(i == position, container.getVisibility() == View.VISIBLE);
+            assertEquals(0.0f, container.getTranslationX(), 0.0f);
+            assertEquals(1.0f, container.getScaleX(), 0.0f);
+            assertEquals(1.0f, container.getAlpha(), 0.0f);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Matrix;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.animation.Animation;
+import android.widget.FrameLayout;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowViewGroup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 28, shadows = {TransitionAllocationTest.ShadowPlainMatrix.class, TransitionAllocationTest.ShadowPlainViewGroup.class})
+public class TransitionAllocationTest {
+
+    /*
+     * Allocation budget of steady-state switching.
+     *
+     * Runs goToNext/goToPrevious cycles for every animation type with and without
+     * scale modifier on VirtualScheduler and counts bytes allocated by the main thread per switch.
+     * Every switch of the cycles is a single hop.
+     *
+     * The same cycles with ANIMATION_NONE are measured as baseline and subtracted,
+     * so what is left is garbage of animating a hop: animations, listeners, curves evaluation
+     * on every frame and tasks of the scheduler, plus Robolectric work done when an animation
+     * is set on a view. Matrix of Robolectric records every operation as text,
+     * so it is replaced with ShadowPlainMatrix which keeps only values as the native one,
+     * and ShadowPlainViewGroup sets animations as the framework does, without Robolectric animation runner.
+     */
+
+    private static final int CONTAINERS = 4;
+    private static final int WARM_UP_CYCLES = 20;
+    private static final int CYCLES = 50;
+    private static final int REPEATS = 3;
+    private static final int FRAME_MILLIS = 16;
+
+    /**
+     * Bytes allowed per hop over ANIMATION_NONE for each animation type without and with scale modifier,
+     * index is animation type + 1. Ending an animation set on a view costs about 480 bytes in the view framework,
+     * so budgets are that per animated container plus a few hundred bytes for the hop itself.
+     */
+    private static final long[][] BUDGETS = {
+            /* NONE */              {0, 0},
+            /* FADE */              {768, 768},
+            /* SCALE */             {768, 768},
+            /* SWIPE */             {1280, 1280},
+            /* MOVE_RIGHT */        {768, 768},
+            /* MOVE_BOTTOM */       {768, 768},
+            /* MOVE_LEFT */         {768, 768},
+            /* MOVE_TOP */          {768, 768},
+            /* SCROLL_VERTICAL */   {1280, 1280},
+            /* SCROLL_HORIZONTAL */ {1280, 1280},
+            /* SPRING */            {1280, 1280}
+    };
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "animation={0} scaleMod={1}")
+    public static Collection<Object[]> parameters() {
+        ArrayList<Object[]> parameters = new ArrayList<>();
+        for (int type = Controller.ANIMATION_FADE; type <= Controller.ANIMATION_SPRING; type++) {
+            parameters.add(new Object[]{type, false});
+            parameters.add(new Object[]{type, true});
+        }
+        return parameters;
+    }
+
+    private final int animationType;
+    private final boolean scaleMod;
+
+    private boolean switchEnded;
+
+    public TransitionAllocationTest(int animationType, boolean scaleMod) {
+        this.animationType = animationType;
+        this.scaleMod = scaleMod;
+    }
+
+    @Test
+    public void steadyStateSwitchingStaysWithinBudget() {
+        assumeAllocationCounting();
+
+        long bytesPerHop = Long.MAX_VALUE;
+        for (int i = 0; i < REPEATS; i++) {
+            bytesPerHop = Math.min(bytesPerHop, bytesPerSwitch(animationType) - bytesPerSwitch(Controller.ANIMATION_NONE));
+        }
+
+        long budget = BUDGETS[animationType + 1][scaleMod ? 1 : 0];
+        assertTrue(String.format(Locale.US, "animation %d scaleMod %b allocates %d bytes per hop over no animation, budget is %d",
+                animationType, scaleMod, bytesPerHop, budget), bytesPerHop <= budget);
+    }
+
+    //========================================== Driver ============================================
+
+    private long bytesPerSwitch(int type) {
+        Context context = RuntimeEnvironment.application;
+        FrameController controller = new FrameController(context);
+        VirtualScheduler scheduler = new VirtualScheduler(FRAME_MILLIS);
+        controller.setScheduler(scheduler);
+        controller.setSwitchAnimation(type, scaleMod);
+        controller.setAnimationSpeed(Controller.SPEED_FAST);
+        for (int i = 0; i < CONTAINERS; i++) controller.addViewToNewContainer(new View(context));
+        controller.layout(0, 0, 480, 800);
+
+        controller.setSwitchListener(new FrameController.OnSwitchListener() {
+            @Override
+            public void onSwitchStarted(FrameLayout currentContainer, int currentPosition) {}
+
+            @Override
+            public void onTargetReached(FrameLayout targetContainer, int targetPosition) {}
+
+            @Override
+            public void onAnimationEnds(boolean isOut) {
+                switchEnded = true;
+            }
+        });
+
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+        for (int i = 0; i < WARM_UP_CYCLES; i++) cycle(controller, scheduler);
+
+        long bytes = allocatedBytes();
+        for (int i = 0; i < CYCLES; i++) cycle(controller, scheduler);
+        return (allocatedBytes() - bytes) / (CYCLES * 2);
+    }
+
+    private void cycle(FrameController controller, VirtualScheduler scheduler) {
+        assertTrue(switchTo(controller, scheduler, true));
+        assertTrue(switchTo(controller, scheduler, false));
+    }
+
+    /**
+     * Make a single hop and run virtual time until all switching animations end
+     */
+    private boolean switchTo(FrameController controller, VirtualScheduler scheduler, boolean next) {
+        switchEnded = false;
+        if (!(next ? controller.goToNext() : controller.goToPrevious())) return false;
+        scheduler.runUntilIdle();
+        return switchEnded;
+    }
+
+    private static void assumeAllocationCounting() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    //========================================= Shadows ============================================
+
+    /**
+     * Robolectric steps animation set on a view by itself, containers keep only the animation as on device
+     */
+    @Implements(ViewGroup.class)
+    public static class ShadowPlainViewGroup extends ShadowViewGroup {
+
+        @Implementation
+        protected void setAnimation(Animation animation) {
+            Shadow.directlyOn(realView, View.class).setAnimation(animation);
+        }
+    }
+
+    /**
+     * Matrix keeping only its values, Robolectric one records every operation as text
+     */
+    @Implements(Matrix.class)
+    public static class ShadowPlainMatrix {
+
+        private final float[] values = new float[9];
+
+        @Implementation
+        protected void __constructor__() {
+            reset();
+        }
+
+        @Implementation
+        protected void __constructor__(Matrix src) {
+            if (src != null) src.getValues(values);
+            else reset();
+        }
+
+        @Implementation
+        protected void reset() {
+            for (int i = 0; i < 9; i++) values[i] = 0;
+            values[Matrix.MSCALE_X] = 1;
+            values[Matrix.MSCALE_Y] = 1;
+            values[Matrix.MPERSP_2] = 1;
+        }
+
+        @Implementation
+        protected boolean isIdentity() {
+            return values[Matrix.MSCALE_X] == 1 && values[Matrix.MSKEW_X] == 0 && values[Matrix.MTRANS_X] == 0
+                    && values[Matrix.MSKEW_Y] == 0 && values[Matrix.MSCALE_Y] == 1 && values[Matrix.MTRANS_Y] == 0;
+        }
+
+        @Implementation
+        protected void set(Matrix src) {
+            if (src != null) src.getValues(values);
+            else reset();
+        }
+
+        @Implementation
+        protected void getValues(float[] out) {
+            System.arraycopy(values, 0, out, 0, 9);
+        }
+
+        @Implementation
+        protected void setValues(float[] in) {
+            System.arraycopy(in, 0, values, 0, 9);
+        }
+
+        @Implementation
+        protected boolean preTranslate(float dx, float dy) {
+            return preConcat(1, 0, dx, 0, 1, dy);
+        }
+
+        @Implementation
+        protected boolean preScale(float sx, float sy, float px, float py) {
+            return preConcat(sx, 0, px - sx * px, 0, sy, py - sy * py);
+        }
+
+        @Implementation
+        protected boolean preScale(float sx, float sy) {
+            return preConcat(sx, 0, 0, 0, sy, 0);
+        }
+
+        @Implementation
+        protected boolean preRotate(float degrees, float px, float py) {
+            float sin = (float) Math.sin(Math.toRadians(degrees));
+            float cos = (float) Math.cos(Math.toRadians(degrees));
+            return preConcat(cos, -sin, sin * py + px - cos * px, sin, cos, py - cos * py - sin * px);
+        }
+
+        @Implementation
+        protected boolean preRotate(float degrees) {
+            return preRotate(degrees, 0, 0);
+        }
+
+        private boolean preConcat(float a, float b, float c, float d, float e, float f) {
+            float[] m = values;
+            float m0 = m[0] * a + m[1] * d;
+            float m1 = m[0] * b + m[1] * e;
+            float m2 = m[0] * c + m[1] * f + m[2];
+            float m3 = m[3] * a + m[4] * d;
+            float m4 = m[3] * b + m[4] * e;
+            float m5 = m[3] * c + m[4] * f + m[5];
+            m[0] = m0;
+            m[1] = m1;
+            m[2] = m2;
+            m[3] = m3;
+            m[4] = m4;
+            m[5] = m5;
+            return true;
+        }
+    }
+}
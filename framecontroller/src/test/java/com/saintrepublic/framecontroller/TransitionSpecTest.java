@@ -0,0 +1,189 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.AnimationSet;
+import android.view.animation.Interpolator;
+import android.view.animation.Transformation;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class TransitionSpecTest {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+    private static final float[] TIMES = {0.0f, 0.25f, 0.5f, 0.85f, 1.0f};
+
+    private Animus animus = new Animus();
+    private FCTransitions transitions = new FCTransitions(animus);
+
+    @Test
+    public void swipeMatchesAnimusAnimations() {
+        int duration = 400;
+        animus.setInterpolator(Animus.Interpolators.LINEAR);
+
+        AnimationSet next = new AnimationSet(false);
+        next.addAnimation(animus.scale(0.3f, 1.0f, 0.3f, 1.0f, 1.0f, 1.0f, duration, false));
+        next.addAnimation(animus.fromRightOfParent(duration, false));
+        next.addAnimation(animus.rotate(20, 0, 0.5f, 1.0f, duration, false));
+        next.addAnimation(animus.scale(0.3f, 1.0f, 0.3f, 1.0f, 0.5f, 0.5f, duration, false));
+        assertSameTransformations(next, Controller.ANIMATION_SWIPE, true, true, true, duration);
+
+        AnimationSet prev = new AnimationSet(false);
+        prev.addAnimation(animus.scale(1.0f, 0.2f, 1.0f, 0.2f, 0.0f, 1.0f, (int)(duration * 0.8), true));
+        prev.addAnimation(animus.toLeftOfParent(duration, false));
+        prev.addAnimation(animus.rotate(0, -20, 0.5f, 1.0f, duration, false));
+        prev.addAnimation(animus.scale(1.0f, 0.3f, 1.0f, 0.3f, 0.5f, 0.5f, duration, false));
+        assertSameTransformations(prev, Controller.ANIMATION_SWIPE, true, true, false, duration);
+    }
+
+    @Test
+    public void moveAndFadeMatchAnimusAnimations() {
+        int duration = 500;
+        animus.setInterpolator(Animus.Interpolators.FASTOUT_SLOWIN);
+
+        AnimationSet prev = new AnimationSet(false);
+        prev.addAnimation(animus.toBottomOfParent(duration, false));
+        prev.addAnimation(animus.scale(1.0f, 0.6f, 1.0f, 0.6f, 0.5f, 1.0f, duration, false));
+        assertSameTransformations(prev, Controller.ANIMATION_MOVE_BOTTOM, false, true, false, duration);
+        assertTrue(transitions.getCurves(Controller.ANIMATION_MOVE_BOTTOM, false, true, true).isEmpty());
+
+        animus.setInterpolator(Animus.Interpolators.LINEAR);
+        AnimationSet fade = new AnimationSet(false);
+        fade.addAnimation(animus.scaleFrom0To1(duration, false));
+        fade.addAnimation(animus.show(duration, false));
+        assertSameTransformations(fade, Controller.ANIMATION_FADE, true, true, true, duration);
+    }
+
+    @Test
+    public void customSpecSwitchesContainers() {
+        Context context = RuntimeEnvironment.application;
+        FrameController controller = new FrameController(context);
+        for (int i = 0; i < 4; i++) controller.addViewToNewContainer(new View(context));
+        controller.layout(0, 0, WIDTH, HEIGHT);
+
+        VirtualScheduler scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        // Prefetch would make the neighbour INVISIBLE
+        controller.setPrefetch(0, false);
+
+        int type = controller.registerTransitionSpec(new TransitionSpec() {
+            @Override
+            public void declare(TransitionCurves incoming, TransitionCurves outgoing, boolean forward, boolean scaleModifier) {
+                incoming.alpha(0.0f, 1.0f).translate(0.0f, 0.0f, forward ? 0.5f : -0.5f, 0.0f);
+                outgoing.alpha(1.0f, 0.0f);
+            }
+
+            @Override
+            public int getDuration(int speed) { return 300; }
+
+            @Override
+            public int getHopDelay(int speed) { return 100; }
+
+            @Override
+            public int getInterpolator() { return Animus.Interpolators.DECELERATE; }
+
+            @Override
+            public boolean isDirect() { return false; }
+        });
+        assertTrue(type >= FCTransitions.CUSTOM_FIRST);
+        assertTrue(controller.registerTransitionSpec(new FCBuiltInSpec(Controller.ANIMATION_SCALE)) > type);
+
+        controller.setSwitchAnimation(type, false);
+        assertTrue(controller.goTo(3));
+        assertEquals(3 * 100 + 300, controller.getSwitchDuration());
+
+        scheduler.advanceBy(50);
+        assertFalse(controller.goTo(0));
+
+        scheduler.runUntilIdle();
+        assertEquals(3, controller.getCurrentPosition());
+        for (int i = 0; i < 3; i++) assertEquals(View.GONE, controller.getChildAt(i).getVisibility());
+        assertEquals(View.VISIBLE, controller.getChildAt(3).getVisibility());
+        assertTrue(controller.goTo(0));
+    }
+
+    @Test
+    public void animationsWhichNeverEndReturnToPool() {
+        View view = new View(RuntimeEnvironment.application);
+        view.setVisibility(View.GONE);
+        TransitionCurves curves = transitions.getCurves(Controller.ANIMATION_FADE, true, false, true);
+        Interpolator interpolator = transitions.getInterpolator(Controller.ANIMATION_FADE);
+
+        // Hidden view never draws its animation, so it never ends
+        Animation first = transitions.obtainAnimation(curves, interpolator, 300);
+        view.startAnimation(first);
+        for (int i = 0; i < 100; i++) {
+            transitions.recycle(view);
+            assertEquals(1, transitions.getPoolSize());
+            Animation animation = transitions.obtainAnimation(curves, interpolator, 300);
+            assertSame(first, animation);
+            view.startAnimation(animation);
+        }
+        assertEquals(0, transitions.getPoolSize());
+
+        // Both containers of a hop get their own animation
+        transitions.recycle(view);
+        Animation incoming = transitions.obtainAnimation(curves, interpolator, 300);
+        Animation outgoing = transitions.obtainAnimation(transitions.getCurves(Controller.ANIMATION_FADE, true, false, false), interpolator, 300);
+        assertNotSame(incoming, outgoing);
+    }
+
+    private void assertSameTransformations(Animation expected, int type, boolean forward, boolean scaleMod, boolean incoming, int duration) {
+        Animation actual = transitions.obtainAnimation(transitions.getCurves(type, forward, scaleMod, incoming),
+                transitions.getInterpolator(type), duration);
+
+        expected.initialize(WIDTH, HEIGHT, WIDTH, HEIGHT);
+        actual.initialize(WIDTH, HEIGHT, WIDTH, HEIGHT);
+        expected.setStartTime(0);
+        actual.setStartTime(0);
+
+        Transformation expectedT = new Transformation();
+        Transformation actualT = new Transformation();
+        float[] expectedValues = new float[9];
+        float[] actualValues = new float[9];
+
+        for (float time : TIMES) {
+            long millis = (long)(time * duration);
+            expectedT.clear();
+            actualT.clear();
+            expected.getTransformation(millis, expectedT);
+            actual.getTransformation(millis, actualT);
+
+            expectedT.getMatrix().getValues(expectedValues);
+            actualT.getMatrix().getValues(actualValues);
+            for (int i = 0; i < 9; i++)
+                assertEquals("type " + type + " time " + time + " value " + i, expectedValues[i], actualValues[i], 0.01f);
+            assertEquals("type " + type + " time " + time + " alpha", expectedT.getAlpha(), actualT.getAlpha(), 0.001f);
+        }
+    }
+}
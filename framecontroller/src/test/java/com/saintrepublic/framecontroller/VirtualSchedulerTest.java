@@ -0,0 +1,224 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.view.View;
+import android.view.animation.Animation;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class VirtualSchedulerTest {
+
+    /*
+     * Switches driven by VirtualScheduler.
+     * No real time passes, so every test runs thousands of hops in milliseconds.
+     *
+     * Callbacks are written as S (started), T<position> (target reached) and E (animation ends).
+     * As on device, animations of earlier hops which end after the last hop started
+     * also report the end of switch, so E may repeat.
+     */
+
+    private static final int CONTAINERS = 10;
+    private static final int NAVIGATIONS = 1000;
+
+    private FrameController controller;
+    private VirtualScheduler scheduler;
+    private StringBuilder callbacks = new StringBuilder();
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.application;
+        controller = new FrameController(context);
+        for (int i = 0; i < CONTAINERS; i++) controller.addViewToNewContainer(new View(context));
+        controller.layout(0, 0, 480, 800);
+
+        scheduler = new VirtualScheduler();
+        controller.setScheduler(scheduler);
+        controller.setSwitchListener(new FrameController.OnSwitchListener() {
+            @Override
+            public void onSwitchStarted(FrameLayout currentContainer, int currentPosition) {
+                callbacks.append("S");
+            }
+
+            @Override
+            public void onTargetReached(FrameLayout targetContainer, int targetPosition) {
+                callbacks.append("T").append(targetPosition);
+            }
+
+            @Override
+            public void onAnimationEnds(boolean isOut) {
+                callbacks.append("E");
+            }
+        });
+    }
+
+    @Test
+    public void multiHopSwitchTakesPrecomputedVirtualTime() {
+        controller.setSwitchAnimation(Controller.ANIMATION_MOVE_RIGHT, false);
+        controller.setAnimationSpeed(Controller.SPEED_FAST);
+
+        assertTrue(controller.goTo(3));
+        assertEquals(3 * 140 + 350, controller.getSwitchDuration());
+        scheduler.advanceBy(300);
+        assertEquals(3 * 140 + 350 - 300, controller.getRemainingSwitchDuration());
+        long elapsed = 300 + scheduler.runUntilIdle();
+        assertEquals(0, controller.getRemainingSwitchDuration());
+
+        // Hops 0, 1, 2, 3 are posted 140 ms apart, the last one animates for 350 ms
+        assertTrue("elapsed " + elapsed, elapsed >= 3 * 140 + 350);
+        assertTrue("elapsed " + elapsed, elapsed <= 3 * 140 + 350 + 2 * VirtualScheduler.DEFAULT_FRAME_MILLIS);
+        assertEquals(3, controller.getCurrentPosition());
+        assertTrue(callbacks.toString(), callbacks.toString().matches("ST3E+"));
+    }
+
+    @Test
+    public void switchWithoutAnimationStepsNavigator() {
+        controller.setSwitchAnimation(Controller.ANIMATION_NONE, false);
+        assertTrue(controller.goTo(4));
+        scheduler.runUntilIdle();
+
+        FCNavigator navigator = ReflectionHelpers.getField(controller, "navigator");
+        assertEquals(0, navigator.hopsLeft());
+        assertTrue(navigator.isLastHop());
+        assertEquals(4, controller.getCurrentPosition());
+    }
+
+    @Test
+    public void switchIsBlockedUntilAnimationsEnd() {
+        controller.setSwitchAnimation(Controller.ANIMATION_SCROLL_HORIZONTAL, true);
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+        callbacks.setLength(0);
+
+        assertTrue(controller.goTo(2));
+        scheduler.advanceBy(1);
+        assertFalse(controller.goTo(5));
+
+        scheduler.runUntilIdle();
+        assertTrue(controller.goTo(5));
+        scheduler.runUntilIdle();
+
+        assertEquals(5, controller.getCurrentPosition());
+        assertTrue(callbacks.toString(), callbacks.toString().matches("ST2E+ST5E+"));
+    }
+
+    @Test
+    public void idleTasksRunWhenNothingIsDue() {
+        final StringBuilder order = new StringBuilder();
+        VirtualScheduler idle = new VirtualScheduler();
+        idle.postDelayed(new Runnable() {
+            @Override
+            public void run() { order.append("D"); }
+        }, 100);
+        idle.post(new Runnable() {
+            @Override
+            public void run() { order.append("P"); }
+        });
+        idle.postIdle(new Runnable() {
+            @Override
+            public void run() {
+                order.append("I");
+                // Posted from idle task, runs on the next frame
+                if (order.length() < 4) idle.postIdle(this);
+            }
+        });
+
+        idle.advanceBy(0);
+        assertEquals("PI", order.toString());
+        idle.advanceBy(2 * VirtualScheduler.DEFAULT_FRAME_MILLIS);
+        assertEquals("PIII", order.toString());
+        assertEquals(100 - 2 * VirtualScheduler.DEFAULT_FRAME_MILLIS, idle.runUntilIdle());
+        assertEquals("PIIID", order.toString());
+        assertTrue(idle.isIdle());
+    }
+
+    @Test
+    public void idleTaskPostingItselfDoesNotStallTime() {
+        final int[] runs = {0};
+        final VirtualScheduler idle = new VirtualScheduler();
+        idle.postIdle(new Runnable() {
+            @Override
+            public void run() {
+                runs[0]++;
+                idle.postIdle(this);
+            }
+        });
+
+        idle.advanceBy(10 * VirtualScheduler.DEFAULT_FRAME_MILLIS);
+        assertEquals(10 * VirtualScheduler.DEFAULT_FRAME_MILLIS, idle.now());
+        assertEquals(11, runs[0]);
+    }
+
+    @Test
+    public void animationsAreSetOnViews() {
+        controller.setSwitchAnimation(Controller.ANIMATION_SCROLL_HORIZONTAL, false);
+        controller.goFastTo(0);
+        scheduler.runUntilIdle();
+        assertTrue(controller.goTo(1));
+        scheduler.advanceBy(VirtualScheduler.DEFAULT_FRAME_MILLIS);
+
+        Animation incoming = controller.getChildAt(1).getAnimation();
+        Animation outgoing = controller.getChildAt(0).getAnimation();
+        assertTrue(incoming instanceof FCSpecAnimation);
+        assertTrue(outgoing instanceof FCSpecAnimation);
+        scheduler.runUntilIdle();
+
+        // Next hop takes animations of the previous one back from pool
+        assertTrue(controller.goTo(2));
+        scheduler.runUntilIdle();
+        assertSame(incoming, controller.getChildAt(1).getAnimation());
+    }
+
+    @Test
+    public void thousandsOfNavigationsRunOnVirtualTime() {
+        Random random = new Random(42);
+
+        for (int type = Controller.ANIMATION_NONE; type <= Controller.ANIMATION_SCROLL_HORIZONTAL; type++) {
+            controller.setSwitchAnimation(type, random.nextBoolean());
+
+            for (int i = 0; i < NAVIGATIONS / 10; i++) {
+                int target = random.nextInt(CONTAINERS);
+                if (target == controller.getCurrentPosition()) continue;
+
+                callbacks.setLength(0);
+                assertTrue(controller.goTo(target));
+                scheduler.runUntilIdle();
+
+                assertTrue(scheduler.isIdle());
+                assertEquals(target, controller.getCurrentPosition());
+                assertTrue(callbacks.toString(), callbacks.toString().matches("ST" + target + "E+"));
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.saintrepublic.framecontroller;
+
+/*
+ * Copyright 2019 SaintRepublic
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.io.File;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class WarmStartTest {
+
+    /*
+     * Two starts of FrameController sharing a warm start snapshot.
+     * Robolectric does not draw children in View.draw(), so dispatchDraw() is called directly.
+     * Snapshot is decoded on a worker thread and taken on main thread.
+     */
+
+    private Context context;
+    private File file;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        file = new File(context.getFilesDir(), "framecontroller_test.snapshot");
+        file.delete();
+    }
+
+    private FrameController newStart(VirtualScheduler scheduler) {
+        FrameController controller = new FrameController(context);
+        controller.setScheduler(scheduler);
+        controller.setPrefetch(0, false);
+        controller.setWarmStartSnapshot("test");
+        return controller;
+    }
+
+    private void waitForLoading(FrameController controller) throws InterruptedException {
+        FCWarmStart warmStart = ReflectionHelpers.getField(controller, "warmStart");
+        for (int i = 0; i < 100 && warmStart.isLoading(); i++) {
+            Thread.sleep(10);
+            ShadowLooper.idleMainLooper();
+        }
+        assertFalse(warmStart.isLoading());
+    }
+
+    private void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(400, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, 400, 800);
+    }
+
+    @Test
+    public void snapshotIsShownUntilCurrentContainerIsReady() throws InterruptedException {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        FrameController first = newStart(scheduler);
+        assertFalse(first.isWarmStartPlaceholderShown());
+        // Nothing to save before a container is shown
+        assertFalse(first.saveWarmStartSnapshot());
+
+        TextView text = new TextView(context);
+        text.setText("Warm");
+        first.addViewToNewContainer(text);
+        first.goFastTo(0);
+        scheduler.runUntilIdle();
+        layout(first);
+
+        assertTrue(first.saveWarmStartSnapshot());
+        for (int i = 0; i < 100 && !file.exists(); i++) Thread.sleep(10);
+        assertTrue(file.exists());
+
+        VirtualScheduler nextScheduler = new VirtualScheduler();
+        FrameController second = newStart(nextScheduler);
+        waitForLoading(second);
+        assertTrue(second.isWarmStartPlaceholderShown());
+
+        Canvas canvas = new Canvas(Bitmap.createBitmap(400, 800, Bitmap.Config.RGB_565));
+        layout(second);
+        second.dispatchDraw(canvas);
+        nextScheduler.advanceBy(FCWarmStart.FADE_MILLIS * 2);
+        second.dispatchDraw(canvas);
+        // Kept while there is no current container
+        assertTrue(second.isWarmStartPlaceholderShown());
+
+        second.addViewToNewContainer(new TextView(context));
+        second.goFastTo(0);
+        nextScheduler.runUntilIdle();
+        layout(second);
+        second.dispatchDraw(canvas);
+        assertTrue(second.isWarmStartPlaceholderShown());
+
+        // Fades out after current container is drawn
+        nextScheduler.advanceBy(FCWarmStart.FADE_MILLIS / 2);
+        second.dispatchDraw(canvas);
+        assertTrue(second.isWarmStartPlaceholderShown());
+        nextScheduler.advanceBy(FCWarmStart.FADE_MILLIS);
+        second.dispatchDraw(canvas);
+        assertFalse(second.isWarmStartPlaceholderShown());
+    }
+
+    @Test
+    public void snapshotFadesWithoutCurrentContainer() throws InterruptedException {
+        saveSnapshot();
+
+        VirtualScheduler scheduler = new VirtualScheduler();
+        FrameController second = newStart(scheduler);
+        waitForLoading(second);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(400, 800, Bitmap.Config.ARGB_8888));
+        layout(second);
+        second.dispatchDraw(canvas);
+        scheduler.advanceBy(FCWarmStart.TIMEOUT_MILLIS);
+        second.dispatchDraw(canvas);
+        assertTrue(second.isWarmStartPlaceholderShown());
+        scheduler.advanceBy(FCWarmStart.FADE_MILLIS);
+        second.dispatchDraw(canvas);
+        assertFalse(second.isWarmStartPlaceholderShown());
+    }
+
+    @Test
+    public void snapshotOfOtherSizeIsDropped() throws InterruptedException {
+        saveSnapshot();
+
+        FrameController second = newStart(new VirtualScheduler());
+        waitForLoading(second);
+        assertTrue(second.isWarmStartPlaceholderShown());
+        second.measure(View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(400, View.MeasureSpec.EXACTLY));
+        second.layout(0, 0, 800, 400);
+        second.dispatchDraw(new Canvas(Bitmap.createBitmap(800, 400, Bitmap.Config.ARGB_8888)));
+        assertFalse(second.isWarmStartPlaceholderShown());
+    }
+
+    private void saveSnapshot() throws InterruptedException {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        FrameController first = newStart(scheduler);
+        first.addViewToNewContainer(new TextView(context));
+        first.goFastTo(0);
+        scheduler.runUntilIdle();
+        layout(first);
+        assertTrue(first.saveWarmStartSnapshot());
+        for (int i = 0; i < 100 && !file.exists(); i++) Thread.sleep(10);
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void clearedControllerDeletesSnapshot() throws InterruptedException {
+        saveSnapshot();
+
+        // Cleared before the snapshot is decoded
+        FrameController second = newStart(new VirtualScheduler());
+        second.clear();
+        waitForLoading(second);
+        assertFalse(second.isWarmStartPlaceholderShown());
+        assertFalse(second.saveWarmStartSnapshot());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void snapshotDecodedAfterContainerIsLaidOutIsDropped() throws InterruptedException {
+        saveSnapshot();
+
+        // Decoded snapshot waits on main looper until it is idle
+        ShadowLooper.pauseMainLooper();
+        VirtualScheduler scheduler = new VirtualScheduler();
+        FrameController second = newStart(scheduler);
+        second.addViewToNewContainer(new TextView(context));
+        second.goFastTo(0);
+        scheduler.runUntilIdle();
+        layout(second);
+        waitForLoading(second);
+        assertFalse(second.isWarmStartPlaceholderShown());
+    }
+}